@@ -13,9 +13,11 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.filesystem.EFS;
@@ -25,9 +27,13 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.osgi.framework.Bundle;
 
 import com.aptana.core.IMap;
@@ -40,6 +46,7 @@ import com.aptana.core.util.ResourceUtil;
 import com.aptana.core.util.StringUtil;
 import com.aptana.index.core.IndexContainerJob;
 import com.aptana.index.core.IndexFileJob;
+import com.aptana.index.core.IndexRequestJob;
 
 /**
  * BuildPathManager
@@ -87,6 +94,18 @@ public class BuildPathManager
 	private long fTimestamp = -1;
 	private LinkedHashSet<IBuildPathEntry> fBuildPaths;
 
+	/**
+	 * The paths of the entries whose index has been brought up to date during this session. Build path entries are
+	 * libraries shared by any number of projects, and their indexes are shared as well (indexes are keyed by the
+	 * entry's path), so once an entry is indexed, other projects referencing it just use the existing index.
+	 */
+	private final Set<URI> indexedEntries = new HashSet<URI>();
+
+	/**
+	 * Per-path locks so two projects building at once don't index the same entry twice
+	 */
+	private final Map<URI, Object> indexLocks = new HashMap<URI, Object>();
+
 	/**
 	 * Make sure this is a singleton
 	 */
@@ -149,30 +168,154 @@ public class BuildPathManager
 
 	/**
 	 * If a build path entry is added, we schedule a job to make sure the entry gets indexed (or it's index is
-	 * up-to-date).
+	 * up-to-date). Nothing is scheduled when the entry's shared index is already up to date.
 	 * 
 	 * @param entry
 	 */
-	private void index(IBuildPathEntry entry)
+	private void index(final IBuildPathEntry entry)
 	{
-		try
+		if (isIndexed(entry))
+		{
+			return;
+		}
+
+		Job job = new Job(entry.getDisplayName())
+		{
+			@Override
+			protected IStatus run(IProgressMonitor monitor)
+			{
+				return indexBuildPath(entry, monitor);
+			}
+
+			@Override
+			public boolean belongsTo(Object family)
+			{
+				return family == IndexRequestJob.INDEX_REQUEST_JOB_FAMILY;
+			}
+		};
+		job.setRule(IndexRequestJob.getIndexingRule());
+		job.setPriority(Job.BUILD);
+		job.schedule();
+	}
+
+	/**
+	 * Makes sure the shared index of a build path entry is up-to-date. The entry is indexed the first time it is
+	 * requested during a session; after that the index is treated as immutable and this returns right away, no matter
+	 * how many projects reference the entry, until {@link #invalidateIndex(IBuildPathEntry)} is called.
+	 * 
+	 * @param entry
+	 * @param monitor
+	 * @return
+	 */
+	public IStatus indexBuildPath(IBuildPathEntry entry, IProgressMonitor monitor)
+	{
+		if (entry == null)
 		{
-			IFileStore fileStore = EFS.getStore(entry.getPath());
-			if (fileStore != null)
+			return Status.OK_STATUS;
+		}
+
+		URI path = entry.getPath();
+
+		synchronized (getIndexLock(path))
+		{
+			if (isIndexed(entry))
 			{
-				if (fileStore.fetchInfo().isDirectory())
+				return Status.OK_STATUS;
+			}
+
+			IStatus status = Status.OK_STATUS;
+
+			try
+			{
+				IFileStore fileStore = EFS.getStore(path);
+				if (fileStore != null)
 				{
-					new IndexContainerJob(entry.getDisplayName(), entry.getPath()).schedule();
+					if (fileStore.fetchInfo().isDirectory())
+					{
+						status = new IndexContainerJob(entry.getDisplayName(), path).run(monitor);
+					}
+					else
+					{
+						status = new IndexFileJob(entry.getDisplayName(), path).run(monitor);
+					}
 				}
-				else
+			}
+			catch (Throwable e)
+			{
+				IdeLog.logError(BuildPathCorePlugin.getDefault(), e);
+				return new Status(IStatus.ERROR, BuildPathCorePlugin.PLUGIN_ID, e.getMessage(), e);
+			}
+
+			// only remember complete runs, cancelled or failed ones are retried by the next project that asks
+			if (status.isOK())
+			{
+				synchronized (indexedEntries)
 				{
-					new IndexFileJob(entry.getDisplayName(), entry.getPath()).schedule();
+					indexedEntries.add(path);
 				}
 			}
+
+			return status;
+		}
+	}
+
+	/**
+	 * Returns the lock used to index the entry with the specified path
+	 * 
+	 * @param path
+	 * @return
+	 */
+	private synchronized Object getIndexLock(URI path)
+	{
+		Object lock = indexLocks.get(path);
+
+		if (lock == null)
+		{
+			lock = new Object();
+			indexLocks.put(path, lock);
+		}
+
+		return lock;
+	}
+
+	/**
+	 * Forget that the entry's index is up-to-date, so the next request to index it checks its files again
+	 * 
+	 * @param entry
+	 */
+	public void invalidateIndex(IBuildPathEntry entry)
+	{
+		if (entry != null)
+		{
+			URI path = entry.getPath();
+
+			synchronized (indexedEntries)
+			{
+				indexedEntries.remove(path);
+			}
+			synchronized (this)
+			{
+				indexLocks.remove(path);
+			}
 		}
-		catch (Throwable e)
+	}
+
+	/**
+	 * Determines if the shared index of the entry has already been brought up to date during this session
+	 * 
+	 * @param entry
+	 * @return
+	 */
+	public boolean isIndexed(IBuildPathEntry entry)
+	{
+		if (entry == null)
+		{
+			return false;
+		}
+
+		synchronized (indexedEntries)
 		{
-			IdeLog.logError(BuildPathCorePlugin.getDefault(), e);
+			return indexedEntries.contains(entry.getPath());
 		}
 	}
 
@@ -51,8 +51,6 @@ import com.aptana.core.util.CollectionsUtil;
 import com.aptana.core.util.ResourceUtil;
 import com.aptana.index.core.FileStoreBuildContext;
 import com.aptana.index.core.IIndexFileContributor;
-import com.aptana.index.core.IndexContainerJob;
-import com.aptana.index.core.IndexFileJob;
 import com.aptana.index.core.IndexManager;
 import com.aptana.index.core.IndexPlugin;
 import com.aptana.index.core.build.BuildContext;
@@ -105,6 +103,12 @@ public class UnifiedBuilder extends IncrementalProjectBuilder
 
 		ParserPoolFactory.getInstance().clearCache();
 
+		// have the next build check the files of the project's build path entries again
+		for (IBuildPathEntry entry : getBuildPathManager().getBuildPaths(project))
+		{
+			getBuildPathManager().invalidateIndex(entry);
+		}
+
 		removeProblemsAndTasksFor(project);
 		sub.worked(1);
 
@@ -357,25 +361,8 @@ public class UnifiedBuilder extends IncrementalProjectBuilder
 		SubMonitor sub = SubMonitor.convert(monitor, entries.size());
 		for (IBuildPathEntry entry : entries)
 		{
-			try
-			{
-				IFileStore fileStore = EFS.getStore(entry.getPath());
-				if (fileStore != null)
-				{
-					if (fileStore.fetchInfo().isDirectory())
-					{
-						new IndexContainerJob(entry.getDisplayName(), entry.getPath()).run(sub.newChild(1));
-					}
-					else
-					{
-						new IndexFileJob(entry.getDisplayName(), entry.getPath()).run(sub.newChild(1));
-					}
-				}
-			}
-			catch (Throwable e)
-			{
-				IdeLog.logError(BuildPathCorePlugin.getDefault(), e);
-			}
+			// entries shared with projects built earlier are already up-to-date and return right away
+			getBuildPathManager().indexBuildPath(entry, sub.newChild(1));
 		}
 	}
 
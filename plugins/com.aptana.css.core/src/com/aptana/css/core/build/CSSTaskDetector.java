@@ -7,6 +7,7 @@
  */
 package com.aptana.css.core.build;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -15,10 +16,13 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
 
+import beaver.Scanner;
+
 import com.aptana.core.build.IProblem;
 import com.aptana.core.build.RequiredBuildParticipant;
 import com.aptana.core.resources.IMarkerConstants;
 import com.aptana.core.util.ArrayUtil;
+import com.aptana.css.core.parsing.CSSIndexScanner;
 import com.aptana.css.core.parsing.ast.CSSCommentNode;
 import com.aptana.index.core.build.BuildContext;
 import com.aptana.parsing.ast.IParseNode;
@@ -61,6 +65,25 @@ public class CSSTaskDetector extends RequiredBuildParticipant
 			return Collections.emptyList();
 		}
 
+		String source = context.getContents();
+		if (source != null && source.length() > CSSIndexScanner.SCAN_THRESHOLD)
+		{
+			// don't parse large stylesheets just to find their comments
+			try
+			{
+				return detectTasks(new CSSIndexScanner().scanComments(source), context, monitor);
+			}
+			catch (IOException e)
+			{
+				// ignores the scanner exception
+			}
+			catch (Scanner.Exception e)
+			{
+				// ignores the scanner exception
+			}
+			return Collections.emptyList();
+		}
+
 		try
 		{
 			return detectTasks(context.getAST(), context, monitor);
@@ -83,7 +106,11 @@ public class CSSTaskDetector extends RequiredBuildParticipant
 			return Collections.emptyList();
 		}
 
-		IParseNode[] comments = rootNode.getCommentNodes();
+		return detectTasks(rootNode.getCommentNodes(), context, monitor);
+	}
+
+	private Collection<IProblem> detectTasks(IParseNode[] comments, BuildContext context, IProgressMonitor monitor)
+	{
 		if (ArrayUtil.isEmpty(comments))
 		{
 			return Collections.emptyList();
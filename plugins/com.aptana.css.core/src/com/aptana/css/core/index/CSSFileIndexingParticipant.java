@@ -7,16 +7,20 @@
  */
 package com.aptana.css.core.index;
 
+import java.io.IOException;
 import java.net.URI;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
 
+import beaver.Scanner;
+
 import com.aptana.core.logging.IdeLog;
 import com.aptana.core.util.StringUtil;
 import com.aptana.css.core.CSSColors;
 import com.aptana.css.core.CSSCorePlugin;
+import com.aptana.css.core.parsing.CSSIndexScanner;
 import com.aptana.css.core.parsing.ast.CSSAttributeSelectorNode;
 import com.aptana.css.core.parsing.ast.CSSRuleNode;
 import com.aptana.css.core.parsing.ast.CSSTermNode;
@@ -28,17 +32,24 @@ import com.aptana.parsing.ast.IParseRootNode;
 
 public class CSSFileIndexingParticipant extends AbstractFileIndexingParticipant
 {
-
 	public void index(BuildContext context, Index index, IProgressMonitor monitor) throws CoreException
 	{
 		SubMonitor sub = SubMonitor.convert(monitor, 100);
 		try
 		{
-			IParseRootNode ast = context.getAST();
-			if (ast != null)
+			String source = context.getContents();
+			if (source != null && source.length() > CSSIndexScanner.SCAN_THRESHOLD)
 			{
-				// TODO Pass along the monitor so we can provide very fine-grained detail on progress...
-				walkNode(index, context.getURI(), ast);
+				scan(index, context.getURI(), source);
+			}
+			else
+			{
+				IParseRootNode ast = context.getAST();
+				if (ast != null)
+				{
+					// TODO Pass along the monitor so we can provide very fine-grained detail on progress...
+					walkNode(index, context.getURI(), ast);
+				}
 			}
 		}
 		catch (CoreException e)
@@ -55,6 +66,37 @@ public class CSSFileIndexingParticipant extends AbstractFileIndexingParticipant
 		}
 	}
 
+	/**
+	 * Index the classes, ids and colors of the specified stylesheet in a single pass over its tokens, without building
+	 * its AST
+	 * 
+	 * @param index
+	 * @param uri
+	 * @param source
+	 * @throws IOException
+	 * @throws Scanner.Exception
+	 */
+	public void scan(final Index index, final URI uri, String source) throws IOException, Scanner.Exception
+	{
+		new CSSIndexScanner().scan(source, new CSSIndexScanner.Handler()
+		{
+			public void classFound(String name)
+			{
+				addIndex(index, uri, ICSSIndexConstants.CLASS, name);
+			}
+
+			public void idFound(String name)
+			{
+				addIndex(index, uri, ICSSIndexConstants.IDENTIFIER, name);
+			}
+
+			public void colorFound(String color)
+			{
+				addIndex(index, uri, ICSSIndexConstants.COLOR, CSSColors.to6CharHexWithLeadingHash(color.trim()));
+			}
+		});
+	}
+
 	/**
 	 * @param index
 	 * @param uri
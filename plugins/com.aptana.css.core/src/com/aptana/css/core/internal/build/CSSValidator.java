@@ -8,36 +8,36 @@
 package com.aptana.css.core.internal.build;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.lang.StringEscapeUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.w3c.css.css.StyleReport;
-import org.w3c.css.css.StyleReportFactory;
 import org.w3c.css.css.StyleSheet;
 import org.w3c.css.css.StyleSheetParser;
+import org.w3c.css.parser.CssError;
+import org.w3c.css.parser.CssErrorToken;
+import org.w3c.css.parser.CssParseException;
 import org.w3c.css.properties.PropertiesLoader;
 import org.w3c.css.util.ApplContext;
+import org.w3c.css.util.InvalidParamException;
 import org.w3c.css.util.Utf8Properties;
+import org.w3c.css.util.Warning;
+import org.w3c.css.util.Warnings;
 
 import com.aptana.core.build.AbstractBuildParticipant;
 import com.aptana.core.build.IProblem;
 import com.aptana.core.logging.IdeLog;
 import com.aptana.core.util.IOUtil;
+import com.aptana.core.util.StringUtil;
 import com.aptana.core.util.URLEncoder;
 import com.aptana.css.core.CSSCorePlugin;
 import com.aptana.css.core.ICSSConstants;
@@ -56,21 +56,21 @@ public class CSSValidator extends AbstractBuildParticipant
 	private static final String PROFILES_CONFIG_FILE = "AptanaCSSProfiles.properties"; //$NON-NLS-1$
 
 	/**
-	 * error pattern
+	 * The file the validator's report generator reads the specification links of properties from
 	 */
-	private static final Pattern ERROR_PATTERN = Pattern.compile(
-			"<(error)>(.*?)</\\1>", Pattern.MULTILINE | Pattern.DOTALL); //$NON-NLS-1$
+	private static final String URLS_FILE = "urls.properties"; //$NON-NLS-1$
+
 	/**
-	 * warning pattern
+	 * Warnings above this level are ignored
 	 */
-	private static final Pattern WARNING_PATTERN = Pattern.compile(
-			"<(warning)>(.*?)</\\1>", Pattern.MULTILINE | Pattern.DOTALL); //$NON-NLS-1$
+	private static final int WARNING_LEVEL = 2;
+
+	private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+"); //$NON-NLS-1$
 
 	/**
-	 * properties pattern
+	 * The specification links of properties, shared by all validations
 	 */
-	private static final Pattern PROPERTIES_PATTERN = Pattern.compile(
-			"<([-A-Za-z0-9_:]+)>(.*?)</\\1>", Pattern.MULTILINE | Pattern.DOTALL); //$NON-NLS-1$
+	private static Utf8Properties propertyURLs;
 
 	// CSS3 properties that the validator doesn't recognize yet and need to be ignored
 	@SuppressWarnings("nls")
@@ -122,89 +122,7 @@ public class CSSValidator extends AbstractBuildParticipant
 	static
 	{
 		loadAptanaCSSProfile();
-	}
-
-	private void processErrorsInReport(String report, String sourcePath, List<IProblem> items, List<String> filters)
-	{
-		int offset = 0;
-		String elementName = "errorlist"; //$NON-NLS-1$
-		String startTag = MessageFormat.format("<{0}>", elementName); //$NON-NLS-1$
-		String endTag = MessageFormat.format("</{0}>", elementName); //$NON-NLS-1$
-
-		while (offset < report.length())
-		{
-			int errorListStart = report.indexOf(startTag, offset);
-			if (errorListStart == -1)
-			{
-				break;
-			}
-
-			// advances past the start tag
-			errorListStart += startTag.length();
-
-			// gets the URI
-			int uriStart = report.indexOf("<uri>", errorListStart) + "<uri>".length(); //$NON-NLS-1$ //$NON-NLS-2$
-			int uriEnd = report.indexOf("</uri>", uriStart); //$NON-NLS-1$
-			String uri = new String(report.substring(uriStart, uriEnd));
-
-			// finds the end of this list
-			int errorListEnd = report.indexOf(endTag, errorListStart);
-
-			// checks if the uri matches the source
-			if (uri != null && URLEncoder.encode(uri, null, null).equals(sourcePath))
-			{
-				// extracts the error list
-				String listString = new String(report.substring(errorListStart, errorListEnd));
-				// finds the errors
-				String[] errors = getContent(ERROR_PATTERN, listString);
-				// add errors
-				addErrors(errors, sourcePath, items, filters);
-			}
-
-			// advances past the current error list
-			offset = errorListEnd + endTag.length();
-		}
-	}
-
-	private void processWarningsInReport(String report, String sourcePath, List<IProblem> items, List<String> filters)
-	{
-		int offset = 0;
-		String elementName = "warninglist"; //$NON-NLS-1$
-		String startTag = MessageFormat.format("<{0}>", elementName); //$NON-NLS-1$
-		String endTag = MessageFormat.format("</{0}>", elementName); //$NON-NLS-1$
-
-		while (offset < report.length())
-		{
-			int warningListStart = report.indexOf(startTag, offset);
-			if (warningListStart == -1)
-			{
-				break;
-			}
-
-			// advances past the start tag
-			warningListStart += startTag.length();
-
-			// gets the URI
-			int uriStart = report.indexOf("<uri>", warningListStart) + "<uri>".length(); //$NON-NLS-1$ //$NON-NLS-2$
-			int uriEnd = report.indexOf("</uri>", uriStart); //$NON-NLS-1$
-			String uri = new String(report.substring(uriStart, uriEnd));
-
-			// finds the end of this list
-			int warningListEnd = report.indexOf(endTag, warningListStart);
-
-			if (uri != null && URLEncoder.encode(uri, null, null).equals(sourcePath))
-			{
-				// extracts the warning list
-				String listString = new String(report.substring(warningListStart, warningListEnd));
-				// finds the warnings
-				String[] warnings = getContent(WARNING_PATTERN, listString);
-				// adds errors
-				addWarnings(warnings, sourcePath, items, filters);
-			}
-
-			// advance past the current warning list
-			offset = warningListEnd + endTag.length();
-		}
+		loadPropertyURLs();
 	}
 
 	/**
@@ -254,31 +172,67 @@ public class CSSValidator extends AbstractBuildParticipant
 		}
 	}
 
+	/**
+	 * Loads the specification links of properties the validator uses to point at the definition of a property in
+	 * error messages.
+	 */
+	private static void loadPropertyURLs()
+	{
+		InputStream urlsStream = StyleSheet.class.getResourceAsStream(URLS_FILE);
+		Utf8Properties urls = new Utf8Properties();
+
+		try
+		{
+			if (urlsStream != null)
+			{
+				urls.load(urlsStream);
+			}
+		}
+		catch (IOException e)
+		{
+			IdeLog.logError(CSSCorePlugin.getDefault(), e);
+		}
+		finally
+		{
+			try
+			{
+				if (urlsStream != null)
+				{
+					urlsStream.close();
+				}
+			}
+			catch (IOException e)
+			{
+			}
+		}
+
+		propertyURLs = urls;
+	}
+
 	/**
 	 * Adds the CSS errors.
 	 * 
 	 * @param errors
-	 *            the array of errors
+	 *            the errors collected by the validator
+	 * @param ac
+	 *            the context the source was validated with
 	 * @param sourcePath
 	 *            the source path
-	 * @param manager
-	 *            the validation manager
 	 * @param items
 	 *            the list that stores the added validation items
+	 * @param filters
 	 */
-	private void addErrors(String[] errors, String sourcePath, List<IProblem> items, List<String> filters)
+	private void addErrors(CssError[] errors, ApplContext ac, String sourcePath, List<IProblem> items,
+			List<String> filters)
 	{
-		Map<String, String> map;
-		for (String error : errors)
+		for (CssError error : errors)
 		{
-			map = getProperties(error);
+			if (!isFromSource(error.getSourceFile(), sourcePath))
+			{
+				continue;
+			}
 
-			int lineNumber = Integer.parseInt(map.get("line")); //$NON-NLS-1$
-			String message = map.get("message"); //$NON-NLS-1$
-			String context = map.get("context"); //$NON-NLS-1$
-			String property = map.get("property"); //$NON-NLS-1$
-			String skippedstring = map.get("skippedstring"); //$NON-NLS-1$
-			String errorsubtype = map.get("errorsubtype"); //$NON-NLS-1$
+			int lineNumber = error.getLine();
 
 			// Don't attempt to add errors if there are already errors on this line
 			if (hasErrorOrWarningOnLine(items, lineNumber))
@@ -286,21 +240,7 @@ public class CSSValidator extends AbstractBuildParticipant
 				continue;
 			}
 
-			if (message == null)
-			{
-				if (property == null)
-				{
-					property = context;
-				}
-				if (skippedstring.equals("[empty string]")) //$NON-NLS-1$
-				{
-					// alters the text a bit
-					skippedstring = "no properties defined"; //$NON-NLS-1$
-				}
-				message = MessageFormat.format("{0} : {1} for {2}", errorsubtype, skippedstring, property); //$NON-NLS-1$
-			}
-			message = StringEscapeUtils.unescapeHtml(message);
-			message = message.replaceAll("\\s+", " "); //$NON-NLS-1$ //$NON-NLS-2$
+			String message = normalizeWhitespace(getErrorMessage(error, ac));
 
 			if (!isIgnored(message, filters) && !containsCSS3Property(message) && !containsCSS3AtRule(message)
 					&& !isFiltered(message))
@@ -315,25 +255,36 @@ public class CSSValidator extends AbstractBuildParticipant
 	 * Adds the CSS warnings.
 	 * 
 	 * @param warnings
-	 *            the array of warnings
+	 *            the warnings collected by the validator
 	 * @param sourcePath
 	 *            the source path
 	 * @param items
 	 *            the list that stores the added validation items
 	 * @param filters
 	 */
-	private void addWarnings(String[] warnings, String sourcePath, List<IProblem> items, List<String> filters)
+	private void addWarnings(Warnings warnings, String sourcePath, List<IProblem> items, List<String> filters)
 	{
-		Map<String, String> map;
+		if (warnings.getWarningCount() == 0)
+		{
+			return;
+		}
+
 		String last = ""; //$NON-NLS-1$
-		for (String warning : warnings)
+
+		warnings.sort();
+
+		for (Warning warning : warnings.getWarnings())
 		{
-			map = getProperties(warning);
+			int level = warning.getLevel();
+
+			if (level > WARNING_LEVEL || !isFromSource(warning.getSourceFile(), sourcePath))
+			{
+				continue;
+			}
 
-			int lineNumber = Integer.parseInt(map.get("line")); //$NON-NLS-1$
-			String level = map.get("level"); //$NON-NLS-1$
-			String message = MessageFormat.format("{0} (level {1})", map.get("message"), level); //$NON-NLS-1$ //$NON-NLS-2$
-			String context = map.get("context"); //$NON-NLS-1$
+			int lineNumber = warning.getLine();
+			String message = MessageFormat.format(
+					"{0} (level {1})", normalizeWhitespace(warning.getWarningMessage()), level); //$NON-NLS-1$
 
 			// Don't attempt to add warnings if there are already errors on this line
 			if (hasErrorOrWarningOnLine(items, lineNumber))
@@ -341,7 +292,7 @@ public class CSSValidator extends AbstractBuildParticipant
 				continue;
 			}
 
-			String hash = MessageFormat.format("{0}:{1}:{2}:{3}", lineNumber, level, message, context); //$NON-NLS-1$
+			String hash = MessageFormat.format("{0}:{1}:{2}:{3}", lineNumber, level, message, warning.getContext()); //$NON-NLS-1$
 			// guards against duplicate warnings
 			if (!last.equals(hash) && !isIgnored(message, filters))
 			{
@@ -353,19 +304,129 @@ public class CSSValidator extends AbstractBuildParticipant
 	}
 
 	/**
-	 * Gets the validation report from the validator.
+	 * Builds the message of an error the same way the validator's own reports do.
+	 * 
+	 * @param error
+	 * @param ac
+	 * @return
+	 */
+	private static String getErrorMessage(CssError error, ApplContext ac)
+	{
+		Throwable exception = error.getException();
+
+		if (exception instanceof FileNotFoundException)
+		{
+			return ac.getMsg().getGeneratorString("not-found") + ": " + exception.getMessage(); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (exception instanceof CssParseException)
+		{
+			return getParseErrorMessage((CssParseException) exception, ac);
+		}
+		if (exception instanceof InvalidParamException || exception instanceof IOException)
+		{
+			return StringUtil.getStringValue(exception.getMessage());
+		}
+		if (error instanceof CssErrorToken)
+		{
+			CssErrorToken token = (CssErrorToken) error;
+
+			return token.getErrorDescription() + " : " + token.getSkippedString(); //$NON-NLS-1$
+		}
+
+		return ac.getMsg().getErrorString("unknown") + ' ' + exception; //$NON-NLS-1$
+	}
+
+	/**
+	 * Builds the message of a parse error, prefixed with a link to the definition of the property in error when the
+	 * validator knows it.
+	 * 
+	 * @param exception
+	 * @param ac
+	 * @return
+	 */
+	private static String getParseErrorMessage(CssParseException exception, ApplContext ac)
+	{
+		StringBuilder builder = new StringBuilder();
+		String property = exception.getProperty();
+
+		if (property != null && propertyURLs.getProperty(property) != null)
+		{
+			Utf8Properties profile = PropertiesLoader.getProfile(ac.getCssVersion());
+
+			if (profile != null && profile.containsKey(property))
+			{
+				builder.append(ac.getMsg().getGeneratorString("property")).append(" : ").append(property); //$NON-NLS-1$ //$NON-NLS-2$
+				builder.append(" (").append(getSpecificationURL(ac)).append(propertyURLs.getProperty(property)); //$NON-NLS-1$
+				builder.append(") "); //$NON-NLS-1$
+			}
+		}
+
+		Exception cause = exception.getException();
+
+		if (cause != null && exception.getMessage() != null)
+		{
+			if (exception.isParseException())
+			{
+				builder.append(exception.getMessage());
+			}
+			else if (cause instanceof NumberFormatException)
+			{
+				builder.append(ac.getMsg().getGeneratorString("invalid-number")); //$NON-NLS-1$
+			}
+			else
+			{
+				builder.append(cause.getMessage());
+			}
+
+			if (exception.getSkippedString() == null && exception.getExp() != null)
+			{
+				builder.append(" : ").append(exception.getExp().toStringFromStart()); //$NON-NLS-1$
+			}
+		}
+		else
+		{
+			builder.append(ac.getMsg().getGeneratorString("unrecognize")); //$NON-NLS-1$
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Gets the base URL of the specification properties link to for the CSS version validated against
+	 * 
+	 * @param ac
+	 * @return
+	 */
+	private static String getSpecificationURL(ApplContext ac)
+	{
+		String version = ac.getCssVersion();
+
+		if ("css3".equals(version)) //$NON-NLS-1$
+		{
+			return propertyURLs.getProperty("@url-base_css2.1"); //$NON-NLS-1$
+		}
+		if ("css1".equals(version)) //$NON-NLS-1$
+		{
+			return propertyURLs.getProperty("@url-base_css2"); //$NON-NLS-1$
+		}
+
+		return propertyURLs.getProperty("@url-base_" + version); //$NON-NLS-1$
+	}
+
+	/**
+	 * Validates the source, leaving the errors and warnings found in the returned style sheet.
 	 * 
 	 * @param source
 	 *            the source text
 	 * @param path
 	 *            the source path
-	 * @return the report
+	 * @param ac
+	 *            the context to validate with
+	 * @return the validated style sheet
 	 */
-	private static String getReport(String source, URI path)
+	private static StyleSheet validate(String source, URI path, ApplContext ac)
 	{
 		StyleSheetParser parser = new StyleSheetParser();
-		ApplContext ac = new ApplContext("en"); //$NON-NLS-1$
-		ac.setProfile(APTANA_PROFILE);
 		try
 		{
 			parser.parseStyleElement(ac, new ByteArrayInputStream(source.getBytes(IOUtil.UTF_8)), null, null,
@@ -383,55 +444,35 @@ public class CSSValidator extends AbstractBuildParticipant
 
 		StyleSheet stylesheet = parser.getStyleSheet();
 		stylesheet.findConflicts(ac);
-		StyleReport report = StyleReportFactory.getStyleReport(ac, "Title", stylesheet, "soap12", 2); //$NON-NLS-1$ //$NON-NLS-2$
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		report.print(new PrintWriter(out));
-		return out.toString().replaceAll("m:", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		return stylesheet;
 	}
 
 	/**
-	 * Gets the list of contents in a source text that matches the specific pattern.
+	 * Determines if an error or warning was reported against the source being validated rather than a file it imports
 	 * 
-	 * @param pattern
-	 *            the pattern to match
-	 * @param source
-	 *            the source text
-	 * @return the matching contents in an array
+	 * @param sourceFile
+	 * @param sourcePath
+	 * @return
 	 */
-	private static String[] getContent(Pattern pattern, String source)
+	private static boolean isFromSource(String sourceFile, String sourcePath)
 	{
-		Matcher matcher = pattern.matcher(source);
-		List<String> result = new ArrayList<String>();
-		while (matcher.find())
-		{
-			result.add(matcher.group(2));
-		}
-		return result.toArray(new String[result.size()]);
+		return sourceFile != null && URLEncoder.encode(sourceFile, null, null).equals(sourcePath);
 	}
 
 	/**
-	 * Gets the properties map from a source text.
+	 * Trims the message and collapses runs of whitespace inside it
 	 * 
-	 * @param source
-	 *            the source text
-	 * @return the properties map
+	 * @param message
+	 * @return
 	 */
-	private static Map<String, String> getProperties(String source)
+	private static String normalizeWhitespace(String message)
 	{
-		Matcher matcher = PROPERTIES_PATTERN.matcher(source);
-		Map<String, String> result = new HashMap<String, String>();
-		String key, value;
-		while (matcher.find())
+		if (message == null)
 		{
-			key = matcher.group(1);
-			value = matcher.group(2);
-			if (value != null)
-			{
-				value = value.trim();
-			}
-			result.put(key, value);
+			return StringUtil.EMPTY;
 		}
-		return result;
+
+		return WHITESPACE_PATTERN.matcher(message.trim()).replaceAll(" "); //$NON-NLS-1$
 	}
 
 	private static boolean containsCSS3Property(String message)
@@ -483,10 +524,13 @@ public class CSSValidator extends AbstractBuildParticipant
 		URI uri = context.getURI();
 		String path = uri.toString();
 
-		String report = getReport(source, uri);
+		ApplContext ac = new ApplContext("en"); //$NON-NLS-1$
+		ac.setProfile(APTANA_PROFILE);
+
+		StyleSheet stylesheet = validate(source, uri, ac);
 		List<String> filters = getFilters();
-		processErrorsInReport(report, path, problems, filters);
-		processWarningsInReport(report, path, problems, filters);
+		addErrors(stylesheet.getErrors().getErrors(), ac, path, problems, filters);
+		addWarnings(stylesheet.getWarnings(), path, problems, filters);
 
 		context.putProblems(ICSSConstants.W3C_PROBLEM, problems);
 	}
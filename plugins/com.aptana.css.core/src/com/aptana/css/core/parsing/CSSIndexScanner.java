@@ -0,0 +1,254 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2013 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.css.core.parsing;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+
+import beaver.Scanner;
+import beaver.Symbol;
+
+import com.aptana.css.core.CSSColors;
+import com.aptana.css.core.parsing.ast.CSSCommentNode;
+
+/**
+ * Extracts the classes, ids and colors of a stylesheet in a single pass over its tokens, without building an AST. This
+ * is used to index stylesheets too large to be worth parsing, and to find the comments holding their task tags. Classes
+ * and ids are reported when they appear in the selectors of rules, colors when they appear in the values of
+ * declarations.
+ */
+public class CSSIndexScanner
+{
+	/**
+	 * Stylesheets larger than this, in characters, are scanned rather than parsed by the build participants that don't
+	 * need their full AST
+	 */
+	public static final int SCAN_THRESHOLD = 512 * 1024;
+
+	/**
+	 * Receives what the scanner finds, in document order
+	 */
+	public interface Handler
+	{
+		/**
+		 * @param name
+		 *            the class name, without the leading period
+		 */
+		void classFound(String name);
+
+		/**
+		 * @param name
+		 *            the id, without the leading hash
+		 */
+		void idFound(String name);
+
+		/**
+		 * @param color
+		 *            the color as written in the stylesheet, a name or a hex value
+		 */
+		void colorFound(String color);
+	}
+
+	private final CSSFlexScanner scanner;
+
+	/**
+	 * CSSIndexScanner
+	 */
+	public CSSIndexScanner()
+	{
+		scanner = new CSSFlexScanner();
+		scanner.setCollectComments(false);
+	}
+
+	/**
+	 * Scan the specified stylesheet, reporting what is found to the handler
+	 * 
+	 * @param source
+	 * @param handler
+	 * @throws IOException
+	 * @throws Scanner.Exception
+	 */
+	public void scan(String source, Handler handler) throws IOException, Scanner.Exception
+	{
+		// for each open curly brace, whether it holds declarations rather than rules
+		LinkedList<Boolean> blocks = new LinkedList<Boolean>();
+
+		// the first token of the statement being read, or EOF if none has been read yet
+		short statement = Terminals.EOF;
+
+		// whether we're past the colon of a declaration
+		boolean inValue = false;
+
+		scanner.setSource(source);
+
+		try
+		{
+			Symbol token = scanner.nextToken();
+
+			while (token.getId() != Terminals.EOF)
+			{
+				boolean inDeclarations = !blocks.isEmpty() && blocks.getFirst();
+				short id = token.getId();
+
+				switch (id)
+				{
+					case Terminals.LCURLY:
+						blocks.addFirst(inDeclarations || !holdsRules(statement));
+						statement = Terminals.EOF;
+						inValue = false;
+						break;
+
+					case Terminals.RCURLY:
+						if (!blocks.isEmpty())
+						{
+							blocks.removeFirst();
+						}
+						statement = Terminals.EOF;
+						inValue = false;
+						break;
+
+					case Terminals.SEMICOLON:
+						statement = Terminals.EOF;
+						inValue = false;
+						break;
+
+					default:
+						if (inDeclarations)
+						{
+							if (id == Terminals.COLON)
+							{
+								inValue = true;
+							}
+							else if (inValue && (id == Terminals.IDENTIFIER || id == Terminals.COLOR))
+							{
+								String value = (String) token.value;
+
+								if (CSSColors.isColor(value))
+								{
+									handler.colorFound(value);
+								}
+							}
+						}
+						else
+						{
+							if (statement == Terminals.EOF)
+							{
+								statement = id;
+							}
+
+							// at-rule preludes hold media queries and the like, not selectors
+							if (!isAtRule(statement))
+							{
+								String text = (String) token.value;
+
+								if (id == Terminals.CLASS && text.length() > 1)
+								{
+									handler.classFound(text.substring(1));
+								}
+								else if (id == Terminals.HASH && text.length() > 1)
+								{
+									handler.idFound(text.substring(1));
+								}
+							}
+						}
+						break;
+				}
+
+				token = scanner.nextToken();
+			}
+		}
+		finally
+		{
+			// don't hold on to the source
+			scanner.setSource(""); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Return the comments of the specified stylesheet, as the parser would attach them to its AST, without parsing it
+	 * 
+	 * @param source
+	 * @return
+	 * @throws IOException
+	 * @throws Scanner.Exception
+	 */
+	public CSSCommentNode[] scanComments(String source) throws IOException, Scanner.Exception
+	{
+		scanner.setCollectComments(true);
+		scanner.setSource(source);
+
+		try
+		{
+			while (scanner.nextToken().getId() != Terminals.EOF)
+			{
+				// comments are collected by the scanner as it goes
+			}
+
+			List<Symbol> comments = scanner.getComments();
+			CSSCommentNode[] result = new CSSCommentNode[comments.size()];
+
+			for (int i = 0; i < result.length; i++)
+			{
+				Symbol comment = comments.get(i);
+
+				result[i] = new CSSCommentNode(source.substring(comment.getStart(), comment.getEnd() + 1),
+						comment.getStart(), comment.getEnd());
+			}
+
+			return result;
+		}
+		finally
+		{
+			scanner.setCollectComments(false);
+			// don't hold on to the source
+			scanner.setSource(""); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Determine if the block following a statement starting with the specified token holds rules rather than
+	 * declarations
+	 * 
+	 * @param statement
+	 * @return
+	 */
+	private static boolean holdsRules(short statement)
+	{
+		switch (statement)
+		{
+			case Terminals.MEDIA_KEYWORD:
+			case Terminals.MOZ_DOCUMENT:
+			case Terminals.AT_RULE:
+				return true;
+
+			default:
+				return false;
+		}
+	}
+
+	private static boolean isAtRule(short statement)
+	{
+		switch (statement)
+		{
+			case Terminals.AT_RULE:
+			case Terminals.CHARSET:
+			case Terminals.FONTFACE:
+			case Terminals.IMPORT:
+			case Terminals.MEDIA_KEYWORD:
+			case Terminals.MOZ_DOCUMENT:
+			case Terminals.MS_VIEWPORT:
+			case Terminals.NAMESPACE:
+			case Terminals.PAGE:
+				return true;
+
+			default:
+				return false;
+		}
+	}
+}
@@ -22,4 +22,5 @@ public interface ICommonEditorSystemProperties
 	public static String RECONCILER_BACKGROUND_DELAY = "studio.reconcilerBackgroundDelay"; //$NON-NLS-1$
 	public static String RECONCILER_ITERATION_DELAY = "studio.reconcilerIterationDelay"; //$NON-NLS-1$
 	public static String RECONCILER_MINIMAL_VISIBLE_LENGTH = "studio.reconcilerMinimalVisibleLength"; //$NON-NLS-1$
+	public static String RECONCILER_ITERATION_LENGTH_LIMIT = "studio.reconcilerIterationLengthLimit"; //$NON-NLS-1$
 }
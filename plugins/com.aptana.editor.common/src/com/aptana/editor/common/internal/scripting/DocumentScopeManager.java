@@ -12,9 +12,14 @@ import java.util.Map;
 import java.util.WeakHashMap;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.BadPositionCategoryException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.Position;
@@ -47,6 +52,13 @@ public class DocumentScopeManager implements IDocumentScopeManager
 	private static final QualifiedContentType UNKNOWN = new QualifiedContentType(ICommonConstants.CONTENT_TYPE_UKNOWN);
 	private Map<IDocument, ExtendedDocumentInfo> infos = new WeakHashMap<IDocument, ExtendedDocumentInfo>();
 
+	/**
+	 * Bumped whenever a project's description changes (or a project is opened/closed), invalidating the project nature
+	 * scopes cached per document.
+	 */
+	private volatile int projectDescriptionGeneration;
+	private IResourceChangeListener projectDescriptionListener;
+
 	/**
 	 * Store the filename for the document so we can dynamically look up the scope later.
 	 * 
@@ -191,19 +203,89 @@ public class DocumentScopeManager implements IDocumentScopeManager
 		{
 			return StringUtil.EMPTY;
 		}
+
+		// Look at the cached copy first, fetching the description and joining the natures adds up quickly
+		ExtendedDocumentInfo info = infos.get(viewer.getDocument());
+		int generation = getProjectDescriptionGeneration();
+		if (info != null)
+		{
+			String scope = info.getNaturesScope(project, generation);
+			if (scope != null)
+			{
+				return scope;
+			}
+		}
+
+		String scope = StringUtil.EMPTY;
 		try
 		{
 			String[] natures = project.getDescription().getNatureIds();
 			if (!ArrayUtil.isEmpty(natures))
 			{
-				return PROJECT_NATURE_SCOPE_PREFIX + StringUtil.join(" " + PROJECT_NATURE_SCOPE_PREFIX, natures) + ' '; //$NON-NLS-1$
+				scope = PROJECT_NATURE_SCOPE_PREFIX + StringUtil.join(" " + PROJECT_NATURE_SCOPE_PREFIX, natures) + ' '; //$NON-NLS-1$
 			}
 		}
 		catch (CoreException e)
 		{
 			// ignore
 		}
-		return StringUtil.EMPTY;
+		if (info != null)
+		{
+			info.setNaturesScope(project, generation, scope);
+		}
+		return scope;
+	}
+
+	/**
+	 * Returns the current generation of project descriptions, lazily hooking up the listener that tracks changes to
+	 * them.
+	 * 
+	 * @return
+	 */
+	private int getProjectDescriptionGeneration()
+	{
+		synchronized (this)
+		{
+			if (projectDescriptionListener == null)
+			{
+				projectDescriptionListener = new IResourceChangeListener()
+				{
+					public void resourceChanged(IResourceChangeEvent event)
+					{
+						IResourceDelta delta = event.getDelta();
+						if (delta == null)
+						{
+							return;
+						}
+						for (IResourceDelta projectDelta : delta.getAffectedChildren(IResourceDelta.CHANGED))
+						{
+							if ((projectDelta.getFlags() & (IResourceDelta.DESCRIPTION | IResourceDelta.OPEN)) != 0)
+							{
+								projectDescriptionGeneration++;
+								return;
+							}
+						}
+					}
+				};
+				ResourcesPlugin.getWorkspace().addResourceChangeListener(projectDescriptionListener,
+						IResourceChangeEvent.POST_CHANGE);
+			}
+		}
+		return projectDescriptionGeneration;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see
+	 * com.aptana.editor.common.scripting.IDocumentScopeManager#scopePositionsChanged(org.eclipse.jface.text.IDocument)
+	 */
+	public void scopePositionsChanged(IDocument document)
+	{
+		ExtendedDocumentInfo info = infos.get(document);
+		if (info != null)
+		{
+			info.scopePositionsChanged();
+		}
 	}
 
 	private String getTokenScopeFragments(ITextViewer viewer, IDocument document, int offset)
@@ -215,38 +297,17 @@ public class DocumentScopeManager implements IDocumentScopeManager
 
 		try
 		{
-			// Force adding the category in case it doesn't exist yet...
-			document.addPositionCategory(ICommonConstants.SCOPE_CATEGORY);
-			Position[] scopes = document.getPositions(ICommonConstants.SCOPE_CATEGORY);
-			int index = document.computeIndexInCategory(ICommonConstants.SCOPE_CATEGORY, offset);
-
-			if (scopes == null || scopes.length == 0)
-			{
-				return null;
-			}
-			if (index >= scopes.length)
-			{
-				index = scopes.length - 1;
-			}
-			Position scope = scopes[index];
-			if (scope == null)
+			Position scope;
+			ExtendedDocumentInfo info = infos.get(document);
+			if (info != null)
 			{
-				return null;
+				scope = info.getScopePosition(document, offset);
 			}
-			if (!scope.includes(offset))
+			else
 			{
-				if (index > 0)
-				{
-					scope = scopes[--index];
-					if (scope == null || !scope.includes(offset))
-					{
-						return null;
-					}
-				}
-				else
-				{
-					return null;
-				}
+				Position[] scopes = document.getPositions(ICommonConstants.SCOPE_CATEGORY);
+				int index = document.computeIndexInCategory(ICommonConstants.SCOPE_CATEGORY, offset);
+				scope = ExtendedDocumentInfo.findScopePosition(scopes, index, offset);
 			}
 			if (scope instanceof TypedPosition)
 			{
@@ -254,6 +315,10 @@ public class DocumentScopeManager implements IDocumentScopeManager
 				return pos.getType();
 			}
 		}
+		catch (BadPositionCategoryException e)
+		{
+			// no token scopes have been recorded for this document yet
+		}
 		catch (Exception e)
 		{
 			IdeLog.logError(CommonEditorPlugin.getDefault(), e);
@@ -293,6 +358,14 @@ public class DocumentScopeManager implements IDocumentScopeManager
 
 	public void dispose()
 	{
+		synchronized (this)
+		{
+			if (projectDescriptionListener != null)
+			{
+				ResourcesPlugin.getWorkspace().removeResourceChangeListener(projectDescriptionListener);
+				projectDescriptionListener = null;
+			}
+		}
 		infos.clear();
 	}
 }
@@ -11,10 +11,14 @@ package com.aptana.editor.common.internal.scripting;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.BadPositionCategoryException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.jface.text.Position;
 
+import com.aptana.editor.common.ICommonConstants;
 import com.aptana.editor.common.scripting.QualifiedContentType;
 import com.aptana.scripting.model.BundleManager;
 
@@ -38,6 +42,17 @@ import com.aptana.scripting.model.BundleManager;
 	// null on memoized field.
 	private boolean calculatedTopLevelScope = false;
 
+	// Cached meta scopes for the natures of the project the document belongs to, along with the project and the
+	// generation of project descriptions they were computed for.
+	private IProject naturesProject;
+	private String naturesScope;
+	private int naturesGeneration = -1;
+
+	// Snapshot of the document's token scope positions. The Position instances are the live ones held by the document,
+	// so their offsets keep up with edits; the array only needs refreshing when positions get added or removed, which
+	// the damager/repairers report through scopePositionsChanged().
+	private Position[] scopePositions;
+
 	/**
 	 * @param filename
 	 */
@@ -80,6 +95,152 @@ import com.aptana.scripting.model.BundleManager;
 		}
 	}
 
+	/**
+	 * Returns the cached project nature scope fragments if they were computed for the given project and generation of
+	 * project descriptions, null otherwise.
+	 * 
+	 * @param project
+	 * @param generation
+	 * @return
+	 */
+	public synchronized String getNaturesScope(IProject project, int generation)
+	{
+		if (naturesScope != null && generation == naturesGeneration && project.equals(naturesProject))
+		{
+			return naturesScope;
+		}
+		return null;
+	}
+
+	/**
+	 * Caches the project nature scope fragments for the given project and generation of project descriptions.
+	 * 
+	 * @param project
+	 * @param generation
+	 * @param scope
+	 */
+	public synchronized void setNaturesScope(IProject project, int generation, String scope)
+	{
+		naturesProject = project;
+		naturesGeneration = generation;
+		naturesScope = scope;
+	}
+
+	/**
+	 * Returns the token scope position containing the offset, or null if there is none. The lookup is a binary search
+	 * over a cached snapshot of the document's scope positions. The snapshot is checked against the document's own
+	 * index for the offset (also a binary search) and only refreshed when they disagree, so the positions array isn't
+	 * copied on every request.
+	 * 
+	 * @param document
+	 * @param offset
+	 * @return
+	 * @throws BadLocationException
+	 * @throws BadPositionCategoryException
+	 */
+	public synchronized Position getScopePosition(IDocument document, int offset) throws BadLocationException,
+			BadPositionCategoryException
+	{
+		int index = document.computeIndexInCategory(ICommonConstants.SCOPE_CATEGORY, offset);
+		if (scopePositions == null || !isSnapshotValid(index, offset))
+		{
+			scopePositions = document.getPositions(ICommonConstants.SCOPE_CATEGORY);
+		}
+		return findScopePosition(scopePositions, index, offset);
+	}
+
+	/**
+	 * Drops the snapshot of the scope positions, positions have been added to or removed from the document since it
+	 * was taken.
+	 */
+	public synchronized void scopePositionsChanged()
+	{
+		scopePositions = null;
+	}
+
+	/**
+	 * Returns whether the cached snapshot agrees with the document around the offset: same insertion index and none of
+	 * the neighboring positions have been removed since.
+	 * 
+	 * @param index
+	 * @param offset
+	 * @return
+	 */
+	private boolean isSnapshotValid(int index, int offset)
+	{
+		if (lowerBound(scopePositions, offset) != index)
+		{
+			return false;
+		}
+		if (index < scopePositions.length && scopePositions[index].isDeleted())
+		{
+			return false;
+		}
+		return index == 0 || !scopePositions[index - 1].isDeleted();
+	}
+
+	/**
+	 * Returns the first index of a position whose offset is greater than or equal to the given offset, which is what
+	 * {@link IDocument#computeIndexInCategory(String, int)} computes for the document.
+	 * 
+	 * @param positions
+	 * @param offset
+	 * @return
+	 */
+	private static int lowerBound(Position[] positions, int offset)
+	{
+		int low = 0;
+		int high = positions.length;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (positions[mid].getOffset() < offset)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Given the sorted scope positions and the insertion index for the offset, returns the position containing the
+	 * offset, or null.
+	 * 
+	 * @param scopes
+	 * @param index
+	 * @param offset
+	 * @return
+	 */
+	static Position findScopePosition(Position[] scopes, int index, int offset)
+	{
+		if (scopes == null || scopes.length == 0)
+		{
+			return null;
+		}
+		if (index >= scopes.length)
+		{
+			index = scopes.length - 1;
+		}
+		Position scope = scopes[index];
+		if (scope != null && scope.includes(offset))
+		{
+			return scope;
+		}
+		if (index > 0)
+		{
+			scope = scopes[index - 1];
+			if (scope != null && scope.includes(offset))
+			{
+				return scope;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Associate the partition with it's implied top level document Content Type/scope
 	 * 
@@ -63,4 +63,12 @@ public interface IDocumentScopeManager
 	 * @throws BadLocationException
 	 */
 	public QualifiedContentType getContentType(IDocument document, int offset) throws BadLocationException;
+
+	/**
+	 * Notifies the manager that token scope positions were added to or removed from the document, so any copy of them
+	 * it holds gets refreshed.
+	 * 
+	 * @param document
+	 */
+	public void scopePositionsChanged(IDocument document);
 }
@@ -24,6 +24,7 @@ import org.eclipse.jface.text.ITypedRegion;
 import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.TextPresentation;
 import org.eclipse.jface.text.TextUtilities;
+import org.eclipse.jface.text.TypedRegion;
 import org.eclipse.jface.text.presentation.IPresentationRepairer;
 import org.eclipse.jface.text.presentation.PresentationReconciler;
 import org.eclipse.swt.custom.StyledText;
@@ -47,6 +48,12 @@ public class CommonPresentationReconciler extends PresentationReconciler
 	private int backgroundReconcileDelay = 2000;
 	private int iterationDelay = 500;
 	private int minimalVisibleLength = 20000;
+	private int iterationLengthLimit = 50000;
+
+	/**
+	 * How far back from the length limit we look for a token boundary when a partition has to be split
+	 */
+	private static final int CHUNK_BOUNDARY_LOOKBEHIND = 256;
 
 	private ITextViewer textViewer;
 	private Regions delayedRegions = new Regions();
@@ -70,14 +77,16 @@ public class CommonPresentationReconciler extends PresentationReconciler
 		iterationDelay = Integer.getInteger(ICommonEditorSystemProperties.RECONCILER_ITERATION_DELAY, iterationDelay);
 		minimalVisibleLength = Integer.getInteger(ICommonEditorSystemProperties.RECONCILER_MINIMAL_VISIBLE_LENGTH,
 				minimalVisibleLength);
+		iterationLengthLimit = Math.max(CHUNK_BOUNDARY_LOOKBEHIND, Integer.getInteger(
+				ICommonEditorSystemProperties.RECONCILER_ITERATION_LENGTH_LIMIT, iterationLengthLimit));
 		if (IdeLog.isTraceEnabled(CommonEditorPlugin.getDefault(), IDebugScopes.PRESENTATION))
 		{
 			IdeLog.logTrace(
 					CommonEditorPlugin.getDefault(),
 					MessageFormat
-							.format("Reconciling process set for partition limit of {0} partitions, background delay of {1}ms, iteration delay of {2}ms, and minimal visible length of {3} lines", //$NON-NLS-1$
-									iterationPartitionLimit, backgroundReconcileDelay, iterationDelay,
-									minimalVisibleLength), IDebugScopes.PRESENTATION);
+							.format("Reconciling process set for partition limit of {0} partitions, length limit of {1} characters, background delay of {2}ms, iteration delay of {3}ms, and minimal visible length of {4} lines", //$NON-NLS-1$
+									iterationPartitionLimit, iterationLengthLimit, backgroundReconcileDelay,
+									iterationDelay, minimalVisibleLength), IDebugScopes.PRESENTATION);
 		}
 	}
 
@@ -122,7 +131,13 @@ public class CommonPresentationReconciler extends PresentationReconciler
 		}
 		try
 		{
-			return createPresentation(nextDamagedRegion(), document, new NullProgressMonitor());
+			// Only the damage on screen is colored right away, the background job streams in the rest
+			IRegion region = nextDamagedRegion(true);
+			if (region == null)
+			{
+				return null;
+			}
+			return createPresentation(region, document, new NullProgressMonitor());
 		}
 		finally
 		{
@@ -149,16 +164,38 @@ public class CommonPresentationReconciler extends PresentationReconciler
 				}
 				damageLength = adjustedLength;
 			}
-			TextPresentation presentation = new TextPresentation(damage, iterationPartitionLimit * 5);
 			ITypedRegion[] partitioning = TextUtilities.computePartitioning(document, getDocumentPartitioning(),
 					damageOffset, damageLength, false);
 			if (partitioning.length == 0)
 			{
-				return presentation;
+				return new TextPresentation(damage, 0);
 			}
 			int limit = Math.min(iterationPartitionLimit, partitioning.length);
+			// bound the work by characters as well, a minified file may well be a single huge partition
+			int lengthLimitEnd = damageOffset + iterationLengthLimit;
+			for (int i = 0; i < limit; ++i)
+			{
+				ITypedRegion r = partitioning[i];
+				if (r.getOffset() + r.getLength() > lengthLimitEnd)
+				{
+					int end = findChunkEnd(document, Math.max(r.getOffset(), lengthLimitEnd - iterationLengthLimit
+							/ 2), lengthLimitEnd);
+					if (end > r.getOffset())
+					{
+						partitioning[i] = new TypedRegion(r.getOffset(), end - r.getOffset(), r.getType());
+						limit = i + 1;
+					}
+					else
+					{
+						limit = Math.max(i, 1);
+					}
+					break;
+				}
+			}
 			int processingLength = partitioning[limit - 1].getOffset() + partitioning[limit - 1].getLength()
 					- damageOffset;
+			// restrict the extent to what actually gets processed, so styles of the remainder aren't wiped out
+			TextPresentation presentation = new TextPresentation(new Region(damageOffset, processingLength), limit * 5);
 			if (EclipseUtil.showSystemJobs())
 			{
 				monitor.subTask(MessageFormat.format(
@@ -184,9 +221,9 @@ public class CommonPresentationReconciler extends PresentationReconciler
 			synchronized (this)
 			{
 				delayedRegions.remove(new Region(damageOffset, processingLength));
-				if (limit < partitioning.length)
+				int offset = damageOffset + processingLength;
+				if (offset < damageOffset + damageLength)
 				{
-					int offset = partitioning[limit].getOffset();
 					delayedRegions.append(new Region(offset, damageOffset + damageLength - offset));
 				}
 			}
@@ -198,6 +235,30 @@ public class CommonPresentationReconciler extends PresentationReconciler
 		}
 	}
 
+	/**
+	 * Finds where to split a chunk so that the next one starts on a token boundary. Looks back from the limit for
+	 * whitespace or a delimiter and falls back to the limit itself.
+	 * 
+	 * @param document
+	 * @param start
+	 * @param limit
+	 * @return
+	 * @throws BadLocationException
+	 */
+	private static int findChunkEnd(IDocument document, int start, int limit) throws BadLocationException
+	{
+		int lowerBound = Math.max(start + 1, limit - CHUNK_BOUNDARY_LOOKBEHIND);
+		for (int offset = limit; offset >= lowerBound; --offset)
+		{
+			char c = document.getChar(offset - 1);
+			if (Character.isWhitespace(c) || c == ';' || c == ',' || c == '{' || c == '}')
+			{
+				return offset;
+			}
+		}
+		return limit;
+	}
+
 	protected Theme getCurrentTheme()
 	{
 		return ThemePlugin.getDefault().getThemeManager().getCurrentTheme();
@@ -229,9 +290,7 @@ public class CommonPresentationReconciler extends PresentationReconciler
 									viewer.changeTextPresentation(presentation[0], true);
 								}
 								// save visible region here since UI thread access required
-								int topOffset = viewer.getTopIndexStartOffset();
-								int length = viewer.getBottomIndexEndOffset() - topOffset;
-								viewerVisibleRegion = new Region(topOffset, Math.max(length, minimalVisibleLength));
+								viewerVisibleRegion = computeVisibleRegion(viewer);
 							}
 							catch (Exception e)
 							{
@@ -268,7 +327,7 @@ public class CommonPresentationReconciler extends PresentationReconciler
 					monitor.beginTask("Reconciling document", document.getLength()); //$NON-NLS-1$
 					while (textViewer != null && !monitor.isCanceled())
 					{
-						IRegion damage = nextDamagedRegion();
+						IRegion damage = nextDamagedRegion(false);
 						if (damage == null || monitor.isCanceled() || textViewer == null)
 						{
 							break;
@@ -297,7 +356,14 @@ public class CommonPresentationReconciler extends PresentationReconciler
 		}
 	}
 
-	private IRegion nextDamagedRegion()
+	/**
+	 * Returns the next region to color. Damage in the visible part of the viewer always comes first.
+	 * 
+	 * @param visibleOnly
+	 *            whether to return only damage that is visible
+	 * @return
+	 */
+	private IRegion nextDamagedRegion(boolean visibleOnly)
 	{
 		if (viewerVisibleRegion == null && textViewer != null)
 		{
@@ -310,9 +376,7 @@ public class CommonPresentationReconciler extends PresentationReconciler
 					{
 						return;
 					}
-					int topOffset = viewer.getTopIndexStartOffset();
-					int length = viewer.getBottomIndexEndOffset() - topOffset;
-					viewerVisibleRegion = new Region(topOffset, Math.max(length, minimalVisibleLength));
+					viewerVisibleRegion = computeVisibleRegion(viewer);
 				}
 			});
 		}
@@ -326,7 +390,7 @@ public class CommonPresentationReconciler extends PresentationReconciler
 			{
 				IRegion visible = delayedRegions.overlap(viewerVisibleRegion);
 				viewerVisibleRegion = null;
-				if (visible != null)
+				if (visible != null || visibleOnly)
 				{
 					return visible;
 				}
@@ -335,6 +399,30 @@ public class CommonPresentationReconciler extends PresentationReconciler
 		}
 	}
 
+	/**
+	 * Computes the region of the document worth coloring ahead of the rest. Must be called from the UI thread. When the
+	 * visible lines are longer than we color in one iteration (i.e. a minified file) the region is centered around the
+	 * caret.
+	 * 
+	 * @param viewer
+	 * @return
+	 */
+	private IRegion computeVisibleRegion(ITextViewer viewer)
+	{
+		int topOffset = viewer.getTopIndexStartOffset();
+		int length = Math.max(viewer.getBottomIndexEndOffset() - topOffset, minimalVisibleLength);
+		if (length > iterationLengthLimit)
+		{
+			int caret = viewer.getSelectedRange().x;
+			if (caret >= topOffset && caret < topOffset + length)
+			{
+				topOffset = Math.max(topOffset, caret - iterationLengthLimit / 2);
+			}
+			length = iterationLengthLimit;
+		}
+		return new Region(topOffset, length);
+	}
+
 	private static Object getLockObject(Object object)
 	{
 		if (object instanceof ISynchronizable)
@@ -7,18 +7,33 @@
  */
 package com.aptana.editor.common.text.reconciler;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.reconciler.DirtyRegion;
@@ -37,6 +52,7 @@ import com.aptana.core.IFilter;
 import com.aptana.core.build.IBuildParticipant;
 import com.aptana.core.build.IBuildParticipant.BuildType;
 import com.aptana.core.build.IBuildParticipantManager;
+import com.aptana.core.build.IProblem;
 import com.aptana.core.build.ReconcileContext;
 import com.aptana.core.logging.IdeLog;
 import com.aptana.core.util.CollectionsUtil;
@@ -79,6 +95,72 @@ public class CommonReconcilingStrategy implements IReconcilingStrategy, IReconci
 	 */
 	private Map<ProjectionAnnotation, Position> fPositions = new HashMap<ProjectionAnnotation, Position>();
 
+	/**
+	 * Shared pool the build participants of all editors are run on during reconciles.
+	 */
+	private static ExecutorService participantExecutor;
+
+	/**
+	 * The participant run in progress, if any. Superseded when the document changes or a new reconcile starts.
+	 */
+	private ParticipantRun fParticipantRun;
+
+	/**
+	 * The problems we last reported in full. Used to keep showing the problems of participants that haven't finished
+	 * yet when we publish the results of those that have.
+	 */
+	private Map<String, Collection<IProblem>> fReportedProblems = Collections.emptyMap();
+
+	private IDocumentListener documentListener = new IDocumentListener()
+	{
+		public void documentAboutToBeChanged(DocumentEvent event)
+		{
+			// results of a run in progress are stale now
+			cancelParticipantRun();
+		}
+
+		public void documentChanged(DocumentEvent event)
+		{
+		}
+	};
+
+	/**
+	 * Tracks the cancellation of one reconcile's set of participants. Each participant gets a monitor of its own since
+	 * they run on different threads.
+	 */
+	private static class ParticipantRun
+	{
+		private final List<IProgressMonitor> monitors = new ArrayList<IProgressMonitor>();
+		private boolean canceled;
+
+		synchronized IProgressMonitor newMonitor()
+		{
+			IProgressMonitor monitor = new NullProgressMonitor();
+			monitor.setCanceled(canceled);
+			monitors.add(monitor);
+			return monitor;
+		}
+
+		synchronized void cancel()
+		{
+			canceled = true;
+			for (IProgressMonitor monitor : monitors)
+			{
+				monitor.setCanceled(true);
+			}
+		}
+
+		synchronized boolean isCanceled()
+		{
+			return canceled;
+		}
+	}
+
+	/**
+	 * How often (in ms) we check for cancellation while waiting on participants.
+	 */
+	private static final long PARTICIPANT_POLL_INTERVAL = 50;
+
 	private IPropertyListener propertyListener = new IPropertyListener()
 	{
 		public void propertyChanged(Object source, int propId)
@@ -98,6 +180,11 @@ public class CommonReconcilingStrategy implements IReconcilingStrategy, IReconci
 
 	public void dispose()
 	{
+		cancelParticipantRun();
+		if (fDocument != null)
+		{
+			fDocument.removeDocumentListener(documentListener);
+		}
 		if (fEditor != null)
 		{
 			fEditor.removePropertyListener(propertyListener);
@@ -132,7 +219,15 @@ public class CommonReconcilingStrategy implements IReconcilingStrategy, IReconci
 	public void setDocument(IDocument document)
 	{
 		folder = createFoldingComputer(document);
+		if (fDocument != null)
+		{
+			fDocument.removeDocumentListener(documentListener);
+		}
 		fDocument = document;
+		if (fDocument != null)
+		{
+			fDocument.addDocumentListener(documentListener);
+		}
 	}
 
 	protected IFoldingComputer createFoldingComputer(IDocument document)
@@ -322,26 +417,144 @@ public class CommonReconcilingStrategy implements IReconcilingStrategy, IReconci
 		}
 
 		SubMonitor sub = SubMonitor.convert(monitor, (participants.size() * 12) + 10);
-		ReconcileContext context = createContext();
+		final ReconcileContext context = createContext();
 		if (context == null)
 		{
 			return;
 		}
-		for (IBuildParticipant participant : participants)
+
+		// Run the participants concurrently against the shared context (and AST), and publish problems as each one
+		// finishes rather than waiting for the slowest.
+		final ParticipantRun run = startParticipantRun();
+		final IProject project = context.getProject();
+		CompletionService<IBuildParticipant> service = new ExecutorCompletionService<IBuildParticipant>(
+				getParticipantExecutor());
+		for (final IBuildParticipant participant : participants)
+		{
+			service.submit(new Callable<IBuildParticipant>()
+			{
+				public IBuildParticipant call() throws Exception
+				{
+					IProgressMonitor participantMonitor = run.newMonitor();
+					participant.buildStarting(project, IncrementalProjectBuilder.INCREMENTAL_BUILD, participantMonitor);
+					try
+					{
+						participant.buildFile(context, participantMonitor);
+					}
+					finally
+					{
+						participant.buildEnding(participantMonitor);
+					}
+					return participant;
+				}
+			});
+		}
+
+		int remaining = participants.size();
+		while (remaining > 0)
+		{
+			Future<IBuildParticipant> future;
+			try
+			{
+				future = service.poll(PARTICIPANT_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e)
+			{
+				run.cancel();
+				return;
+			}
+			if (sub.isCanceled() || run.isCanceled())
+			{
+				run.cancel();
+				return;
+			}
+			if (future == null)
+			{
+				continue;
+			}
+			remaining--;
+			try
+			{
+				future.get();
+			}
+			catch (InterruptedException e)
+			{
+				run.cancel();
+				return;
+			}
+			catch (ExecutionException e)
+			{
+				IdeLog.logError(CommonEditorPlugin.getDefault(), e.getCause());
+			}
+			sub.worked(12);
+
+			if (remaining > 0)
+			{
+				// Keep showing the last reported problems of the participants still running
+				Map<String, Collection<IProblem>> problems = new HashMap<String, Collection<IProblem>>(
+						fReportedProblems);
+				problems.putAll(context.getProblems());
+				reportProblems(problems, new NullProgressMonitor());
+			}
+		}
+
+		fReportedProblems = context.getProblems();
+		finishParticipantRun(run);
+		reportProblems(fReportedProblems, sub.newChild(10));
+		sub.done();
+	}
+
+	/**
+	 * Starts tracking a new set of participants, canceling the one in progress.
+	 * 
+	 * @return
+	 */
+	private synchronized ParticipantRun startParticipantRun()
+	{
+		if (fParticipantRun != null)
+		{
+			fParticipantRun.cancel();
+		}
+		fParticipantRun = new ParticipantRun();
+		return fParticipantRun;
+	}
+
+	private synchronized void finishParticipantRun(ParticipantRun run)
+	{
+		if (fParticipantRun == run)
 		{
-			participant.buildStarting(context.getProject(), IncrementalProjectBuilder.INCREMENTAL_BUILD,
-					sub.newChild(1));
+			fParticipantRun = null;
 		}
-		for (IBuildParticipant participant : participants)
+	}
+
+	private synchronized void cancelParticipantRun()
+	{
+		if (fParticipantRun != null)
 		{
-			participant.buildFile(context, sub.newChild(10));
+			fParticipantRun.cancel();
+			fParticipantRun = null;
 		}
-		for (IBuildParticipant participant : participants)
+	}
+
+	private static synchronized ExecutorService getParticipantExecutor()
+	{
+		if (participantExecutor == null)
 		{
-			participant.buildEnding(sub.newChild(1));
+			participantExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new ThreadFactory()
+					{
+						private int count;
+
+						public synchronized Thread newThread(Runnable r)
+						{
+							Thread thread = new Thread(r, "Reconcile Participant " + (++count)); //$NON-NLS-1$
+							thread.setDaemon(true);
+							thread.setPriority(Thread.MIN_PRIORITY);
+							return thread;
+						}
+					});
 		}
-		reportProblems(context, sub.newChild(10));
-		sub.done();
+		return participantExecutor;
 	}
 
 	protected IBuildParticipantManager getBuildParticipantManager()
@@ -421,10 +634,10 @@ public class CommonReconcilingStrategy implements IReconcilingStrategy, IReconci
 	 * Reports problems found in reconcile to the annotation model so we can draw them on the editor without creating
 	 * markers on the underlying resource.
 	 * 
-	 * @param context
+	 * @param problems
 	 * @param monitor
 	 */
-	private void reportProblems(ReconcileContext context, IProgressMonitor monitor)
+	private void reportProblems(Map<String, Collection<IProblem>> problems, IProgressMonitor monitor)
 	{
 		AbstractThemeableEditor editor = fEditor;
 		if (editor == null)
@@ -452,7 +665,7 @@ public class CommonReconcilingStrategy implements IReconcilingStrategy, IReconci
 
 		ICommonAnnotationModel caModel = (ICommonAnnotationModel) model;
 		// Now report them all to the annotation model!
-		caModel.reportProblems(context.getProblems(), monitor);
+		caModel.reportProblems(problems, monitor);
 	}
 
 	protected IFile getFile()
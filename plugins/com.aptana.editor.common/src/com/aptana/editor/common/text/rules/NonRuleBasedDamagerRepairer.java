@@ -155,6 +155,7 @@ public class NonRuleBasedDamagerRepairer implements IPresentationDamager, IPrese
 				IdeLog.logError(CommonEditorPlugin.getDefault(), e);
 			}
 		}
+		getDocumentScopeManager().scopePositionsChanged(fDocument);
 
 		addRange(presentation, region.getOffset(), region.getLength(), getTextAttribute(region));
 	}
@@ -202,6 +203,8 @@ public class NonRuleBasedDamagerRepairer implements IPresentationDamager, IPrese
 				}
 				for (int i = start; i < stop; i++)
 				{
+					// flag it so cached copies of the scope positions notice the removal
+					positions[i].delete();
 					fDocument.removePosition(ICommonConstants.SCOPE_CATEGORY, positions[i]);
 				}
 			}
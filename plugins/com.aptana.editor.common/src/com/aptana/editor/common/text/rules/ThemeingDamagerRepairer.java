@@ -110,6 +110,7 @@ public class ThemeingDamagerRepairer extends DefaultDamagerRepairer
 			// Do coloring and collect all the scopes
 			super.createPresentation(presentation, region);
 			updateScopePositions();
+			getDocumentScopeManager().scopePositionsChanged(fDocument);
 
 			oldPositions = null;
 			newPositions = null;
@@ -30,6 +30,21 @@ import com.aptana.parsing.lexer.IRange;
 
 public class HTMLElementNode extends HTMLNode
 {
+	/**
+	 * An attribute whose value is parsed as another language the first time its nodes are needed
+	 */
+	private static class EmbeddedAttribute
+	{
+		private final String name;
+		private final IHTMLAttributeParser parser;
+		private IParseNode[] nodes;
+
+		private EmbeddedAttribute(String name, IHTMLAttributeParser parser)
+		{
+			this.name = name;
+			this.parser = parser;
+		}
+	}
 
 	private static final String ID = "id"; //$NON-NLS-1$
 	private static final String CLASS = "class"; //$NON-NLS-1$
@@ -57,6 +72,16 @@ public class HTMLElementNode extends HTMLNode
 	 */
 	private ArrayList<IParseNode> fJSAttributeNodes;
 
+	/**
+	 * Note: lazily-initialized to save on memory.
+	 */
+	private ArrayList<EmbeddedAttribute> fCSSStyleAttributes;
+
+	/**
+	 * Note: lazily-initialized to save on memory.
+	 */
+	private ArrayList<EmbeddedAttribute> fJSAttributes;
+
 	private boolean fIsSelfClosing;
 
 	public HTMLElementNode(Symbol tagSymbol, int start, int end)
@@ -106,6 +131,14 @@ public class HTMLElementNode extends HTMLNode
 		{
 			fJSAttributeNodes.trimToSize();
 		}
+		if (fCSSStyleAttributes != null)
+		{
+			fCSSStyleAttributes.trimToSize();
+		}
+		if (fJSAttributes != null)
+		{
+			fJSAttributes.trimToSize();
+		}
 	}
 
 	@Override
@@ -134,6 +167,126 @@ public class HTMLElementNode extends HTMLNode
 		fJSAttributeNodes.add(node);
 	}
 
+	/**
+	 * Register an attribute whose value is CSS. The value is only parsed by the specified parser when the style nodes
+	 * are first asked for.
+	 * 
+	 * @param name
+	 * @param parser
+	 */
+	public synchronized void addCSSStyleAttribute(String name, IHTMLAttributeParser parser)
+	{
+		fCSSStyleAttributes = addEmbeddedAttribute(fCSSStyleAttributes, name, parser);
+	}
+
+	/**
+	 * Register an attribute whose value is JS. The value is only parsed by the specified parser when the JS attribute
+	 * nodes are first asked for.
+	 * 
+	 * @param name
+	 * @param parser
+	 */
+	public synchronized void addJSAttribute(String name, IHTMLAttributeParser parser)
+	{
+		fJSAttributes = addEmbeddedAttribute(fJSAttributes, name, parser);
+	}
+
+	private static ArrayList<EmbeddedAttribute> addEmbeddedAttribute(ArrayList<EmbeddedAttribute> attributes,
+			String name, IHTMLAttributeParser parser)
+	{
+		if (attributes == null)
+		{
+			attributes = new ArrayList<EmbeddedAttribute>(1);
+		}
+		else
+		{
+			for (EmbeddedAttribute attribute : attributes)
+			{
+				if (attribute.name.equals(name))
+				{
+					// the value of a repeated attribute replaces the old one
+					attribute.nodes = null;
+					return attributes;
+				}
+			}
+		}
+		attributes.add(new EmbeddedAttribute(name, parser));
+		return attributes;
+	}
+
+	/**
+	 * Return the nodes of the embedded attribute, parsing its value if that hasn't been done yet
+	 * 
+	 * @param attribute
+	 * @return
+	 */
+	private synchronized IParseNode[] getEmbeddedNodes(EmbeddedAttribute attribute)
+	{
+		if (attribute.nodes == null)
+		{
+			IParseNodeAttribute value = (fAttributes != null) ? fAttributes.get(attribute.name) : null;
+			attribute.nodes = (value != null) ? attribute.parser.parse(this, value)
+					: HTMLParserConstants.NO_PARSE_NODES;
+		}
+		return attribute.nodes;
+	}
+
+	private IParseNode[] getNodes(List<IParseNode> nodes, List<EmbeddedAttribute> attributes)
+	{
+		if (attributes == null)
+		{
+			if (nodes == null)
+			{
+				return HTMLParserConstants.NO_PARSE_NODES;
+			}
+			return nodes.toArray(new IParseNode[nodes.size()]);
+		}
+
+		List<IParseNode> result = new ArrayList<IParseNode>();
+		if (nodes != null)
+		{
+			result.addAll(nodes);
+		}
+		for (EmbeddedAttribute attribute : attributes)
+		{
+			for (IParseNode node : getEmbeddedNodes(attribute))
+			{
+				result.add(node);
+			}
+		}
+		return result.toArray(new IParseNode[result.size()]);
+	}
+
+	/**
+	 * Return the node at the offset within the nodes of the embedded attribute whose value covers the offset, only
+	 * parsing that one attribute
+	 * 
+	 * @param attributes
+	 * @param offset
+	 * @return
+	 */
+	private IParseNode getEmbeddedNodeAtOffset(List<EmbeddedAttribute> attributes, int offset)
+	{
+		for (EmbeddedAttribute attribute : attributes)
+		{
+			IParseNodeAttribute value = (fAttributes != null) ? fAttributes.get(attribute.name) : null;
+			IRange valueRange = (value != null) ? value.getValueRange() : null;
+			if (valueRange == null || !valueRange.contains(offset))
+			{
+				continue;
+			}
+
+			for (IParseNode node : getEmbeddedNodes(attribute))
+			{
+				if (node.contains(offset))
+				{
+					return node.getNodeAtOffset(offset);
+				}
+			}
+		}
+		return null;
+	}
+
 	public String getName()
 	{
 		return this.fTag;
@@ -172,6 +325,15 @@ public class HTMLElementNode extends HTMLNode
 			}
 		}
 
+		if (result == this && fJSAttributes != null)
+		{
+			IParseNode node = getEmbeddedNodeAtOffset(fJSAttributes, offset);
+			if (node != null)
+			{
+				result = node;
+			}
+		}
+
 		if (result == this && fCSSStyleNodes != null)
 		{
 			for (IParseNode node : fCSSStyleNodes)
@@ -184,6 +346,15 @@ public class HTMLElementNode extends HTMLNode
 			}
 		}
 
+		if (result == this && fCSSStyleAttributes != null)
+		{
+			IParseNode node = getEmbeddedNodeAtOffset(fCSSStyleAttributes, offset);
+			if (node != null)
+			{
+				result = node;
+			}
+		}
+
 		return result;
 	}
 
@@ -273,20 +444,12 @@ public class HTMLElementNode extends HTMLNode
 
 	public IParseNode[] getCSSStyleNodes()
 	{
-		if (fCSSStyleNodes == null)
-		{
-			return HTMLParserConstants.NO_PARSE_NODES;
-		}
-		return fCSSStyleNodes.toArray(new IParseNode[fCSSStyleNodes.size()]);
+		return getNodes(fCSSStyleNodes, fCSSStyleAttributes);
 	}
 
 	public IParseNode[] getJSAttributeNodes()
 	{
-		if (fJSAttributeNodes == null)
-		{
-			return HTMLParserConstants.NO_PARSE_NODES;
-		}
-		return fJSAttributeNodes.toArray(new IParseNode[fJSAttributeNodes.size()]);
+		return getNodes(fJSAttributeNodes, fJSAttributes);
 	}
 
 	public boolean isSelfClosing()
@@ -0,0 +1,27 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.editor.html.parsing.ast;
+
+import com.aptana.parsing.ast.IParseNode;
+import com.aptana.parsing.ast.IParseNodeAttribute;
+
+/**
+ * Parses the value of an attribute holding code in another language, like style or onclick. Elements call this the
+ * first time the nodes of such an attribute are asked for.
+ */
+public interface IHTMLAttributeParser
+{
+	/**
+	 * Parse the value of the specified attribute of the element
+	 * 
+	 * @param element
+	 * @param attribute
+	 * @return the nodes found in the value, never null
+	 */
+	IParseNode[] parse(HTMLElementNode element, IParseNodeAttribute attribute);
+}
@@ -15,6 +15,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,7 +32,6 @@ import beaver.Symbol;
 
 import com.aptana.core.util.StringUtil;
 import com.aptana.css.core.ICSSConstants;
-import com.aptana.css.core.parsing.ast.CSSDeclarationNode;
 import com.aptana.css.core.parsing.ast.CSSRuleNode;
 import com.aptana.editor.html.core.IHTMLConstants;
 import com.aptana.editor.html.parsing.ast.HTMLCommentNode;
@@ -34,6 +39,7 @@ import com.aptana.editor.html.parsing.ast.HTMLElementNode;
 import com.aptana.editor.html.parsing.ast.HTMLNode;
 import com.aptana.editor.html.parsing.ast.HTMLSpecialNode;
 import com.aptana.editor.html.parsing.ast.HTMLTextNode;
+import com.aptana.editor.html.parsing.ast.IHTMLAttributeParser;
 import com.aptana.editor.html.parsing.ast.IHTMLNodeTypes;
 import com.aptana.editor.html.parsing.lexer.HTMLTokens;
 import com.aptana.js.core.IJSConstants;
@@ -45,6 +51,7 @@ import com.aptana.parsing.ParserPoolFactory;
 import com.aptana.parsing.WorkingParseResult;
 import com.aptana.parsing.ast.IParseError;
 import com.aptana.parsing.ast.IParseNode;
+import com.aptana.parsing.ast.IParseNodeAttribute;
 import com.aptana.parsing.ast.ParseError;
 import com.aptana.parsing.ast.ParseRootNode;
 import com.aptana.parsing.lexer.IRange;
@@ -65,6 +72,94 @@ public class HTMLParser extends AbstractParser
 
 	private static final String[] JS_VALID_LANG_ATTR = new String[] { "JavaScript" }; //$NON-NLS-1$
 
+	/**
+	 * Parses style attribute values as the declarations of a CSS rule
+	 */
+	private static final IHTMLAttributeParser CSS_ATTRIBUTE_PARSER = new IHTMLAttributeParser()
+	{
+		public IParseNode[] parse(HTMLElementNode element, IParseNodeAttribute attribute)
+		{
+			String tagName = element.getElementName();
+			String text = tagName + " {" + attribute.getValue() + "}"; //$NON-NLS-1$ //$NON-NLS-2$
+			try
+			{
+				int startingOffset = attribute.getValueRange().getStartingOffset() - (tagName.length() + 1);
+				IParseNode node = ParserPoolFactory.parse(ICSSConstants.CONTENT_TYPE_CSS, text, startingOffset)
+						.getRootNode();
+
+				// should always have a rule node
+				if (node.hasChildren())
+				{
+					IParseNode rule = node.getChild(0);
+					if (rule instanceof CSSRuleNode)
+					{
+						return ((CSSRuleNode) rule).getDeclarations();
+					}
+				}
+			}
+			catch (java.lang.Exception e)
+			{
+			}
+			return HTMLParserConstants.NO_PARSE_NODES;
+		}
+	};
+
+	/**
+	 * Parses event handler attribute values as JS
+	 */
+	private static final IHTMLAttributeParser JS_ATTRIBUTE_PARSER = new IHTMLAttributeParser()
+	{
+		public IParseNode[] parse(HTMLElementNode element, IParseNodeAttribute attribute)
+		{
+			try
+			{
+				int startingOffset = attribute.getValueRange().getStartingOffset() + 1;
+				IParseNode node = ParserPoolFactory.parse(IJSConstants.CONTENT_TYPE_JS, attribute.getValue(),
+						startingOffset).getRootNode();
+
+				return node.getChildren();
+			}
+			catch (java.lang.Exception e)
+			{
+			}
+			return HTMLParserConstants.NO_PARSE_NODES;
+		}
+	};
+
+	/**
+	 * A script or style block found while scanning the document. Blocks are parsed once scanning is done, concurrently
+	 * with each other.
+	 */
+	private static class EmbeddedBlock
+	{
+		private final HTMLSpecialNode parent;
+		private final String language;
+		private final String text;
+		private final int start;
+		private final int end;
+
+		/**
+		 * The number of errors reported when the block was found, which is where its own errors go
+		 */
+		private final int errorIndex;
+		private ParseResult result;
+
+		private EmbeddedBlock(HTMLSpecialNode parent, String language, String text, int start, int end, int errorIndex)
+		{
+			this.parent = parent;
+			this.language = language;
+			this.text = text;
+			this.start = start;
+			this.end = end;
+			this.errorIndex = errorIndex;
+		}
+	}
+
+	/**
+	 * Parses script and style blocks in the background, see {@link #getBlockExecutor()}
+	 */
+	private static ExecutorService blockExecutor;
+
 	private HTMLParserScanner fScanner;
 	private HTMLParseState fParseState;
 	private Stack<IParseNode> fElementStack;
@@ -78,6 +173,7 @@ public class HTMLParser extends AbstractParser
 	private List<IParseNode> fCommentNodes;
 	private boolean previousSymbolSkipped;
 	private WorkingParseResult fWorkingParseResult;
+	private List<EmbeddedBlock> fEmbeddedBlocks;
 
 	/**
 	 * parse
@@ -89,6 +185,7 @@ public class HTMLParser extends AbstractParser
 		fElementStack = new Stack<IParseNode>();
 		fCommentNodes = new ArrayList<IParseNode>();
 		fWorkingParseResult = working;
+		fEmbeddedBlocks = new ArrayList<EmbeddedBlock>();
 
 		String source = parseState.getSource();
 		if (parseState instanceof HTMLParseState)
@@ -110,11 +207,13 @@ public class HTMLParser extends AbstractParser
 			fCurrentElement = root;
 
 			parseAll(source);
+			addEmbeddedBlocks();
 			root.setCommentNodes(fCommentNodes.toArray(new IParseNode[fCommentNodes.size()]));
 		}
 		finally
 		{
 			// clear for garbage collection
+			fEmbeddedBlocks = null;
 			fWorkingParseResult = null;
 			fMonitor = null;
 			fScanner = null;
@@ -180,14 +279,17 @@ public class HTMLParser extends AbstractParser
 			((HTMLTokenScanner) tokenScanner).setInsideSpecialTag(false);
 		}
 
-		IParseNode[] nested = getParseResult(language, start, end);
+		HTMLSpecialNode node = null;
 		if (fCurrentElement != null)
 		{
-			HTMLSpecialNode node = new HTMLSpecialNode(startTag, nested, startTag.getStart(), fCurrentSymbol.getEnd());
+			// the nested nodes are added once the block is parsed
+			node = new HTMLSpecialNode(startTag, HTMLParserConstants.NO_PARSE_NODES, startTag.getStart(),
+					fCurrentSymbol.getEnd());
 			node.setEndNode(fCurrentSymbol.getStart(), fCurrentSymbol.getEnd());
 			parseAttribute(node, startTag);
 			fCurrentElement.addChild(node);
 		}
+		addEmbeddedBlock(node, language, start, end);
 	}
 
 	protected HTMLElementNode processCurrentTag()
@@ -269,34 +371,145 @@ public class HTMLParser extends AbstractParser
 		return false;
 	}
 
-	private IParseNode[] getParseResult(String language, int start, int end)
+	private void addEmbeddedBlock(HTMLSpecialNode parent, String language, int start, int end)
 	{
 		if (start <= end)
 		{
 			try
 			{
 				String text = fScanner.getSource().get(start, end - start + 1);
-				ParseState subParseState = new ParseState(text, start);
-				// FIXME We need to propagate options down to sub-languages, i.e. JS's attach/collect comments
-				ParseResult subParseResult = ParserPoolFactory.parse(language, subParseState);
-				IParseNode node = subParseResult.getRootNode();
-				for (IParseError subError : subParseResult.getErrors())
+				fEmbeddedBlocks.add(new EmbeddedBlock(parent, language, text, start, end, fWorkingParseResult
+						.getErrors().size()));
+			}
+			catch (java.lang.Exception e)
+			{
+			}
+		}
+	}
+
+	/**
+	 * Parse the script and style blocks and add them to the tree, with their errors in document order. Pages with many
+	 * inline blocks then take about as long as their largest block rather than the sum of all of them.
+	 */
+	private void addEmbeddedBlocks()
+	{
+		if (fMonitor.isCanceled())
+		{
+			return;
+		}
+
+		List<EmbeddedBlock> blocks = fEmbeddedBlocks;
+
+		// hand all but the last block to other threads and parse that one on this thread while they run
+		int last = blocks.size() - 1;
+		List<Future<ParseResult>> futures = new ArrayList<Future<ParseResult>>(Math.max(last, 0));
+		for (int i = 0; i < last; i++)
+		{
+			final EmbeddedBlock block = blocks.get(i);
+			futures.add(getBlockExecutor().submit(new Callable<ParseResult>()
+			{
+				public ParseResult call() throws java.lang.Exception
 				{
-					// Shift the line/offsets based on the starting offset/line of the sub-language!
-					fWorkingParseResult.addError(new ParseError(language, start + subError.getOffset(), subError
-							.getLength(), subError.getMessage(), subError.getSeverity()));
+					return parseBlock(block);
 				}
-				if (node == null)
+			}));
+		}
+		if (last >= 0)
+		{
+			try
+			{
+				blocks.get(last).result = parseBlock(blocks.get(last));
+			}
+			catch (java.lang.Exception e)
+			{
+			}
+		}
+		for (int i = 0; i < last; i++)
+		{
+			try
+			{
+				blocks.get(i).result = futures.get(i).get();
+			}
+			catch (ExecutionException e)
+			{
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				for (Future<ParseResult> future : futures)
 				{
-					node = new HTMLTextNode(text, start, end);
+					future.cancel(false);
 				}
-				return new IParseNode[] { node };
+				break;
 			}
-			catch (java.lang.Exception e)
+		}
+
+		// go backwards so the error indexes of the earlier blocks stay valid
+		List<IParseError> errors = fWorkingParseResult.getErrors();
+		for (int i = fEmbeddedBlocks.size() - 1; i >= 0; i--)
+		{
+			EmbeddedBlock block = fEmbeddedBlocks.get(i);
+			ParseResult result = block.result;
+			if (result == null)
+			{
+				continue;
+			}
+
+			// insert the errors where they'd have been reported had the block been parsed when it was found
+			List<IParseError> subErrors = result.getErrors();
+			List<IParseError> blockErrors = new ArrayList<IParseError>(subErrors.size());
+			for (IParseError subError : subErrors)
 			{
+				// Shift the line/offsets based on the starting offset/line of the sub-language!
+				blockErrors.add(new ParseError(block.language, block.start + subError.getOffset(), subError
+						.getLength(), subError.getMessage(), subError.getSeverity()));
+			}
+			errors.addAll(block.errorIndex, blockErrors);
+			if (block.parent != null)
+			{
+				IParseNode node = result.getRootNode();
+				if (node == null)
+				{
+					node = new HTMLTextNode(block.text, block.start, block.end);
+				}
+				block.parent.setChildren(new IParseNode[] { node });
 			}
 		}
-		return HTMLParserConstants.NO_PARSE_NODES;
+	}
+
+	/**
+	 * Parse the specified block. This may run on any thread, so it only touches the block. It goes through the shared
+	 * parse cache, so a block that hasn't changed since the last parse isn't parsed again.
+	 * 
+	 * @param block
+	 * @return
+	 * @throws java.lang.Exception
+	 */
+	private static ParseResult parseBlock(EmbeddedBlock block) throws java.lang.Exception
+	{
+		ParseState subParseState = new ParseState(block.text, block.start);
+		// FIXME We need to propagate options down to sub-languages, i.e. JS's attach/collect comments
+		return ParserPoolFactory.parse(block.language, subParseState);
+	}
+
+	private static synchronized ExecutorService getBlockExecutor()
+	{
+		if (blockExecutor == null)
+		{
+			blockExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new ThreadFactory()
+					{
+						private int count;
+
+						public synchronized Thread newThread(Runnable r)
+						{
+							Thread thread = new Thread(r, "HTML Embedded Block Parser " + (++count)); //$NON-NLS-1$
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return blockExecutor;
 	}
 
 	private void processComment()
@@ -478,7 +691,6 @@ public class HTMLParser extends AbstractParser
 
 			IRange nameRange = new Range(startOftagText + m.start(1), startOftagText + m.end(1));
 			IRange valueRange = new Range(startOftagText + m.start(3), startOftagText + m.end(3));
-			int absoluteOffset = startOftagText + m.start(3);
 
 			if (value != null)
 			{
@@ -489,52 +701,15 @@ public class HTMLParser extends AbstractParser
 
 			if (!StringUtil.isEmpty(value))
 			{
-				// checks if we need to process the value as CSS
+				// checks if we need to process the value as CSS or JS. That's only done when the nodes are asked for,
+				// most attributes are never looked at
 				if (HTMLUtils.isCSSAttribute(name))
 				{
-					String text = tagName + " {" + value + "}"; //$NON-NLS-1$ //$NON-NLS-2$
-					try
-					{
-
-						int startingOffset = absoluteOffset - (tagName.length() + 1);
-						IParseNode node = ParserPoolFactory.parse(ICSSConstants.CONTENT_TYPE_CSS, text, startingOffset)
-								.getRootNode();
-
-						// should always have a rule node
-						if (node.hasChildren())
-						{
-							IParseNode rule = node.getChild(0);
-							if (rule instanceof CSSRuleNode)
-							{
-								CSSDeclarationNode[] declarations = ((CSSRuleNode) rule).getDeclarations();
-								for (CSSDeclarationNode declaration : declarations)
-								{
-									element.addCSSStyleNode(declaration);
-								}
-							}
-						}
-					}
-					catch (java.lang.Exception e)
-					{
-					}
+					element.addCSSStyleAttribute(name, CSS_ATTRIBUTE_PARSER);
 				}
-				// checks if we need to process the value as JS
 				else if (HTMLUtils.isJSAttribute(tagName, name))
 				{
-					try
-					{
-						int startingOffset = absoluteOffset + 1;
-						IParseNode node = ParserPoolFactory.parse(IJSConstants.CONTENT_TYPE_JS, value, startingOffset)
-								.getRootNode();
-
-						for (IParseNode child : node)
-						{
-							element.addJSAttributeNode(child);
-						}
-					}
-					catch (java.lang.Exception e)
-					{
-					}
+					element.addJSAttribute(name, JS_ATTRIBUTE_PARSER);
 				}
 			}
 		}
@@ -9,12 +9,15 @@ package com.aptana.editor.html.validator;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -25,7 +28,6 @@ import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
-import org.jaxen.JaxenException;
 import org.osgi.service.prefs.BackingStoreException;
 
 import com.aptana.buildpath.core.BuildPathCorePlugin;
@@ -59,9 +61,6 @@ import com.aptana.parsing.ast.IParseNode;
 import com.aptana.parsing.ast.IParseNodeAttribute;
 import com.aptana.parsing.ast.IParseRootNode;
 import com.aptana.parsing.lexer.IRange;
-import com.aptana.parsing.util.ParseUtil;
-import com.aptana.parsing.xpath.ParseNodeNavigator;
-import com.aptana.parsing.xpath.ParseNodeXPath;
 
 /**
  * Custom replacement for JTidy. Allows us to re-use the AST we already generate, which gives us speed gains of about 4x
@@ -84,14 +83,6 @@ public class HTMLTidyValidator extends AbstractBuildParticipant
 
 	private static final Pattern ENTITY_PATTERN = Pattern.compile("&(\\S+)?"); //$NON-NLS-1$
 
-	/**
-	 * XPath expressions we use to jump to lists of nodes.
-	 */
-	private static ParseNodeXPath FRAMESET_TAG;
-	private static ParseNodeXPath BODY_TAG;
-	private static ParseNodeXPath NOFRAMES_TAG;
-	private static ParseNodeXPath HTML_CHILDREN;
-
 	public enum ProblemCategory
 	{
 		// @formatter:off
@@ -173,22 +164,6 @@ public class HTMLTidyValidator extends AbstractBuildParticipant
 		}
 	}
 
-	static
-	{
-		try
-		{
-			ParseNodeNavigator caseInsensitive = new ParseNodeNavigator(true);
-			BODY_TAG = new ParseNodeXPath("/html/body", caseInsensitive); //$NON-NLS-1$
-			FRAMESET_TAG = new ParseNodeXPath("/html/frameset", caseInsensitive); //$NON-NLS-1$
-			NOFRAMES_TAG = new ParseNodeXPath("/html/frameset/noframes", caseInsensitive); //$NON-NLS-1$
-			HTML_CHILDREN = new ParseNodeXPath("/html/*", caseInsensitive); //$NON-NLS-1$
-		}
-		catch (JaxenException e)
-		{
-			IdeLog.logError(HTMLPlugin.getDefault(), e);
-		}
-	}
-
 	private HTMLIndexQueryHelper fQueryHelper;
 
 	/**
@@ -262,8 +237,9 @@ public class HTMLTidyValidator extends AbstractBuildParticipant
 					if (ast != null)
 					{
 						foundTitle = false;
-						problems.addAll(validateFrames(ast));
-						problems.addAll(validateAST(ast));
+						List<HTMLElementNode> htmlChildren = new ArrayList<HTMLElementNode>();
+						problems.addAll(validateAST(ast, htmlChildren));
+						problems.addAll(validateFrames(htmlChildren));
 						if (!foundTitle)
 						{
 							try
@@ -337,14 +313,21 @@ public class HTMLTidyValidator extends AbstractBuildParticipant
 		return Collections.emptyList();
 	}
 
-	@SuppressWarnings("unchecked")
-	private Collection<IProblem> validateFrames(IParseRootNode ast)
+	/**
+	 * Checks the frameset structure of the document
+	 * 
+	 * @param htmlChildren
+	 *            the child elements of the top-level html elements, as collected by
+	 *            {@link #validateAST(IParseRootNode, List)}
+	 * @return
+	 */
+	private Collection<IProblem> validateFrames(List<HTMLElementNode> htmlChildren)
 	{
 		Collection<IProblem> problems = new ArrayList<IProblem>();
 
 		try
 		{
-			List<HTMLElementNode> framesetNodes = (List<HTMLElementNode>) FRAMESET_TAG.evaluate(ast);
+			List<HTMLElementNode> framesetNodes = getElements(htmlChildren, "frameset"); //$NON-NLS-1$
 			if (!CollectionsUtil.isEmpty(framesetNodes))
 			{
 				// verify only one FRAMESET child of HTML
@@ -364,16 +347,20 @@ public class HTMLTidyValidator extends AbstractBuildParticipant
 				}
 
 				// Check NOFRAMES
-				List<HTMLElementNode> noFramesNodes = (List<HTMLElementNode>) NOFRAMES_TAG.evaluate(ast);
 				HTMLElementNode noFrames = null;
-				if (!CollectionsUtil.isEmpty(noFramesNodes))
+				for (HTMLElementNode framesetNode : framesetNodes)
 				{
-					noFrames = noFramesNodes.get(0);
+					List<HTMLElementNode> noFramesNodes = getElements(framesetNode.getChildren(), "noframes"); //$NON-NLS-1$
+					if (!CollectionsUtil.isEmpty(noFramesNodes))
+					{
+						noFrames = noFramesNodes.get(0);
+						break;
+					}
 				}
 				if (noFrames == null)
 				{
 					// If there's an html/body, add warning to insert implicit noFrames
-					List<HTMLElementNode> bodyNode = (List<HTMLElementNode>) BODY_TAG.evaluate(ast);
+					List<HTMLElementNode> bodyNode = getElements(htmlChildren, "body"); //$NON-NLS-1$
 					if (!CollectionsUtil.isEmpty(bodyNode))
 					{
 						IRange range = bodyNode.iterator().next().getNameNode().getNameRange();
@@ -383,7 +370,7 @@ public class HTMLTidyValidator extends AbstractBuildParticipant
 					}
 					else
 					{
-						HTMLElementNode invalidContentNode = invalidContentNode(ast);
+						HTMLElementNode invalidContentNode = invalidContentNode(htmlChildren);
 						if (invalidContentNode != null)
 						{
 							IRange range = invalidContentNode.getNameNode().getNameRange();
@@ -395,7 +382,7 @@ public class HTMLTidyValidator extends AbstractBuildParticipant
 				}
 				else
 				{
-					HTMLElementNode invalidContentNode = invalidContentNode(ast);
+					HTMLElementNode invalidContentNode = invalidContentNode(htmlChildren);
 					if (invalidContentNode != null)
 					{
 						IRange range = invalidContentNode.getNameNode().getNameRange();
@@ -414,55 +401,95 @@ public class HTMLTidyValidator extends AbstractBuildParticipant
 	}
 
 	/**
-	 * We try to find a child element of html that isn't "body", "head" or "frameset". For frames, we'll mark this node
-	 * as needing to be in a "noframes" element.
+	 * Returns the elements among the nodes with the specified tag name, ignoring case
 	 * 
-	 * @param ast
+	 * @param nodes
+	 * @param tagName
 	 * @return
 	 */
-	@SuppressWarnings("unchecked")
-	private HTMLElementNode invalidContentNode(IParseRootNode ast)
+	private static List<HTMLElementNode> getElements(IParseNode[] nodes, String tagName)
 	{
-		try
+		return getElements(Arrays.asList(nodes), tagName);
+	}
+
+	private static List<HTMLElementNode> getElements(List<? extends IParseNode> nodes, String tagName)
+	{
+		List<HTMLElementNode> elements = new ArrayList<HTMLElementNode>(1);
+		for (IParseNode node : nodes)
 		{
-			List<HTMLNode> htmlChildren = (List<HTMLNode>) HTML_CHILDREN.evaluate(ast);
-			if (!CollectionsUtil.isEmpty(htmlChildren))
+			if (node instanceof HTMLElementNode && tagName.equalsIgnoreCase(((HTMLElementNode) node).getName()))
 			{
-				Set<String> validTags = CollectionsUtil.newSet("body", "head", "frameset"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-				for (HTMLNode htmlChild : htmlChildren)
-				{
-					if (!(htmlChild instanceof HTMLElementNode))
-					{
-						continue;
-					}
-					HTMLElementNode element = (HTMLElementNode) htmlChild;
-					String tagName = element.getElementName().toLowerCase();
-					if (!validTags.contains(tagName))
-					{
-						return element;
-					}
-				}
+				elements.add((HTMLElementNode) node);
 			}
 		}
-		catch (JaxenException e)
+		return elements;
+	}
+
+	/**
+	 * We try to find a child element of html that isn't "body", "head" or "frameset". For frames, we'll mark this node
+	 * as needing to be in a "noframes" element.
+	 * 
+	 * @param htmlChildren
+	 * @return
+	 */
+	private HTMLElementNode invalidContentNode(List<HTMLElementNode> htmlChildren)
+	{
+		Set<String> validTags = CollectionsUtil.newSet("body", "head", "frameset"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		for (HTMLElementNode element : htmlChildren)
 		{
-			IdeLog.logError(HTMLPlugin.getDefault(), e);
+			String tagName = element.getElementName().toLowerCase();
+			if (!validTags.contains(tagName))
+			{
+				return element;
+			}
 		}
 		return null;
 	}
 
-	private Collection<IProblem> validateAST(IParseRootNode root)
+	/**
+	 * Validates every HTML node of the tree in a single walk. Embedded CSS and JS trees aren't descended into since
+	 * there's nothing for Tidy to check in them.
+	 * 
+	 * @param root
+	 * @param htmlChildren
+	 *            collects the child elements of the top-level html elements for the frames checks
+	 * @return
+	 */
+	private Collection<IProblem> validateAST(IParseRootNode root, List<HTMLElementNode> htmlChildren)
 	{
-		final Collection<IProblem> problems = new ArrayList<IProblem>();
+		Collection<IProblem> problems = new ArrayList<IProblem>();
+		Queue<IParseNode> queue = new LinkedList<IParseNode>();
 
-		ParseUtil.treeApply(root, new IFilter<IParseNode>()
+		queue.offer(root);
+		while (!queue.isEmpty())
 		{
-			public boolean include(IParseNode node)
+			IParseNode node = queue.poll();
+			if (node != root)
 			{
+				if (!(node instanceof HTMLNode))
+				{
+					continue;
+				}
 				problems.addAll(handleNode(node));
-				return true;
+
+				if (node.getParent() == root && node instanceof HTMLElementNode
+						&& "html".equalsIgnoreCase(((HTMLElementNode) node).getName())) //$NON-NLS-1$
+				{
+					for (IParseNode child : node.getChildren())
+					{
+						if (child instanceof HTMLElementNode)
+						{
+							htmlChildren.add((HTMLElementNode) child);
+						}
+					}
+				}
 			}
-		});
+
+			for (IParseNode child : node.getChildren())
+			{
+				queue.offer(child);
+			}
+		}
 
 		return problems;
 	}
@@ -20,6 +20,7 @@ import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
@@ -55,9 +56,11 @@ import com.aptana.js.core.JSLanguageConstants;
 import com.aptana.js.core.JSTypeConstants;
 import com.aptana.js.core.index.IJSIndexConstants;
 import com.aptana.js.core.index.JSIndexQueryHelper;
+import com.aptana.js.core.inferencing.JSInferenceBudget;
 import com.aptana.js.core.inferencing.JSNodeTypeInferrer;
 import com.aptana.js.core.inferencing.JSPropertyCollection;
 import com.aptana.js.core.inferencing.JSScope;
+import com.aptana.js.core.inferencing.JSSymbolTable;
 import com.aptana.js.core.inferencing.JSTypeUtil;
 import com.aptana.js.core.inferencing.RequireResolverFactory;
 import com.aptana.js.core.model.FunctionElement;
@@ -489,12 +492,32 @@ public class JSContentAssistProcessor extends CommonContentAssistProcessor
 			return;
 		}
 
-		JSScope globalScope = ParseUtil.getGlobalScope(targetNode);
-		if (globalScope == null)
+		JSSymbolTable symbolTable = ParseUtil.getSymbolTable(targetNode, getURI(), getQueryHelper());
+		if (symbolTable == null)
 		{
 			return;
 		}
-		JSScope localScope = globalScope.getScopeAtOffset(offset);
+		try
+		{
+			addSymbolsInScope(proposals, symbolTable, offset);
+		}
+		finally
+		{
+			symbolTable.release();
+		}
+	}
+
+	/**
+	 * Add proposals for the symbols visible at the specified offset, excluding globals
+	 * 
+	 * @param proposals
+	 * @param symbolTable
+	 * @param offset
+	 */
+	private void addSymbolsInScope(Set<ICompletionProposal> proposals, JSSymbolTable symbolTable, int offset)
+	{
+		JSScope globalScope = symbolTable.getGlobals();
+		JSScope localScope = symbolTable.getScopeAtOffset(offset);
 		String fileLocation = getFilename();
 		String[] userAgentNames = getActiveUserAgentIds();
 
@@ -627,41 +650,51 @@ public class JSContentAssistProcessor extends CommonContentAssistProcessor
 
 			if (!CollectionsUtil.isEmpty(assignments))
 			{
-				JSScope globalScope = ParseUtil.getGlobalScope(targetNode);
+				URI location = EditorUtil.getURI(editor);
+				JSSymbolTable symbolTable = ParseUtil.getSymbolTable(targetNode, location, getQueryHelper());
 
-				if (globalScope != null)
+				if (symbolTable != null)
 				{
-					JSScope localScope = globalScope.getScopeAtOffset(offset);
-					Index index = getIndex();
-					URI location = EditorUtil.getURI(editor);
-					String typeName = StringUtil.concat(getNestedFunctionTypeName(function)
-							+ IJSIndexConstants.NESTED_TYPE_SEPARATOR + "this"); //$NON-NLS-1$
-
-					// infer each property and add proposal
-					for (JSAssignmentNode assignment : assignments)
+					JSInferenceBudget budget = JSInferenceBudget.createDefault();
+
+					try
 					{
-						IParseNode lhs = assignment.getLeftHandSide();
-						IParseNode rhs = assignment.getRightHandSide();
-						String name = lhs.getLastChild().getText();
+						JSScope localScope = symbolTable.getScopeAtOffset(offset);
+						Index index = getIndex();
+						String typeName = StringUtil.concat(getNestedFunctionTypeName(function)
+								+ IJSIndexConstants.NESTED_TYPE_SEPARATOR + "this"); //$NON-NLS-1$
 
-						JSNodeTypeInferrer nodeInferrer = new JSNodeTypeInferrer(localScope, index, location,
-								getQueryHelper());
-						((JSNode) rhs).accept(nodeInferrer);
-						List<String> types = nodeInferrer.getTypes();
+						// infer each property and add proposal
+						for (JSAssignmentNode assignment : assignments)
+						{
+							IParseNode lhs = assignment.getLeftHandSide();
+							IParseNode rhs = assignment.getRightHandSide();
+							String name = lhs.getLastChild().getText();
 
-						PropertyElement property = new PropertyElement();
-						property.setName(name);
-						property.setHasAllUserAgents();
+							JSNodeTypeInferrer nodeInferrer = new JSNodeTypeInferrer(localScope, index, location,
+									getQueryHelper(), new NullProgressMonitor(), budget);
+							((JSNode) rhs).accept(nodeInferrer);
+							List<String> types = nodeInferrer.getTypes();
 
-						if (!CollectionsUtil.isEmpty(types))
-						{
-							for (String type : types)
+							PropertyElement property = new PropertyElement();
+							property.setName(name);
+							property.setHasAllUserAgents();
+
+							if (!CollectionsUtil.isEmpty(types))
 							{
-								property.addType(type);
+								for (String type : types)
+								{
+									property.addType(type);
+								}
 							}
-						}
 
-						addProposal(proposals, property, offset, getProjectURI(), typeName);
+							addProposal(proposals, property, offset, getProjectURI(), typeName);
+						}
+					}
+					finally
+					{
+						symbolTable.release();
+						budget.finish();
 					}
 				}
 			}
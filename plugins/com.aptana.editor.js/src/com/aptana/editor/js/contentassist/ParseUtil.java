@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jface.text.IDocument;
 
 import com.aptana.core.logging.IdeLog;
@@ -23,8 +24,11 @@ import com.aptana.editor.js.text.JSFlexLexemeProvider;
 import com.aptana.index.core.Index;
 import com.aptana.js.core.JSTypeConstants;
 import com.aptana.js.core.index.JSIndexQueryHelper;
+import com.aptana.js.core.inferencing.JSInferenceBudget;
 import com.aptana.js.core.inferencing.JSNodeTypeInferrer;
 import com.aptana.js.core.inferencing.JSScope;
+import com.aptana.js.core.inferencing.JSSymbolTable;
+import com.aptana.js.core.inferencing.JSSymbolTableCache;
 import com.aptana.js.core.inferencing.JSTypeMapper;
 import com.aptana.js.core.parsing.JSFlexScanner;
 import com.aptana.js.core.parsing.JSTokenType;
@@ -417,6 +421,33 @@ public class ParseUtil
 		return result;
 	}
 
+	/**
+	 * Lease the symbol table of the file containing the specified node. The table is shared with other requests
+	 * against the same content, so callers must release it once they are done with it.
+	 * 
+	 * @param node
+	 * @param location
+	 * @param queryHelper
+	 *            The helper types will be inferred with
+	 * @return the symbol table or null if the node is not part of a JS AST
+	 */
+	public static JSSymbolTable getSymbolTable(IParseNode node, URI location, JSIndexQueryHelper queryHelper)
+	{
+		IParseNode root = node;
+
+		while (root != null)
+		{
+			if (root instanceof JSParseRootNode)
+			{
+				return JSSymbolTableCache.getInstance().acquire((JSParseRootNode) root, location, queryHelper);
+			}
+
+			root = root.getParent();
+		}
+
+		return null;
+	}
+
 	/**
 	 * Infers types for the receiver in a getProperty call. (receiver.property)
 	 * 
@@ -436,20 +467,33 @@ public class ParseUtil
 		if (getPropertyNode != null)
 		{
 			// collect the scope for the target node
-			JSScope localScope = ParseUtil.getScopeAtOffset(targetNode, offset);
+			JSSymbolTable symbolTable = ParseUtil.getSymbolTable(targetNode, fileURI, queryHelper);
 
-			if (localScope != null)
+			if (symbolTable != null)
 			{
+				JSScope localScope = symbolTable.getScopeAtOffset(offset);
 				List<String> typeList = Collections.emptyList();
 
 				// lookup in current file
 				IParseNode lhs = getPropertyNode.getLeftHandSide();
-				// Infer types for the receiver
-				if (lhs instanceof JSNode)
+
+				JSInferenceBudget budget = JSInferenceBudget.createDefault();
+
+				try
+				{
+					// Infer types for the receiver
+					if (lhs instanceof JSNode)
+					{
+						JSNodeTypeInferrer typeWalker = new JSNodeTypeInferrer(localScope, projectIndex, fileURI,
+								queryHelper, new NullProgressMonitor(), budget);
+						typeWalker.visit((JSNode) lhs);
+						typeList = typeWalker.getTypes();
+					}
+				}
+				finally
 				{
-					JSNodeTypeInferrer typeWalker = new JSNodeTypeInferrer(localScope, projectIndex, fileURI, queryHelper);
-					typeWalker.visit((JSNode) lhs);
-					typeList = typeWalker.getTypes();
+					symbolTable.release();
+					budget.finish();
 				}
 
 				IdeLog.logInfo(JSPlugin.getDefault(),
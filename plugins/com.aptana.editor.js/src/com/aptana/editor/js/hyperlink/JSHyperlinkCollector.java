@@ -36,7 +36,8 @@ import com.aptana.index.core.Index;
 import com.aptana.js.core.index.JSIndexQueryHelper;
 import com.aptana.js.core.inferencing.CommonJSResolver;
 import com.aptana.js.core.inferencing.JSPropertyCollection;
-import com.aptana.js.core.inferencing.JSScope;
+import com.aptana.js.core.inferencing.JSSymbolTable;
+import com.aptana.js.core.inferencing.JSSymbolTableCache;
 import com.aptana.js.core.inferencing.RequireResolverFactory;
 import com.aptana.js.core.model.PropertyElement;
 import com.aptana.js.core.parsing.ast.IJSNodeTypes;
@@ -254,9 +255,18 @@ public class JSHyperlinkCollector extends JSTreeWalker
 			return;
 		}
 
-		JSScope globalScope = ast.getGlobals();
-		JSScope activeScope = globalScope.getScopeAtOffset(offset);
-		JSPropertyCollection properties = activeScope.getSymbol(node.getText());
+		JSSymbolTable symbolTable = JSSymbolTableCache.getInstance().acquire(ast, EditorUtil.getURI(editor),
+				createQueryHelper());
+		JSPropertyCollection properties;
+
+		try
+		{
+			properties = symbolTable.getScopeAtOffset(offset).getSymbol(node.getText());
+		}
+		finally
+		{
+			symbolTable.release();
+		}
 
 		if (properties != null)
 		{
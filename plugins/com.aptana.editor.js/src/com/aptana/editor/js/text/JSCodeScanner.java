@@ -8,13 +8,17 @@
 package com.aptana.editor.js.text;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.rules.IToken;
 import org.eclipse.jface.text.rules.Token;
 
+import beaver.Scanner;
 import beaver.Symbol;
 
 import com.aptana.core.logging.IdeLog;
@@ -75,6 +79,48 @@ public class JSCodeScanner extends AbstractFlexTokenScanner
 	private static final Set<String> SUPPORT_DOM_CONSTANT = CollectionsUtil
 			.newSet(JSLanguageConstants.SUPPORT_DOM_CONSTANTS);
 
+	/**
+	 * Returns the tokens shared through {@link JSTokenCache} when there are some for the current range and lexes the
+	 * range otherwise
+	 */
+	private static class CachingScanner extends Scanner
+	{
+		private final JSFlexScanner scanner = new JSFlexScanner();
+		private Iterator<Symbol> cachedTokens;
+		private Symbol eof;
+
+		private CachingScanner()
+		{
+			// It shouldn't really collect comments anyways as we're just processing the default partition,
+			// so, this is just a safety measure.
+			scanner.setCollectComments(false);
+		}
+
+		private void setCachedTokens(List<Symbol> tokens, int length)
+		{
+			cachedTokens = tokens.iterator();
+			eof = new Symbol(Terminals.EOF, length, length - 1, "end-of-file"); //$NON-NLS-1$
+		}
+
+		private void setSource(String source)
+		{
+			cachedTokens = null;
+			eof = null;
+			scanner.setSource(source);
+		}
+
+		@Override
+		public Symbol nextToken() throws IOException, Scanner.Exception
+		{
+			if (cachedTokens == null)
+			{
+				return scanner.nextToken();
+			}
+
+			return cachedTokens.hasNext() ? cachedTokens.next() : eof;
+		}
+	}
+
 	private enum State
 	{
 		DEFAULT, FUNCTION_DECLARATION, FUNCTION_DECLARATION_INSIDE_PARENS,
@@ -85,17 +131,41 @@ public class JSCodeScanner extends AbstractFlexTokenScanner
 	 */
 	private State fCurrentState = State.DEFAULT;
 
+	/**
+	 * The tokens shared for the range being scanned, if any
+	 */
+	private List<Symbol> fCachedTokens;
+
 	public JSCodeScanner()
 	{
-		super(new JSFlexScanner());
+		super(new CachingScanner());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.aptana.editor.common.parsing.AbstractFlexTokenScanner#setRange(org.eclipse.jface.text.IDocument, int,
+	 * int)
+	 */
+	@Override
+	public void setRange(IDocument document, int offset, int length)
+	{
+		fCachedTokens = JSTokenCache.getTokens(document, offset, length);
+		super.setRange(document, offset, length);
 	}
 
 	protected void setSource(String string)
 	{
-		// It shouldn't really collect comments anyways as we're just processing the default partition,
-		// so, this is just a safety measure.
-		((JSFlexScanner) fScanner).setCollectComments(false);
-		((JSFlexScanner) fScanner).setSource(string);
+		CachingScanner scanner = (CachingScanner) fScanner;
+
+		if (fCachedTokens != null)
+		{
+			scanner.setCachedTokens(fCachedTokens, string.length());
+			fCachedTokens = null;
+		}
+		else
+		{
+			scanner.setSource(string);
+		}
 	}
 
 	protected IToken getUndefinedToken()
@@ -7,14 +7,18 @@
  */
 package com.aptana.editor.js.text;
 
+import java.util.List;
+
 import org.eclipse.jface.text.IDocument;
 
 import beaver.Scanner;
+import beaver.Symbol;
 
 import com.aptana.editor.common.contentassist.FlexLexemeProvider;
 import com.aptana.js.core.parsing.JSFlexScanner;
 import com.aptana.js.core.parsing.JSTokenType;
 import com.aptana.parsing.lexer.IRange;
+import com.aptana.parsing.lexer.Lexeme;
 
 /**
  * JSFlexLexemeProvider
@@ -58,6 +62,32 @@ public class JSFlexLexemeProvider extends FlexLexemeProvider<JSTokenType>
 		super(document, range, scanner);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.aptana.editor.common.contentassist.FlexLexemeProvider#createLexemeList(org.eclipse.jface.text.IDocument,
+	 * int, int, beaver.Scanner)
+	 */
+	@Override
+	protected void createLexemeList(IDocument document, int offset, int length, Scanner scanner)
+	{
+		List<Symbol> tokens = JSTokenCache.getTokens(document, offset, length);
+
+		if (tokens == null)
+		{
+			super.createLexemeList(document, offset, length, scanner);
+			return;
+		}
+
+		for (Symbol token : tokens)
+		{
+			JSTokenType type = getTypeFromId(token.getId());
+			int start = token.getStart() + offset;
+			int end = token.getEnd() + offset;
+
+			addLexeme(new Lexeme<JSTokenType>(type, start, end, token.value.toString()));
+		}
+	}
+
 	@Override
 	protected JSTokenType getTypeFromId(short id)
 	{
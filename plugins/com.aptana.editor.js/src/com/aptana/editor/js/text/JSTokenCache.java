@@ -0,0 +1,335 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.editor.js.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.ITypedRegion;
+
+import beaver.Symbol;
+
+import com.aptana.core.logging.IdeLog;
+import com.aptana.editor.js.JSPlugin;
+import com.aptana.editor.js.JSSourceConfiguration;
+import com.aptana.js.core.parsing.JSFlexScanner;
+import com.aptana.js.core.parsing.Terminals;
+
+/**
+ * Lexes the code partitions of a JS document once and shares the resulting tokens between the code scanner used for
+ * coloring and the lexeme providers used by content assist. Tokens are remembered per document and keyed by the text of
+ * the partition they came from, so after an edit only the partitions whose text changed are lexed again. Partitions
+ * larger than {@link #MAX_PARTITION_LENGTH} aren't cached: copying and lexing all of them again after each edit would
+ * cost more than lexing the requested ranges.
+ */
+class JSTokenCache
+{
+	/**
+	 * The tokens of a partition, with offsets relative to the start of the partition
+	 */
+	private static class PartitionTokens
+	{
+		private final Symbol[] tokens;
+
+		/**
+		 * The offset where lexing stopped: the length of the partition or the position of a lexing error
+		 */
+		private final int stop;
+
+		private PartitionTokens(Symbol[] tokens, int stop)
+		{
+			this.tokens = tokens;
+			this.stop = stop;
+		}
+
+		/**
+		 * Return the tokens within the specified range, relative to its start, or null if a token crosses one of its
+		 * boundaries or lexing stopped before its end
+		 * 
+		 * @param offset
+		 * @param length
+		 * @return
+		 */
+		private List<Symbol> getTokens(int offset, int length)
+		{
+			int end = offset + length;
+
+			if (stop < end)
+			{
+				return null;
+			}
+
+			// find the first token that doesn't end before the range
+			int low = 0;
+			int high = tokens.length;
+			while (low < high)
+			{
+				int middle = (low + high) >>> 1;
+
+				if (tokens[middle].getEnd() < offset)
+				{
+					low = middle + 1;
+				}
+				else
+				{
+					high = middle;
+				}
+			}
+
+			List<Symbol> result = new ArrayList<Symbol>();
+			for (int i = low; i < tokens.length && tokens[i].getStart() < end; i++)
+			{
+				Symbol token = tokens[i];
+
+				if (token.getStart() < offset || token.getEnd() >= end)
+				{
+					return null;
+				}
+				result.add(new Symbol(token.getId(), token.getStart() - offset, token.getEnd() - offset, token.value));
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * The number of partitions we remember for each document
+	 */
+	private static final int MAX_PARTITIONS = 200;
+
+	/**
+	 * The length of the largest partition we lex as a whole, in characters
+	 */
+	static final int MAX_PARTITION_LENGTH = 32 * 1024;
+
+	private static final Map<IDocument, JSTokenCache> CACHES = new WeakHashMap<IDocument, JSTokenCache>();
+
+	private static final ThreadLocal<JSFlexScanner> SCANNER = new ThreadLocal<JSFlexScanner>()
+	{
+		@Override
+		protected JSFlexScanner initialValue()
+		{
+			JSFlexScanner scanner = new JSFlexScanner();
+
+			scanner.setCollectComments(false);
+
+			return scanner;
+		}
+	};
+
+	/**
+	 * Return the tokens within the specified range of the document, with offsets relative to the start of the range.
+	 * Tokens come from lexing the whole code partition holding the range, so this returns null when the range isn't
+	 * within a JS code partition, when the partition is too large to be cached, when the range starts or ends in the
+	 * middle of a token, or when the partition couldn't be lexed up to the end of the range. Callers are expected to
+	 * lex the range themselves in that case.
+	 * 
+	 * @param document
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	static List<Symbol> getTokens(IDocument document, int offset, int length)
+	{
+		if (document == null)
+		{
+			return null;
+		}
+
+		ITypedRegion partition;
+
+		try
+		{
+			partition = document.getPartition(offset);
+		}
+		catch (BadLocationException e)
+		{
+			return null;
+		}
+
+		if (!isCodePartition(document, partition.getType()) || partition.getLength() > MAX_PARTITION_LENGTH
+				|| offset + length > partition.getOffset() + partition.getLength())
+		{
+			return null;
+		}
+
+		JSTokenCache cache;
+
+		synchronized (CACHES)
+		{
+			cache = CACHES.get(document);
+
+			if (cache == null)
+			{
+				cache = new JSTokenCache();
+				CACHES.put(document, cache);
+			}
+		}
+
+		// while the document doesn't change, the partition is found without copying its text
+		long stamp = (document instanceof IDocumentExtension4) ? ((IDocumentExtension4) document)
+				.getModificationStamp() : IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+		PartitionTokens tokens = cache.getRecent(stamp, partition);
+
+		if (tokens == null)
+		{
+			String source;
+
+			try
+			{
+				source = document.get(partition.getOffset(), partition.getLength());
+			}
+			catch (BadLocationException e)
+			{
+				return null;
+			}
+
+			tokens = cache.get(source);
+
+			if (tokens == null)
+			{
+				tokens = lex(source);
+
+				if (tokens == null)
+				{
+					return null;
+				}
+
+				cache.put(source, tokens);
+			}
+
+			cache.setRecent(stamp, partition, tokens);
+		}
+
+		return tokens.getTokens(offset - partition.getOffset(), length);
+	}
+
+	/**
+	 * Determine if partitions of the specified type hold JS code. The default content type only does so in documents
+	 * partitioned for JS, it may be anything else otherwise.
+	 * 
+	 * @param document
+	 * @param type
+	 * @return
+	 */
+	private static boolean isCodePartition(IDocument document, String type)
+	{
+		if (JSSourceConfiguration.DEFAULT.equals(type))
+		{
+			return true;
+		}
+		if (!IDocument.DEFAULT_CONTENT_TYPE.equals(type))
+		{
+			return false;
+		}
+
+		String[] contentTypes = document.getLegalContentTypes();
+
+		return contentTypes != null && Arrays.asList(contentTypes).contains(JSSourceConfiguration.DEFAULT);
+	}
+
+	/**
+	 * Lex the specified partition text
+	 * 
+	 * @param source
+	 * @return the tokens or null if the scanner failed
+	 */
+	private static PartitionTokens lex(String source)
+	{
+		JSFlexScanner scanner = SCANNER.get();
+		List<Symbol> tokens = new ArrayList<Symbol>();
+
+		try
+		{
+			scanner.setSource(source);
+
+			Symbol token = scanner.nextToken();
+
+			while (token.getId() != Terminals.EOF)
+			{
+				tokens.add(token);
+				token = scanner.nextToken();
+			}
+
+			return new PartitionTokens(tokens.toArray(new Symbol[tokens.size()]), token.getStart());
+		}
+		catch (Exception e)
+		{
+			IdeLog.logError(JSPlugin.getDefault(), e);
+			return null;
+		}
+		finally
+		{
+			// don't hold on to the source
+			scanner.setSource(""); //$NON-NLS-1$
+		}
+	}
+
+	private final Map<String, PartitionTokens> partitions;
+
+	/**
+	 * The partition looked up last, along with the modification stamp of the document at that time
+	 */
+	private long recentStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+	private int recentOffset;
+	private int recentLength;
+	private PartitionTokens recentTokens;
+
+	/**
+	 * JSTokenCache
+	 */
+	private JSTokenCache()
+	{
+		partitions = new LinkedHashMap<String, PartitionTokens>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PartitionTokens> eldest)
+			{
+				return size() > MAX_PARTITIONS;
+			}
+		};
+	}
+
+	private synchronized PartitionTokens get(String source)
+	{
+		return partitions.get(source);
+	}
+
+	private synchronized void put(String source, PartitionTokens tokens)
+	{
+		partitions.put(source, tokens);
+	}
+
+	private synchronized PartitionTokens getRecent(long stamp, ITypedRegion partition)
+	{
+		if (stamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP || stamp != recentStamp
+				|| partition.getOffset() != recentOffset || partition.getLength() != recentLength)
+		{
+			return null;
+		}
+
+		return recentTokens;
+	}
+
+	private synchronized void setRecent(long stamp, ITypedRegion partition, PartitionTokens tokens)
+	{
+		recentStamp = stamp;
+		recentOffset = partition.getOffset();
+		recentLength = partition.getLength();
+		recentTokens = tokens;
+	}
+}
@@ -0,0 +1,32 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the Eclipse Public License (EPL).
+ * Please see the license-epl.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.index.core;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import com.aptana.index.core.build.BuildContext;
+
+/**
+ * An indexing participant that can do part of its work for a file without touching the index. When a batch of files is
+ * indexed, {@link #prepare(BuildContext, IProgressMonitor)} is called concurrently for several files, each with its own
+ * participant instance, before {@link #index(BuildContext, Index, IProgressMonitor)} is called on the same instance for
+ * each file in turn. Index writes are therefore never concurrent.
+ */
+public interface IConcurrentIndexingParticipant extends IFileStoreIndexingParticipant
+{
+	/**
+	 * Does the work for the file that doesn't read or write any index, such as parsing it. This is called on a worker
+	 * thread and may not be called at all, in which case index() has to do all the work itself.
+	 * 
+	 * @param context
+	 * @param monitor
+	 * @throws CoreException
+	 */
+	void prepare(BuildContext context, IProgressMonitor monitor) throws CoreException;
+}
@@ -8,7 +8,10 @@
 package com.aptana.index.core;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.text.MessageFormat;
 import java.util.ArrayList;
@@ -26,6 +29,7 @@ import java.util.zip.CRC32;
 import org.eclipse.core.runtime.IPath;
 
 import com.aptana.core.logging.IdeLog;
+import com.aptana.core.util.IOUtil;
 import com.aptana.internal.index.core.DiskIndex;
 import com.aptana.internal.index.core.MemoryIndex;
 
@@ -304,6 +308,7 @@ public class Index
 	private DiskIndex diskIndex;
 	ReadWriteLock monitor;
 	private URI containerURI;
+	private volatile long modificationStamp;
 
 	/**
 	 * Index
@@ -352,6 +357,7 @@ public class Index
 		try
 		{
 			this.memoryIndex.addEntry(category, key, containerRelativeURI.toString());
+			this.modificationStamp++;
 		}
 		finally
 		{
@@ -497,6 +503,17 @@ public class Index
 		return containerURI;
 	}
 
+	/**
+	 * Returns a value that changes whenever entries are added to or removed from this index. Readers can compare stamps
+	 * to tell whether data they derived from the index is still current.
+	 * 
+	 * @return
+	 */
+	public long getModificationStamp()
+	{
+		return this.modificationStamp;
+	}
+
 	/**
 	 * hasChanged
 	 * 
@@ -626,6 +643,7 @@ public class Index
 		try
 		{
 			this.memoryIndex.remove(documentName);
+			this.modificationStamp++;
 		}
 		finally
 		{
@@ -645,6 +663,7 @@ public class Index
 		{
 			this.memoryIndex.removeCategories(categoryNames);
 			this.diskIndex = this.diskIndex.removeCategories(categoryNames, this.memoryIndex);
+			this.modificationStamp++;
 		}
 		catch (IOException e)
 		{
@@ -740,5 +759,84 @@ public class Index
 		this.memoryIndex = new MemoryIndex();
 		this.diskIndex = new DiskIndex(this.diskIndex.indexFile.getCanonicalPath());
 		this.diskIndex.initialize(false/* do not reuse the index file */);
+		this.modificationStamp++;
+	}
+
+	/**
+	 * Replace the contents of this index with those of a previously saved index file, for example one generated at
+	 * build time and shipped with a plugin. Any unsaved changes are discarded. Since the disk index only reads its
+	 * header up front, this is little more than a file copy. If the stream does not contain a valid index, this index
+	 * is left empty and an exception is thrown.
+	 * 
+	 * @param indexStream
+	 * @throws IOException
+	 */
+	public void load(InputStream indexStream) throws IOException
+	{
+		if (isTraceEnabled())
+		{
+			logTrace(MessageFormat.format("Loading index ''{0}''", this)); //$NON-NLS-1$
+		}
+
+		this.enterWrite();
+
+		try
+		{
+			File indexFile = this.diskIndex.indexFile;
+			File tempFile = new File(indexFile.getPath() + ".tmp"); //$NON-NLS-1$
+			boolean renamed = false;
+
+			try
+			{
+				OutputStream out = new FileOutputStream(tempFile, false);
+
+				try
+				{
+					IOUtil.pipe(indexStream, out);
+				}
+				finally
+				{
+					out.close();
+				}
+
+				if (indexFile.exists() && !indexFile.delete())
+				{
+					throw new IOException("Failed to delete index file " + indexFile); //$NON-NLS-1$
+				}
+				if (!tempFile.renameTo(indexFile))
+				{
+					throw new IOException("Failed to rename index file " + tempFile); //$NON-NLS-1$
+				}
+				renamed = true;
+			}
+			finally
+			{
+				// don't leave a partial copy behind when the load failed
+				if (!renamed)
+				{
+					tempFile.delete();
+				}
+			}
+
+			this.memoryIndex = new MemoryIndex();
+			this.diskIndex = new DiskIndex(indexFile.getCanonicalPath());
+
+			try
+			{
+				this.diskIndex.initialize(true);
+			}
+			catch (IOException e)
+			{
+				// not an index we understand, don't leave a broken file behind
+				this.diskIndex = new DiskIndex(indexFile.getCanonicalPath());
+				this.diskIndex.initialize(false);
+				throw e;
+			}
+		}
+		finally
+		{
+			this.modificationStamp++;
+			this.exitWrite();
+		}
 	}
 }
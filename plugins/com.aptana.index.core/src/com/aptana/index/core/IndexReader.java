@@ -21,6 +21,7 @@ import com.aptana.jetty.util.epl.ajax.JSON.Convertible;
 import com.aptana.core.IFilter;
 import com.aptana.core.logging.IdeLog;
 import com.aptana.core.util.CollectionsUtil;
+import com.aptana.core.util.StringUtil;
 
 /**
  * IndexReader
@@ -173,12 +174,12 @@ public abstract class IndexReader
 	{
 		if (item != null && element != null && 0 <= columnIndex)
 		{
-			String key = item.getWord();
-			String[] columns = this.getDelimiterPattern().split(key);
+			// only the JSON column is copied out of the key, the other columns are skipped over
+			String column = item.getColumn(columnIndex, this.getDelimiter());
 
-			if (columnIndex < columns.length)
+			if (!StringUtil.isEmpty(column))
 			{
-				this.populateElement(element, columns[columnIndex], item.getDocuments());
+				this.populateElement(element, column, item.getDocuments());
 			}
 		}
 
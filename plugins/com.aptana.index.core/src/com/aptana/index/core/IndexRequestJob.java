@@ -9,16 +9,25 @@ package com.aptana.index.core;
 
 import java.net.URI;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
 
 import com.aptana.core.logging.IdeLog;
@@ -26,10 +35,18 @@ import com.aptana.core.util.CollectionsUtil;
 import com.aptana.index.core.build.BuildContext;
 import com.aptana.index.core.filter.IIndexFilterParticipant;
 
-abstract class IndexRequestJob extends Job
+public abstract class IndexRequestJob extends Job
 {
 	public static final String INDEX_REQUEST_JOB_FAMILY = "index-request-job-family";
 
+	/**
+	 * The number of files prepared concurrently before they're indexed. This bounds the number of parsed files we hold
+	 * on to at once.
+	 */
+	private static final int FILES_PER_BATCH = 32;
+
+	private static ExecutorService prepareExecutor;
+
 	private URI containerURI;
 
 	/**
@@ -57,6 +74,17 @@ abstract class IndexRequestJob extends Job
 		this(MessageFormat.format(Messages.IndexRequestJob_Name, containerURI.toString()), containerURI);
 	}
 
+	/**
+	 * Returns the rule index request jobs run under. Jobs that run index requests themselves should use it too, so
+	 * they don't write to the indexes while another index request job does.
+	 * 
+	 * @return
+	 */
+	public static ISchedulingRule getIndexingRule()
+	{
+		return IndexManager.MUTEX_RULE;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.eclipse.core.runtime.jobs.Job#belongsTo(java.lang.Object)
@@ -153,7 +181,8 @@ abstract class IndexRequestJob extends Job
 
 	/**
 	 * Indexes a set of {@link IFileStore}s with the appropriate {@link IFileStoreIndexingParticipant}s that apply to
-	 * the content types (matching is done via filename/extension).
+	 * the content types (matching is done via filename/extension). Files are indexed in batches: the
+	 * {@link IConcurrentIndexingParticipant}s of a batch are prepared concurrently, then each file is indexed in turn.
 	 * 
 	 * @param index
 	 * @param fileStores
@@ -178,47 +207,204 @@ abstract class IndexRequestJob extends Job
 		SubMonitor sub = SubMonitor.convert(monitor, remaining * 11);
 		try
 		{
-			for (IFileStore file : fileStores)
+			List<IFileStore> batch = new ArrayList<IFileStore>(FILES_PER_BATCH);
+			Iterator<IFileStore> iterator = fileStores.iterator();
+
+			while (iterator.hasNext())
 			{
-				if (sub.isCanceled())
+				batch.add(iterator.next());
+
+				if (batch.size() == FILES_PER_BATCH || !iterator.hasNext())
 				{
-					throw new CoreException(Status.CANCEL_STATUS);
+					indexBatch(index, batch, sub.newChild(batch.size() * 11));
+
+					// Update remaining units
+					remaining -= batch.size();
+					sub.setWorkRemaining(remaining * 11);
+					batch.clear();
 				}
-				// First cleanup old index entries for file
-				index.remove(file.toURI());
-				sub.worked(1);
+			}
+		}
+		finally
+		{
+			sub.done();
+		}
+	}
+
+	/**
+	 * Prepares and then indexes a batch of files
+	 * 
+	 * @param index
+	 * @param files
+	 * @param monitor
+	 * @throws CoreException
+	 */
+	private void indexBatch(Index index, List<IFileStore> files, IProgressMonitor monitor) throws CoreException
+	{
+		SubMonitor sub = SubMonitor.convert(monitor, files.size() * 11);
+		List<BuildContext> contexts = new ArrayList<BuildContext>(files.size());
+		List<List<IFileStoreIndexingParticipant>> participants = new ArrayList<List<IFileStoreIndexingParticipant>>(
+				files.size());
+
+		for (IFileStore file : files)
+		{
+			contexts.add(new FileStoreBuildContext(file));
+			participants.add(getIndexParticipants(file));
+		}
+
+		prepareParticipants(contexts, participants, sub);
+
+		for (int i = 0; i < files.size(); i++)
+		{
+			if (sub.isCanceled())
+			{
+				throw new CoreException(Status.CANCEL_STATUS);
+			}
+			// First cleanup old index entries for file
+			index.remove(files.get(i).toURI());
+			sub.worked(1);
 
-				// Now run indexers on file
-				List<IFileStoreIndexingParticipant> indexers = getIndexParticipants(file);
-				if (!CollectionsUtil.isEmpty(indexers))
+			// Now run indexers on file
+			List<IFileStoreIndexingParticipant> indexers = participants.get(i);
+			if (!CollectionsUtil.isEmpty(indexers))
+			{
+				int work = 10 / indexers.size();
+				BuildContext context = contexts.get(i);
+				for (IFileStoreIndexingParticipant indexer : indexers)
+				{
+					if (sub.isCanceled())
+					{
+						throw new CoreException(Status.CANCEL_STATUS);
+					}
+					try
+					{
+						indexer.index(context, index, sub.newChild(work));
+					}
+					catch (CoreException e)
+					{
+						IdeLog.logError(IndexPlugin.getDefault(), e);
+					}
+				}
+			}
+
+			// let go of the file's AST and whatever the participants prepared for it
+			contexts.set(i, null);
+			participants.set(i, null);
+			sub.setWorkRemaining((files.size() - i - 1) * 11);
+		}
+	}
+
+	/**
+	 * Runs the prepare step of the concurrent participants of each file on our worker threads and waits for all of them
+	 * to finish. Nothing is done when there's less than two files to prepare, index() then does all the work.
+	 * 
+	 * @param contexts
+	 * @param participants
+	 * @param monitor
+	 */
+	private void prepareParticipants(List<BuildContext> contexts,
+			List<List<IFileStoreIndexingParticipant>> participants, final IProgressMonitor monitor)
+	{
+		List<Integer> toPrepare = new ArrayList<Integer>(contexts.size());
+
+		for (int i = 0; i < contexts.size(); i++)
+		{
+			for (IFileStoreIndexingParticipant participant : participants.get(i))
+			{
+				if (participant instanceof IConcurrentIndexingParticipant)
+				{
+					toPrepare.add(i);
+					break;
+				}
+			}
+		}
+
+		if (toPrepare.size() < 2)
+		{
+			return;
+		}
+
+		ExecutorService executor = getPrepareExecutor();
+		List<Future<?>> futures = new ArrayList<Future<?>>(toPrepare.size());
+
+		for (int i : toPrepare)
+		{
+			final BuildContext context = contexts.get(i);
+			final List<IFileStoreIndexingParticipant> indexers = participants.get(i);
+
+			futures.add(executor.submit(new Runnable()
+			{
+				public void run()
 				{
-					int work = 10 / indexers.size();
-					BuildContext context = new FileStoreBuildContext(file);
 					for (IFileStoreIndexingParticipant indexer : indexers)
 					{
-						if (sub.isCanceled())
+						if (monitor.isCanceled())
 						{
-							throw new CoreException(Status.CANCEL_STATUS);
+							return;
 						}
-						try
+						if (indexer instanceof IConcurrentIndexingParticipant)
 						{
-							indexer.index(context, index, sub.newChild(work));
-						}
-						catch (CoreException e)
-						{
-							IdeLog.logError(IndexPlugin.getDefault(), e);
+							try
+							{
+								((IConcurrentIndexingParticipant) indexer).prepare(context, new NullProgressMonitor());
+							}
+							catch (CoreException e)
+							{
+								// ignore, index() runs into the same problem and reports it
+							}
 						}
 					}
 				}
-				// Update remaining units
-				remaining--;
-				sub.setWorkRemaining(remaining * 11);
+			}));
+		}
+
+		// Wait for every task, even when interrupted, so no participant is still being prepared once we index
+		boolean interrupted = false;
+		for (Future<?> future : futures)
+		{
+			while (true)
+			{
+				try
+				{
+					future.get();
+					break;
+				}
+				catch (InterruptedException e)
+				{
+					interrupted = true;
+				}
+				catch (ExecutionException e)
+				{
+					IdeLog.logError(IndexPlugin.getDefault(), e.getCause());
+					break;
+				}
 			}
 		}
-		finally
+		if (interrupted)
 		{
-			sub.done();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static synchronized ExecutorService getPrepareExecutor()
+	{
+		if (prepareExecutor == null)
+		{
+			prepareExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new ThreadFactory()
+					{
+						private int count;
+
+						public synchronized Thread newThread(Runnable r)
+						{
+							Thread thread = new Thread(r, "Index Participant " + (++count)); //$NON-NLS-1$
+							thread.setDaemon(true);
+							thread.setPriority(Thread.MIN_PRIORITY);
+							return thread;
+						}
+					});
 		}
+		return prepareExecutor;
 	}
 
 	protected List<IFileStoreIndexingParticipant> getIndexParticipants(IFileStore file)
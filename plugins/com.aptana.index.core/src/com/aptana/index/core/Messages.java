@@ -12,7 +12,9 @@ public class Messages extends NLS
 	public static String IndexPlugin_IndexingFile;
 	public static String IndexRequestJob_Name;
 
+	public static String MetadataLoader_Error_Exporting_Index;
 	public static String MetadataLoader_Error_Loading_Metadata;
+	public static String MetadataLoader_Error_Loading_Prebuilt_Index;
 	
 	public static String MetadataObjectsReader_IOErrorOccurredProcessingDocumentationXML;
 
@@ -7,13 +7,16 @@
  */
 package com.aptana.index.core;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
@@ -30,12 +33,19 @@ import org.osgi.service.prefs.BackingStoreException;
 import com.aptana.core.logging.IdeLog;
 import com.aptana.core.util.CollectionsUtil;
 import com.aptana.core.util.EclipseUtil;
+import com.aptana.core.util.IOUtil;
 
 /**
  * MetadataLoader
  */
 public abstract class MetadataLoader<T extends MetadataReader> extends Job
 {
+	/**
+	 * The bundle directory containing indexes generated from metadata at build time
+	 */
+	private static final String PREBUILT_INDEX_DIRECTORY = "/metadata/prebuilt"; //$NON-NLS-1$
+	private static final String PREBUILT_INDEX_EXTENSION = ".index"; //$NON-NLS-1$
+
 	/**
 	 * MetadataLoader
 	 * 
@@ -157,12 +167,84 @@ public abstract class MetadataLoader<T extends MetadataReader> extends Job
 	}
 
 	/**
-	 * Rebuild the current language's metadata index. Note that the old index is not automatically removed. This is
-	 * typically done in writeIndex
+	 * Replace the contents of the language's metadata index with the index generated for the current metadata at build
+	 * time. Return false if no such index ships with the bundle or if it could not be loaded
+	 * 
+	 * @return
+	 */
+	private boolean loadPrebuiltIndex()
+	{
+		IPath path = this.getPrebuiltIndexPath();
+		Index index = this.getIndex();
+
+		if (path == null || index == null)
+		{
+			return false;
+		}
+
+		URL url = FileLocator.find(this.getBundle(), path, null);
+
+		if (url == null)
+		{
+			return false;
+		}
+
+		InputStream stream = null;
+
+		try
+		{
+			stream = url.openStream();
+
+			index.load(stream);
+
+			return !this.indexCorrupt();
+		}
+		catch (IOException e)
+		{
+			IdeLog.logWarning(IndexPlugin.getDefault(),
+					MessageFormat.format(Messages.MetadataLoader_Error_Loading_Prebuilt_Index, path), e,
+					IDebugScopes.INDEXER);
+
+			return false;
+		}
+		finally
+		{
+			if (stream != null)
+			{
+				try
+				{
+					stream.close();
+				}
+				catch (IOException e)
+				{
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rebuild the current language's metadata index. If an index was generated for the current metadata at build time,
+	 * its contents are used as is. Otherwise the metadata files are parsed and written to the index. Note that the old
+	 * index is not automatically removed in that case. This is typically done in writeIndex
 	 * 
 	 * @param monitor
 	 */
 	protected void rebuildMetadataIndex(IProgressMonitor monitor)
+	{
+		if (this.loadPrebuiltIndex())
+		{
+			return;
+		}
+
+		this.rebuildMetadataIndexFromMetadata(monitor);
+	}
+
+	/**
+	 * Parse all metadata files and write their contents to the current language's metadata index
+	 * 
+	 * @param monitor
+	 */
+	private void rebuildMetadataIndexFromMetadata(IProgressMonitor monitor)
 	{
 		T reader = this.createMetadataReader();
 
@@ -171,6 +253,66 @@ public abstract class MetadataLoader<T extends MetadataReader> extends Job
 		this.writeIndex(reader);
 	}
 
+	/**
+	 * Build the current language's metadata index from the metadata files and save a copy of it below the specified
+	 * directory, at the location returned by getPrebuiltIndexPath. This is meant to be run at build time so the
+	 * resulting file can be shipped with the bundle and loaded instead of parsing the metadata at runtime
+	 * 
+	 * @param directory
+	 *            The root directory of the bundle's output
+	 * @param monitor
+	 * @return
+	 */
+	public IStatus exportIndex(File directory, IProgressMonitor monitor)
+	{
+		IPath path = this.getPrebuiltIndexPath();
+
+		if (path == null)
+		{
+			return Status.OK_STATUS;
+		}
+
+		this.rebuildMetadataIndexFromMetadata(monitor);
+
+		Index index = this.getIndex();
+		File indexFile = (index != null) ? index.getIndexFile() : null;
+
+		if (indexFile == null || !indexFile.exists())
+		{
+			return new Status(IStatus.ERROR, IndexPlugin.PLUGIN_ID, MessageFormat.format(
+					Messages.MetadataLoader_Error_Exporting_Index, path));
+		}
+
+		File target = new File(directory, path.makeRelative().toOSString());
+
+		try
+		{
+			target.getParentFile().mkdirs();
+
+			IOUtil.copyFile(indexFile, target);
+		}
+		catch (IOException e)
+		{
+			return new Status(IStatus.ERROR, IndexPlugin.PLUGIN_ID, MessageFormat.format(
+					Messages.MetadataLoader_Error_Exporting_Index, path), e);
+		}
+
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Return the bundle-relative path of the index generated from this loader's metadata at build time, or null if no
+	 * such index should be used. The index version is part of the default file name so an index generated for older
+	 * metadata is never loaded once the version changes
+	 * 
+	 * @return
+	 */
+	protected IPath getPrebuiltIndexPath()
+	{
+		return new Path(PREBUILT_INDEX_DIRECTORY).append(this.getPluginId() + '_' + this.getIndexVersion()
+				+ PREBUILT_INDEX_EXTENSION);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
@@ -48,6 +48,40 @@ public class QueryResult
 		return word;
 	}
 
+	/**
+	 * Returns the column at the specified index of the word, where columns are separated by the given delimiter. The
+	 * column is located with indexOf instead of splitting the whole word, so only the requested column is copied.
+	 * 
+	 * @param index
+	 * @param delimiter
+	 * @return the column or null if the word doesn't have that many columns
+	 */
+	public String getColumn(int index, String delimiter)
+	{
+		if (word == null || index < 0)
+		{
+			return null;
+		}
+
+		int start = 0;
+
+		for (int i = 0; i < index; i++)
+		{
+			int end = word.indexOf(delimiter, start);
+
+			if (end == -1)
+			{
+				return null;
+			}
+
+			start = end + delimiter.length();
+		}
+
+		int end = word.indexOf(delimiter, start);
+
+		return (end == -1) ? word.substring(start) : word.substring(start, end);
+	}
+
 	public Set<String> getDocuments()
 	{
 		return Collections.unmodifiableSet(documentNames);
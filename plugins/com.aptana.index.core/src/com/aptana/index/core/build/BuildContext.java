@@ -227,19 +227,33 @@ public class BuildContext
 
 	public void removeProblems(String markerType)
 	{
-		this.problems.remove(markerType);
+		synchronized (this.problems)
+		{
+			this.problems.remove(markerType);
+		}
 	}
 
 	public void putProblems(String markerType, Collection<IProblem> problems)
 	{
 		// TODO Maybe just add problems?
-		this.problems.put(markerType, problems);
+		synchronized (this.problems)
+		{
+			this.problems.put(markerType, problems);
+		}
 	}
 
+	/**
+	 * Returns a snapshot of the problems reported so far. Participants may be run concurrently on the same context
+	 * during reconciles, so this is safe to call while others are still putting problems.
+	 * 
+	 * @return
+	 */
 	public Map<String, Collection<IProblem>> getProblems()
 	{
-		// TODO Handle possible concurrent modification exceptions
-		return Collections.unmodifiableMap(problems);
+		synchronized (this.problems)
+		{
+			return Collections.unmodifiableMap(new HashMap<String, Collection<IProblem>>(problems));
+		}
 	}
 
 	public Collection<IParseError> getParseErrors()
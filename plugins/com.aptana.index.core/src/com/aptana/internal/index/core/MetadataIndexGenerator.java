@@ -0,0 +1,128 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the Eclipse Public License (EPL).
+ * Please see the license-epl.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.internal.index.core;
+
+import java.io.File;
+import java.text.MessageFormat;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.osgi.framework.Bundle;
+
+import com.aptana.core.logging.IdeLog;
+import com.aptana.index.core.IndexPlugin;
+import com.aptana.index.core.MetadataLoader;
+
+/**
+ * Headless application run at build time to generate the metadata indexes shipped with our bundles. Arguments are an
+ * output directory followed by the loaders to run, each given as "bundleId/loaderClassName":
+ * 
+ * <pre>
+ * -application com.aptana.index.core.metadataIndexGenerator -output &lt;dir&gt; com.aptana.js.core/com.aptana.js.internal.core.index.JSMetadataLoader ...
+ * </pre>
+ * 
+ * Each loader's index is written below &lt;dir&gt;/&lt;bundleId&gt; at the path the loader looks for it at runtime, so
+ * the contents of that directory can be copied over the bundle before it is packaged.
+ */
+public class MetadataIndexGenerator implements IApplication
+{
+	private static final String OUTPUT_ARGUMENT = "-output"; //$NON-NLS-1$
+	private static final Integer EXIT_ERROR = Integer.valueOf(1);
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.eclipse.equinox.app.IApplication#start(org.eclipse.equinox.app.IApplicationContext)
+	 */
+	public Object start(IApplicationContext context) throws Exception
+	{
+		Object args = context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		String[] arguments = (args instanceof String[]) ? (String[]) args : new String[0];
+		File output = null;
+		Object result = EXIT_OK;
+
+		for (int i = 0; i < arguments.length; i++)
+		{
+			String argument = arguments[i];
+
+			if (OUTPUT_ARGUMENT.equals(argument) && i + 1 < arguments.length)
+			{
+				output = new File(arguments[++i]);
+			}
+			else if (output == null)
+			{
+				IdeLog.logError(IndexPlugin.getDefault(), "No output directory specified before " + argument); //$NON-NLS-1$
+				return EXIT_ERROR;
+			}
+			else if (!exportIndex(argument, output))
+			{
+				result = EXIT_ERROR;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Run the loader specified as "bundleId/loaderClassName" and write its index below the bundle's output directory
+	 * 
+	 * @param loaderSpec
+	 * @param output
+	 * @return
+	 */
+	private boolean exportIndex(String loaderSpec, File output)
+	{
+		int separator = loaderSpec.indexOf('/');
+
+		if (separator == -1)
+		{
+			IdeLog.logError(IndexPlugin.getDefault(), "Invalid metadata loader " + loaderSpec); //$NON-NLS-1$
+			return false;
+		}
+
+		String bundleId = loaderSpec.substring(0, separator);
+		String className = loaderSpec.substring(separator + 1);
+		Bundle bundle = Platform.getBundle(bundleId);
+
+		if (bundle == null)
+		{
+			IdeLog.logError(IndexPlugin.getDefault(), "Unable to find bundle " + bundleId); //$NON-NLS-1$
+			return false;
+		}
+
+		try
+		{
+			MetadataLoader<?> loader = (MetadataLoader<?>) bundle.loadClass(className).newInstance();
+			IStatus status = loader.exportIndex(new File(output, bundleId), new NullProgressMonitor());
+
+			if (!status.isOK())
+			{
+				IdeLog.log(IndexPlugin.getDefault(), status);
+			}
+
+			return status.getSeverity() != IStatus.ERROR;
+		}
+		catch (Exception e)
+		{
+			IdeLog.logError(IndexPlugin.getDefault(),
+					MessageFormat.format("Unable to export metadata index of {0}", loaderSpec), e); //$NON-NLS-1$
+			return false;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.eclipse.equinox.app.IApplication#stop()
+	 */
+	public void stop()
+	{
+		// nothing to do
+	}
+}
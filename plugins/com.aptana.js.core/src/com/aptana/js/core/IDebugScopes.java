@@ -25,4 +25,9 @@ public interface IDebugScopes
 	 * A debug scope used to display the stages of JS indexing
 	 */
 	String INDEXING_STEPS = JSCorePlugin.PLUGIN_ID + "/debug/show_indexing_steps"; //$NON-NLS-1$
+
+	/**
+	 * A debug scope used to display how much of their budget type inference requests used
+	 */
+	String INFERENCE_BUDGET = JSCorePlugin.PLUGIN_ID + "/debug/show_inference_budget"; //$NON-NLS-1$
 }
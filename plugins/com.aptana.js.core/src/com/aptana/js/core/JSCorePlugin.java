@@ -8,6 +8,8 @@
 package com.aptana.js.core;
 
 import org.eclipse.core.net.proxy.IProxyService;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Plugin;
 import org.osgi.framework.BundleContext;
 import org.osgi.util.tracker.ServiceTracker;
@@ -18,6 +20,7 @@ import com.aptana.js.core.node.INodeJSService;
 import com.aptana.js.core.node.INodePackageManager;
 import com.aptana.js.internal.core.index.JSMetadataLoader;
 import com.aptana.js.internal.core.inferencing.AliasResolverFactory;
+import com.aptana.js.internal.core.inferencing.ModuleResolutionCache;
 import com.aptana.js.internal.core.node.NodeJSService;
 
 /**
@@ -54,6 +57,10 @@ public class JSCorePlugin extends Plugin
 		// Load JS Metadata in background
 		new JSMetadataLoader().schedule();
 
+		// Forget cached require() resolutions when files come and go
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(ModuleResolutionCache.getInstance(),
+				IResourceChangeEvent.POST_CHANGE);
+
 		// Hook up tracker to proxy service
 		proxyTracker = new ServiceTracker(getBundle().getBundleContext(), IProxyService.class.getName(), null);
 		proxyTracker.open();
@@ -63,6 +70,8 @@ public class JSCorePlugin extends Plugin
 	{
 		try
 		{
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(ModuleResolutionCache.getInstance());
+
 			if (proxyTracker != null)
 			{
 				proxyTracker.close();
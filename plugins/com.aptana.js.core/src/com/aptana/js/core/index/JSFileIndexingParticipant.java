@@ -26,6 +26,7 @@ import com.aptana.core.logging.IdeLog;
 import com.aptana.core.util.ArrayUtil;
 import com.aptana.core.util.CollectionsUtil;
 import com.aptana.index.core.AbstractFileIndexingParticipant;
+import com.aptana.index.core.IConcurrentIndexingParticipant;
 import com.aptana.index.core.Index;
 import com.aptana.index.core.build.BuildContext;
 import com.aptana.js.core.IDebugScopes;
@@ -33,6 +34,7 @@ import com.aptana.js.core.JSCorePlugin;
 import com.aptana.js.core.JSTypeConstants;
 import com.aptana.js.core.inferencing.JSPropertyCollection;
 import com.aptana.js.core.inferencing.JSScope;
+import com.aptana.js.core.inferencing.JSSymbolTableCache;
 import com.aptana.js.core.inferencing.JSTypeUtil;
 import com.aptana.js.core.model.FunctionElement;
 import com.aptana.js.core.model.PropertyElement;
@@ -51,7 +53,8 @@ import com.aptana.parsing.ast.IParseNode;
 import com.aptana.parsing.ast.IParseRootNode;
 import com.aptana.parsing.xpath.ParseNodeXPath;
 
-public class JSFileIndexingParticipant extends AbstractFileIndexingParticipant
+public class JSFileIndexingParticipant extends AbstractFileIndexingParticipant implements
+		IConcurrentIndexingParticipant
 {
 	private static XPath LAMBDAS_IN_SCOPE;
 
@@ -59,6 +62,13 @@ public class JSFileIndexingParticipant extends AbstractFileIndexingParticipant
 
 	private JSIndexQueryHelper queryHelper;
 
+	/**
+	 * The AST and symbols collected from it by {@link #prepare(BuildContext, IProgressMonitor)}, used up by the next
+	 * call to index()
+	 */
+	private IParseNode preparedAST;
+	private JSScope preparedGlobals;
+
 	static
 	{
 		try
@@ -96,13 +106,28 @@ public class JSFileIndexingParticipant extends AbstractFileIndexingParticipant
 		return null;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.aptana.index.core.IConcurrentIndexingParticipant#prepare(com.aptana.index.core.build.BuildContext,
+	 * org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	public void prepare(BuildContext context, IProgressMonitor monitor) throws CoreException
+	{
+		// parsing and symbol collection don't need the index. Inference does, so it waits for index()
+		IParseNode ast = context.getAST();
+
+		preparedGlobals = getGlobals(ast);
+		preparedAST = ast;
+	}
+
 	public void index(BuildContext context, Index index, IProgressMonitor monitor) throws CoreException
 	{
 		SubMonitor sub = SubMonitor.convert(monitor, 100);
 		try
 		{
 			sub.subTask(getIndexingMessage(index, context.getURI()));
-			processParseResults(context, index, context.getAST(), sub.newChild(20));
+			IParseNode ast = (preparedAST != null) ? preparedAST : context.getAST();
+			processParseResults(context, index, ast, sub.newChild(20));
 		}
 		catch (CoreException ce)
 		{
@@ -197,7 +222,10 @@ public class JSFileIndexingParticipant extends AbstractFileIndexingParticipant
 			IdeLog.logTrace(JSCorePlugin.getDefault(), message, IDebugScopes.INDEXING_STEPS);
 		}
 
-		JSScope globals = getGlobals(ast);
+		JSScope globals = (ast != null && ast == preparedAST) ? preparedGlobals : getGlobals(ast);
+		preparedAST = null;
+		preparedGlobals = null;
+
 		try
 		{
 			JSSymbolTypeInferrer symbolInferrer = new JSSymbolTypeInferrer(globals, index, location, queryHelper);
@@ -320,6 +348,13 @@ public class JSFileIndexingParticipant extends AbstractFileIndexingParticipant
 			sub.setWorkRemaining(20);
 			// process module API exports
 			processModule(context, index, ast, location, globals, symbolInferrer, sub.newChild(20));
+
+			// let content assist, hover and hyperlinks reuse the types we just inferred while neither the file nor the
+			// indices have changed. The stamps are taken after our own writes, which came from this very inference
+			if (ast instanceof JSParseRootNode)
+			{
+				JSSymbolTableCache.getInstance().put((JSParseRootNode) ast, location, globals, queryHelper);
+			}
 		}
 		catch (OperationCanceledException oce)
 		{
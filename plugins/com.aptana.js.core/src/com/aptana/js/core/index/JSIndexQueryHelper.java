@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -139,6 +140,24 @@ public class JSIndexQueryHelper
 		return BuildPathManager.getInstance();
 	}
 
+	/**
+	 * Returns a string identifying the indices we query along with their current modification stamps. It changes
+	 * whenever one of those indices gets modified, so results derived from our queries can be cached under it.
+	 * 
+	 * @return
+	 */
+	public String getIndexStamp()
+	{
+		StringBuilder builder = new StringBuilder();
+
+		for (Index index : indices)
+		{
+			builder.append(index.getRoot()).append('@').append(index.getModificationStamp()).append(';');
+		}
+
+		return builder.toString();
+	}
+
 	/**
 	 * Attempts to get a specific member off the global type. Attempts to determine the correct global type to query
 	 * based on the project and filename passed in (Global or Window)
@@ -222,6 +241,29 @@ public class JSIndexQueryHelper
 	 * @return
 	 */
 	public List<String> getTypeAncestorNames(String typeName)
+	{
+		JSTypeHierarchyCache cache = JSTypeHierarchyCache.getCache(indices);
+		List<String> cached = cache.getAncestorNames(typeName);
+
+		if (cached == null)
+		{
+			long[] stamps = cache.getStamps();
+
+			cached = resolveTypeAncestorNames(typeName);
+			cache.putAncestorNames(typeName, cached, stamps);
+		}
+
+		// callers are free to modify the list
+		return new ArrayList<String>(cached);
+	}
+
+	/**
+	 * Walks the type hierarchy breadth-first, querying the indices for each ancestor
+	 * 
+	 * @param typeName
+	 * @return
+	 */
+	private List<String> resolveTypeAncestorNames(String typeName)
 	{
 		// Using linked hash set to preserve the order items were added to set
 		Set<String> types = new LinkedHashSet<String>();
@@ -257,7 +299,7 @@ public class JSIndexQueryHelper
 			}
 		}
 
-		return new ArrayList<String>(types);
+		return Collections.unmodifiableList(new ArrayList<String>(types));
 	}
 
 	/**
@@ -302,6 +344,27 @@ public class JSIndexQueryHelper
 		return properties;
 	}
 
+	/**
+	 * Gets the names of all the functions and properties of the given types. This is much cheaper than
+	 * {@link #getTypeMembers(List)} since none of the members are decoded.
+	 * 
+	 * @param typeNames
+	 * @return
+	 */
+	public Set<String> getTypeMemberNames(List<String> typeNames)
+	{
+		if (CollectionsUtil.isEmpty(typeNames))
+		{
+			return Collections.emptySet();
+		}
+		Set<String> names = new HashSet<String>();
+		for (Index index : indices)
+		{
+			names.addAll(_reader.getMemberNames(index, typeNames));
+		}
+		return names;
+	}
+
 	/**
 	 * Returns the properties on a given type.
 	 * 
@@ -457,6 +520,38 @@ public class JSIndexQueryHelper
 	 * @return null if no such method found, otherwise first instance we find.
 	 */
 	public FunctionElement findFunctionInHierarchy(String typeName, String methodName)
+	{
+		JSTypeHierarchyCache cache = JSTypeHierarchyCache.getCache(indices);
+		String owningType = cache.getFunctionOwner(typeName, methodName);
+
+		if (owningType == null)
+		{
+			long[] stamps = cache.getStamps();
+
+			owningType = resolveFunctionOwner(typeName, methodName);
+			cache.putFunctionOwner(typeName, methodName, owningType, stamps);
+		}
+
+		if (!JSTypeHierarchyCache.NO_OWNER.equals(owningType))
+		{
+			Collection<FunctionElement> functions = getFunctions(owningType, methodName);
+			if (!CollectionsUtil.isEmpty(functions))
+			{
+				return functions.iterator().next();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the first type in the hierarchy of the specified type declaring the method, or
+	 * {@link JSTypeHierarchyCache#NO_OWNER}
+	 * 
+	 * @param typeName
+	 * @param methodName
+	 * @return
+	 */
+	private String resolveFunctionOwner(String typeName, String methodName)
 	{
 		List<String> types = getTypeAncestorNames(typeName);
 		types.add(0, typeName);
@@ -467,10 +562,10 @@ public class JSIndexQueryHelper
 			Collection<FunctionElement> functions = getFunctions(type, methodName);
 			if (!CollectionsUtil.isEmpty(functions))
 			{
-				return functions.iterator().next();
+				return type;
 			}
 		}
-		return null;
+		return JSTypeHierarchyCache.NO_OWNER;
 	}
 
 	/**
@@ -0,0 +1,198 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.js.core.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.aptana.index.core.Index;
+
+/**
+ * Memoizes type hierarchy resolution for one ordered list of indices: the ancestor chain of a type and which type in a
+ * hierarchy declares a given function. The results depend on every index in the list, so the cache remembers the
+ * modification stamps of the indices it was filled from and empties itself as soon as any of them changes.
+ */
+class JSTypeHierarchyCache
+{
+	/**
+	 * Value recorded when no type in a hierarchy declares a function
+	 */
+	static final String NO_OWNER = ""; //$NON-NLS-1$
+
+	/**
+	 * Projects tend to share the same few lists of indices, only keep the most recently used ones around
+	 */
+	private static final int MAX_CACHES = 16;
+
+	private static final Map<List<Index>, JSTypeHierarchyCache> CACHES = new LinkedHashMap<List<Index>, JSTypeHierarchyCache>(
+			MAX_CACHES, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<Index>, JSTypeHierarchyCache> eldest)
+		{
+			return size() > MAX_CACHES;
+		}
+	};
+
+	/**
+	 * Returns the cache for the specified list of indices
+	 * 
+	 * @param indices
+	 * @return
+	 */
+	static JSTypeHierarchyCache getCache(List<Index> indices)
+	{
+		synchronized (CACHES)
+		{
+			JSTypeHierarchyCache cache = CACHES.get(indices);
+
+			if (cache == null)
+			{
+				List<Index> key = new ArrayList<Index>(indices);
+
+				cache = new JSTypeHierarchyCache(key);
+				CACHES.put(key, cache);
+			}
+
+			return cache;
+		}
+	}
+
+	private final List<Index> indices;
+	private long[] stamps;
+	private final Map<String, List<String>> ancestors;
+	private final Map<String, Map<String, String>> functionOwners;
+
+	/**
+	 * JSTypeHierarchyCache
+	 * 
+	 * @param indices
+	 */
+	private JSTypeHierarchyCache(List<Index> indices)
+	{
+		this.indices = indices;
+		this.stamps = new long[0];
+		this.ancestors = new HashMap<String, List<String>>();
+		this.functionOwners = new HashMap<String, Map<String, String>>();
+	}
+
+	/**
+	 * Returns the current modification stamps of our indices. Callers grab these before resolving something so results
+	 * computed from data that changed in the meantime don't get cached.
+	 * 
+	 * @return
+	 */
+	long[] getStamps()
+	{
+		long[] result = new long[indices.size()];
+
+		for (int i = 0; i < result.length; i++)
+		{
+			result[i] = indices.get(i).getModificationStamp();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the cached ancestor names of the specified type or null if they haven't been resolved since the indices
+	 * last changed
+	 * 
+	 * @param typeName
+	 * @return
+	 */
+	synchronized List<String> getAncestorNames(String typeName)
+	{
+		refresh();
+
+		return ancestors.get(typeName);
+	}
+
+	/**
+	 * Caches the ancestor names of the specified type
+	 * 
+	 * @param typeName
+	 * @param ancestorNames
+	 * @param resolvedStamps
+	 *            the stamps grabbed before resolving the ancestors
+	 */
+	synchronized void putAncestorNames(String typeName, List<String> ancestorNames, long[] resolvedStamps)
+	{
+		refresh();
+
+		if (Arrays.equals(stamps, resolvedStamps))
+		{
+			ancestors.put(typeName, ancestorNames);
+		}
+	}
+
+	/**
+	 * Returns the name of the type in the specified type's hierarchy that declares the function, {@link #NO_OWNER} if
+	 * none does, or null if this hasn't been resolved since the indices last changed
+	 * 
+	 * @param typeName
+	 * @param functionName
+	 * @return
+	 */
+	synchronized String getFunctionOwner(String typeName, String functionName)
+	{
+		refresh();
+
+		Map<String, String> owners = functionOwners.get(typeName);
+
+		return (owners != null) ? owners.get(functionName) : null;
+	}
+
+	/**
+	 * Caches the name of the type in the specified type's hierarchy that declares the function
+	 * 
+	 * @param typeName
+	 * @param functionName
+	 * @param owningType
+	 * @param resolvedStamps
+	 *            the stamps grabbed before resolving the owner
+	 */
+	synchronized void putFunctionOwner(String typeName, String functionName, String owningType, long[] resolvedStamps)
+	{
+		refresh();
+
+		if (Arrays.equals(stamps, resolvedStamps))
+		{
+			Map<String, String> owners = functionOwners.get(typeName);
+
+			if (owners == null)
+			{
+				owners = new HashMap<String, String>();
+				functionOwners.put(typeName, owners);
+			}
+
+			owners.put(functionName, owningType);
+		}
+	}
+
+	/**
+	 * Empties the cache if any of the indices changed since it was filled
+	 */
+	private void refresh()
+	{
+		long[] latest = getStamps();
+
+		if (!Arrays.equals(stamps, latest))
+		{
+			ancestors.clear();
+			functionOwners.clear();
+			stamps = latest;
+		}
+	}
+}
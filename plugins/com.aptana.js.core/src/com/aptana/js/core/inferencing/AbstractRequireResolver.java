@@ -57,30 +57,15 @@ public abstract class AbstractRequireResolver implements IRequireResolver
 
 	protected IPath loadAsDirectory(IPath x, String... extensions)
 	{
-		File packageJSON = x.append(PACKAGE_JSON).toFile();
-		if (packageJSON.isFile())
+		String mainFile = getPackageMainFile(x);
+		if (!StringUtil.isEmpty(mainFile))
 		{
-			try
+			// package.json may not have a 'main' property set
+			IPath m = x.append(mainFile);
+			IPath result = loadAsFile(m);
+			if (result != null)
 			{
-				IFileStore fileStore = EFS.getStore(packageJSON.toURI());
-				String rawJSON = IOUtil.read(fileStore.openInputStream(EFS.NONE, new NullProgressMonitor()));
-				@SuppressWarnings("rawtypes")
-				Map json = (Map) JSON.parse(rawJSON);
-				String mainFile = (String) json.get(MAIN);
-				if (!StringUtil.isEmpty(mainFile))
-				{
-					// package.json may not have a 'main' property set
-					IPath m = x.append(mainFile);
-					IPath result = loadAsFile(m);
-					if (result != null)
-					{
-						return result;
-					}
-				}
-			}
-			catch (CoreException e)
-			{
-				IdeLog.log(JSCorePlugin.getDefault(), e.getStatus());
+				return result;
 			}
 		}
 
@@ -100,4 +85,33 @@ public abstract class AbstractRequireResolver implements IRequireResolver
 		return null;
 	}
 
+	/**
+	 * Returns the main file declared by the package.json in the specified directory, or null if there's no package.json
+	 * or it doesn't declare one
+	 * 
+	 * @param directory
+	 * @return
+	 */
+	protected String getPackageMainFile(IPath directory)
+	{
+		File packageJSON = directory.append(PACKAGE_JSON).toFile();
+		if (!packageJSON.isFile())
+		{
+			return null;
+		}
+
+		try
+		{
+			IFileStore fileStore = EFS.getStore(packageJSON.toURI());
+			String rawJSON = IOUtil.read(fileStore.openInputStream(EFS.NONE, new NullProgressMonitor()));
+			@SuppressWarnings("rawtypes")
+			Map json = (Map) JSON.parse(rawJSON);
+			return (String) json.get(MAIN);
+		}
+		catch (CoreException e)
+		{
+			IdeLog.log(JSCorePlugin.getDefault(), e.getStatus());
+			return null;
+		}
+	}
 }
@@ -0,0 +1,230 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.js.core.inferencing;
+
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aptana.core.logging.IdeLog;
+import com.aptana.js.core.IDebugScopes;
+import com.aptana.js.core.JSCorePlugin;
+
+/**
+ * Limits the work a single type inference request may do: the number of nodes visited, the number of index queries
+ * (including require() resolutions) and the elapsed time. Once any limit is hit, inferrers sharing the budget stop
+ * descending and return the types found so far, and nothing they infer afterwards is cached or written to the index.
+ * Budgets aren't thread-safe, each request should create its own and call {@link #finish()} when done so the totals
+ * reported by {@link #getExhaustedCount(Limit)} stay accurate.
+ */
+public class JSInferenceBudget
+{
+	/**
+	 * The limits a budget enforces
+	 */
+	public enum Limit
+	{
+		NODE_VISITS, INDEX_QUERIES, TIME
+	}
+
+	/**
+	 * Default limits used for interactive requests like content assist, hover and hyperlinks
+	 */
+	public static final int DEFAULT_MAX_NODE_VISITS = 5000;
+	public static final int DEFAULT_MAX_INDEX_QUERIES = 500;
+	public static final long DEFAULT_MAX_TIME = 500;
+
+	private static final AtomicLong REQUESTS = new AtomicLong();
+	private static final AtomicLong[] EXHAUSTED = new AtomicLong[Limit.values().length];
+
+	static
+	{
+		for (int i = 0; i < EXHAUSTED.length; i++)
+		{
+			EXHAUSTED[i] = new AtomicLong();
+		}
+	}
+
+	/**
+	 * Return a budget with the default limits for interactive requests
+	 * 
+	 * @return
+	 */
+	public static JSInferenceBudget createDefault()
+	{
+		return new JSInferenceBudget(DEFAULT_MAX_NODE_VISITS, DEFAULT_MAX_INDEX_QUERIES, DEFAULT_MAX_TIME);
+	}
+
+	/**
+	 * Return the number of budgeted requests that have finished so far
+	 * 
+	 * @return
+	 */
+	public static long getRequestCount()
+	{
+		return REQUESTS.get();
+	}
+
+	/**
+	 * Return the number of finished requests that ran out of the specified limit
+	 * 
+	 * @param limit
+	 * @return
+	 */
+	public static long getExhaustedCount(Limit limit)
+	{
+		return EXHAUSTED[limit.ordinal()].get();
+	}
+
+	private final int maxNodeVisits;
+	private final int maxIndexQueries;
+	private final long deadline;
+	private final long startTime;
+
+	private int nodeVisits;
+	private int indexQueries;
+	private Limit exhaustedLimit;
+
+	/**
+	 * JSInferenceBudget
+	 * 
+	 * @param maxNodeVisits
+	 * @param maxIndexQueries
+	 * @param maxTime
+	 *            The maximum time to spend, in milliseconds
+	 */
+	public JSInferenceBudget(int maxNodeVisits, int maxIndexQueries, long maxTime)
+	{
+		this.maxNodeVisits = maxNodeVisits;
+		this.maxIndexQueries = maxIndexQueries;
+		this.startTime = System.nanoTime();
+		this.deadline = startTime + maxTime * 1000000L;
+	}
+
+	/**
+	 * Record that the request is done, adding it to the totals and tracing how much of the budget it used
+	 */
+	public void finish()
+	{
+		REQUESTS.incrementAndGet();
+
+		if (exhaustedLimit != null)
+		{
+			EXHAUSTED[exhaustedLimit.ordinal()].incrementAndGet();
+		}
+
+		if (IdeLog.isTraceEnabled(JSCorePlugin.getDefault(), IDebugScopes.INFERENCE_BUDGET))
+		{
+			// @formatter:off
+			String message = MessageFormat.format(
+				"Inferred types visiting {0} nodes with {1} index queries in {2} ms, exhausted limit: {3}", //$NON-NLS-1$
+				nodeVisits,
+				indexQueries,
+				getElapsedTime(),
+				exhaustedLimit
+			);
+			// @formatter:on
+
+			IdeLog.logTrace(JSCorePlugin.getDefault(), message, IDebugScopes.INFERENCE_BUDGET);
+		}
+	}
+
+	/**
+	 * Return the time spent since this budget was created, in milliseconds
+	 * 
+	 * @return
+	 */
+	public long getElapsedTime()
+	{
+		return (System.nanoTime() - startTime) / 1000000L;
+	}
+
+	/**
+	 * Return the limit that was hit or null if there's budget left
+	 * 
+	 * @return
+	 */
+	public Limit getExhaustedLimit()
+	{
+		return exhaustedLimit;
+	}
+
+	/**
+	 * Return the number of index queries charged so far
+	 * 
+	 * @return
+	 */
+	public int getIndexQueries()
+	{
+		return indexQueries;
+	}
+
+	/**
+	 * Return the number of node visits charged so far
+	 * 
+	 * @return
+	 */
+	public int getNodeVisits()
+	{
+		return nodeVisits;
+	}
+
+	/**
+	 * Determine if any of the limits has been hit
+	 * 
+	 * @return
+	 */
+	public boolean isExhausted()
+	{
+		if (exhaustedLimit == null && System.nanoTime() - deadline > 0)
+		{
+			exhaustedLimit = Limit.TIME;
+		}
+
+		return exhaustedLimit != null;
+	}
+
+	/**
+	 * Charge an index query against the budget
+	 * 
+	 * @return false if the budget is used up and the query should be skipped
+	 */
+	public boolean queryIndex()
+	{
+		if (isExhausted())
+		{
+			return false;
+		}
+		if (++indexQueries > maxIndexQueries)
+		{
+			exhaustedLimit = Limit.INDEX_QUERIES;
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Charge a node visit against the budget
+	 * 
+	 * @return false if the budget is used up and the node should be skipped
+	 */
+	public boolean visitNode()
+	{
+		if (isExhausted())
+		{
+			return false;
+		}
+		if (++nodeVisits > maxNodeVisits)
+		{
+			exhaustedLimit = Limit.NODE_VISITS;
+			return false;
+		}
+
+		return true;
+	}
+}
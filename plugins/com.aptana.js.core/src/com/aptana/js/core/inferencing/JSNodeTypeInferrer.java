@@ -84,6 +84,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	 * units!)
 	 */
 	private SubMonitor _monitor;
+	/**
+	 * Limits the work done by this inferrer and the ones it creates. May be null
+	 */
+	private JSInferenceBudget _budget;
 
 	/**
 	 * @param scope
@@ -102,6 +106,22 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 
 	public JSNodeTypeInferrer(JSScope scope, Index projectIndex, URI location, JSIndexQueryHelper queryHelper,
 			IProgressMonitor monitor)
+	{
+		this(scope, projectIndex, location, queryHelper, monitor, null);
+	}
+
+	/**
+	 * @param scope
+	 * @param projectIndex
+	 * @param location
+	 * @param queryHelper
+	 * @param monitor
+	 * @param budget
+	 *            The budget shared by this inferrer and every inferrer it creates. Once used up, we stop and return the
+	 *            types found so far. May be null for unlimited inference
+	 */
+	public JSNodeTypeInferrer(JSScope scope, Index projectIndex, URI location, JSIndexQueryHelper queryHelper,
+			IProgressMonitor monitor, JSInferenceBudget budget)
 	{
 		this._scope = scope;
 		this._index = projectIndex;
@@ -109,6 +129,7 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 		this._queryHelper = queryHelper;
 		this._monitor = SubMonitor.convert(monitor, IProgressMonitor.UNKNOWN);
 		this._factory = JSCorePlugin.getDefault().getAliasResolver();
+		this._budget = budget;
 	}
 
 	/**
@@ -275,7 +296,7 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 			// create new nested walker
 			// FIXME How can we avoid total recursion here? can we re-use ourself somehow?
 			JSNodeTypeInferrer walker = new JSNodeTypeInferrer(scope, this._index, this._location, this._queryHelper,
-					_monitor.newChild(1));
+					_monitor.newChild(1), this._budget);
 
 			// collect types
 			walker.visit((JSNode) node);
@@ -294,7 +315,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSArrayNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		if (!node.hasChildren())
 		{
@@ -313,12 +337,29 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 		_monitor.worked(1);
 	}
 
-	private void checkCancellation()
+	/**
+	 * Checks for cancellation and charges a node visit against our budget, if any
+	 * 
+	 * @return false if the budget is used up and the node should be skipped
+	 */
+	private boolean startVisit()
 	{
 		if (_monitor.isCanceled())
 		{
 			throw new OperationCanceledException();
 		}
+
+		return this._budget == null || this._budget.visitNode();
+	}
+
+	/**
+	 * Charges an index query against our budget, if any
+	 * 
+	 * @return false if the budget is used up and the query should be skipped
+	 */
+	private boolean startQuery()
+	{
+		return this._budget == null || this._budget.queryIndex();
 	}
 
 	/*
@@ -328,7 +369,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSAssignmentNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		switch (node.getNodeType())
 		{
@@ -365,7 +409,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSBinaryArithmeticOperatorNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		String type = JSTypeConstants.NUMBER_TYPE;
 		if (node.getNodeType() == IJSNodeTypes.ADD)
@@ -412,7 +459,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSBinaryBooleanOperatorNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		JSTokenType token = JSTokenType.get((String) node.getOperator().value);
 		switch (token)
@@ -437,7 +487,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSConditionalNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		this.addTypes(node.getTrueExpression());
 		this.addTypes(node.getFalseExpression());
@@ -452,7 +505,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSConstructNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		IParseNode child = node.getExpression();
 		if (child instanceof JSNode)
@@ -492,7 +548,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSFalseNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 		this.addType(JSTypeConstants.BOOLEAN_TYPE);
 		_monitor.worked(1);
 	}
@@ -504,7 +563,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSFunctionNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		List<String> types = new ArrayList<String>();
 		JSScope scope = this.getActiveScope(node.getBody().getStartingOffset());
@@ -544,7 +606,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSGetElementNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		// TODO: Should check subscript to determine if the type is a Number or
 		// a String. If it is a String, then this should behave like get-property
@@ -577,7 +642,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSGetPropertyNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		IParseNode lhs = node.getLeftHandSide();
 		if (lhs instanceof JSNode)
@@ -599,7 +667,8 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 				}
 
 				// lookup up rhs name in type and add that value's type here
-				Collection<PropertyElement> properties = this._queryHelper.getTypeMembers(typeName, memberName);
+				Collection<PropertyElement> properties = startQuery() ? this._queryHelper.getTypeMembers(typeName,
+						memberName) : null;
 
 				if (properties != null)
 				{
@@ -635,7 +704,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSGroupNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		IParseNode expression = node.getExpression();
 		if (expression instanceof JSNode)
@@ -653,7 +725,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSIdentifierNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		String name = node.getText();
 		Collection<PropertyElement> properties = null;
@@ -673,14 +748,14 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 			{
 				// Check the local scope for type first
 				JSSymbolTypeInferrer symbolInferrer = new JSSymbolTypeInferrer(this._scope, this._index,
-						this._location, this._queryHelper);
+						this._location, this._queryHelper, this._budget);
 				PropertyElement property = symbolInferrer.getSymbolPropertyElement(name, _monitor.newChild(1));
 				if (property != null)
 				{
 					// We found a match in the local scope
 					properties = CollectionsUtil.newList(property);
 				}
-				else
+				else if (startQuery())
 				{
 					// No match in the local scope, query the globals in index
 					properties = this._queryHelper.getGlobals(getFileName(), name);
@@ -703,7 +778,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 			{
 				name = _factory.resolve(name, org.eclipse.core.filesystem.URIUtil.toPath(_location), _projectLocation);
 			}
-			properties = this._queryHelper.getGlobals(getFileName(), name);
+			if (startQuery())
+			{
+				properties = this._queryHelper.getGlobals(getFileName(), name);
+			}
 		}
 
 		// Hopefully we found at least one match...
@@ -760,7 +838,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSInvokeNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		IParseNode child = node.getExpression();
 		if (child instanceof JSNode)
@@ -773,7 +854,7 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 				for (IParseNode arg : children)
 				{
 					String moduleId = CommonJSResolver.getModuleId(arg);
-					if (!StringUtil.isEmpty(moduleId))
+					if (!StringUtil.isEmpty(moduleId) && startQuery())
 					{
 						IPath absolutePath = resolve(moduleId);
 						String typeName = _queryHelper.getModuleType(absolutePath);
@@ -846,7 +927,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSNumberNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 		this.addType(JSTypeConstants.NUMBER_TYPE);
 		_monitor.worked(1);
 	}
@@ -858,7 +942,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSObjectNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		if (node.hasChildren())
 		{
@@ -870,7 +957,7 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 			symbol.addValue(node);
 
 			JSSymbolTypeInferrer inferrer = new JSSymbolTypeInferrer(this._scope, this._index, this._location,
-					this._queryHelper);
+					this._queryHelper, this._budget);
 			Set<String> types = new LinkedHashSet<String>();
 
 			inferrer.processProperties(symbol, types, _monitor.newChild(1));
@@ -893,7 +980,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSPostUnaryOperatorNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 		this.addType(JSTypeConstants.NUMBER_TYPE);
 		_monitor.worked(1);
 	}
@@ -905,7 +995,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSPreUnaryOperatorNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 
 		switch (node.getNodeType())
 		{
@@ -938,7 +1031,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSRegexNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 		this.addType(JSTypeConstants.REG_EXP_TYPE);
 		_monitor.worked(1);
 	}
@@ -950,7 +1046,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSStringNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 		this.addType(JSTypeConstants.STRING_TYPE);
 		_monitor.worked(1);
 	}
@@ -962,7 +1061,10 @@ public class JSNodeTypeInferrer extends JSTreeWalker
 	@Override
 	public void visit(JSTrueNode node)
 	{
-		checkCancellation();
+		if (!startVisit())
+		{
+			return;
+		}
 		this.addType(JSTypeConstants.BOOLEAN_TYPE);
 		_monitor.worked(1);
 	}
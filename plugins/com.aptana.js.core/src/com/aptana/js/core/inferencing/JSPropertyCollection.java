@@ -149,6 +149,16 @@ public class JSPropertyCollection
 		return null;
 	}
 
+	/**
+	 * Return the number of properties in this collection
+	 * 
+	 * @return
+	 */
+	public int getPropertyCount()
+	{
+		return (properties != null) ? properties.size() : 0;
+	}
+
 	/**
 	 * Return a list of property names defined within this collection.
 	 * 
@@ -8,6 +8,7 @@
 package com.aptana.js.core.inferencing;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -24,6 +25,21 @@ public class JSScope
 	private JSPropertyCollection object;
 	private IRange range;
 
+	/**
+	 * The ending offsets of our children, used to binary search the child containing an offset. This is null when it
+	 * has yet to be computed or the children are not in source order, in which case we fall back to a linear scan.
+	 */
+	private int[] childEnds;
+	private boolean childEndsComputed;
+
+	/**
+	 * The names of all symbols visible from this scope along with the number of local symbols of each scope in our
+	 * chain at the time they were collected. Symbols are never removed from a scope, so matching counts mean the
+	 * cached names are still current.
+	 */
+	private List<String> visibleSymbolNames;
+	private int[] visibleSymbolCounts;
+
 	/**
 	 * JSScope
 	 */
@@ -49,6 +65,7 @@ public class JSScope
 			}
 
 			children.add(scope);
+			invalidateChildEnds();
 		}
 	}
 
@@ -145,32 +162,139 @@ public class JSScope
 	}
 
 	/**
-	 * getScopeAtOffset
+	 * Return the innermost scope containing the specified offset or null if this scope does not contain the offset.
+	 * Children are kept in source order, so each level is a binary search over the children's ranges rather than a
+	 * walk over every nested scope.
 	 * 
 	 * @param offset
 	 * @return
 	 */
 	public JSScope getScopeAtOffset(int offset)
 	{
-		JSScope result = null;
+		if (!this.getRange().contains(offset))
+		{
+			return null;
+		}
+
+		JSScope result = this;
+		JSScope child = result.getChildAtOffset(offset);
+
+		while (child != null)
+		{
+			result = child;
+			child = result.getChildAtOffset(offset);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Return the first child containing the specified offset or null if no child contains it
+	 * 
+	 * @param offset
+	 * @return
+	 */
+	private JSScope getChildAtOffset(int offset)
+	{
+		if (children == null)
+		{
+			return null;
+		}
+
+		int[] ends = getChildEnds();
+
+		if (ends == null)
+		{
+			for (JSScope child : children)
+			{
+				if (child.getRange().contains(offset))
+				{
+					return child;
+				}
+			}
+
+			return null;
+		}
+
+		// find the first child ending at or after the offset. No child before it can contain the offset and since
+		// children are ordered, no child after it can contain the offset unless it does as well
+		int low = 0;
+		int high = ends.length - 1;
 
-		if (this.getRange().contains(offset))
+		while (low <= high)
 		{
-			result = this;
+			int mid = (low + high) >>> 1;
 
-			for (JSScope child : this.getChildren())
+			if (ends[mid] < offset)
 			{
-				JSScope candidate = child.getScopeAtOffset(offset);
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid - 1;
+			}
+		}
+
+		if (low < ends.length)
+		{
+			JSScope candidate = children.get(low);
+
+			if (candidate.getRange().contains(offset))
+			{
+				return candidate;
+			}
+		}
 
-				if (candidate != null)
+		return null;
+	}
+
+	/**
+	 * Return the ending offsets of our children if both their starting and ending offsets are in ascending order, null
+	 * otherwise
+	 * 
+	 * @return
+	 */
+	private int[] getChildEnds()
+	{
+		if (!childEndsComputed)
+		{
+			int size = children.size();
+			int[] ends = new int[size];
+			int lastStart = Integer.MIN_VALUE;
+			int lastEnd = Integer.MIN_VALUE;
+
+			for (int i = 0; i < size && ends != null; i++)
+			{
+				IRange childRange = children.get(i).getRange();
+				int start = childRange.getStartingOffset();
+				int end = childRange.getEndingOffset();
+
+				if (start < lastStart || end < lastEnd)
 				{
-					result = candidate;
-					break;
+					ends = null;
+				}
+				else
+				{
+					ends[i] = end;
+					lastStart = start;
+					lastEnd = end;
 				}
 			}
+
+			childEnds = ends;
+			childEndsComputed = true;
 		}
 
-		return result;
+		return childEnds;
+	}
+
+	/**
+	 * Forget the ordering of our children so it gets recomputed on the next offset lookup
+	 */
+	private void invalidateChildEnds()
+	{
+		childEnds = null;
+		childEndsComputed = false;
 	}
 
 	/**
@@ -226,24 +350,57 @@ public class JSScope
 	}
 
 	/**
-	 * getSymbolNames
+	 * Return the names of all symbols visible from this scope. The names are collected once and reused until a symbol
+	 * is added to this scope or to one of its ancestors
 	 * 
 	 * @return
 	 */
 	public List<String> getSymbolNames()
 	{
-		Set<String> result = new HashSet<String>();
+		int[] counts = getChainSymbolCounts();
 
-		JSScope current = this;
+		if (visibleSymbolNames == null || !Arrays.equals(visibleSymbolCounts, counts))
+		{
+			Set<String> result = new HashSet<String>();
+			JSScope current = this;
 
-		while (current != null)
+			while (current != null)
+			{
+				result.addAll(current.getLocalSymbolNames());
+
+				current = current.getParentScope();
+			}
+
+			visibleSymbolCounts = counts;
+			visibleSymbolNames = new ArrayList<String>(result);
+		}
+
+		return new ArrayList<String>(visibleSymbolNames);
+	}
+
+	/**
+	 * Return the number of local symbols in this scope and each of its ancestors
+	 * 
+	 * @return
+	 */
+	private int[] getChainSymbolCounts()
+	{
+		int depth = 0;
+
+		for (JSScope current = this; current != null; current = current.getParentScope())
 		{
-			result.addAll(current.getLocalSymbolNames());
+			depth++;
+		}
+
+		int[] result = new int[depth];
+		int i = 0;
 
-			current = current.getParentScope();
+		for (JSScope current = this; current != null; current = current.getParentScope())
+		{
+			result[i++] = current.getObject().getPropertyCount();
 		}
 
-		return new ArrayList<String>(result);
+		return result;
 	}
 
 	/**
@@ -292,6 +449,7 @@ public class JSScope
 	protected void setParent(JSScope parent)
 	{
 		this.parent = parent;
+		this.visibleSymbolNames = null;
 	}
 
 	/**
@@ -302,6 +460,11 @@ public class JSScope
 	public void setRange(IRange range)
 	{
 		this.range = range;
+
+		if (parent != null)
+		{
+			parent.invalidateChildEnds();
+		}
 	}
 
 	@Override
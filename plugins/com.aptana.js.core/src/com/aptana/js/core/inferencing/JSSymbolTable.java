@@ -0,0 +1,78 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.js.core.inferencing;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The scope tree of a file along with the types inferred on it so far. Tables handed out by {@link JSSymbolTableCache}
+ * are leased to a single thread at a time, since inference caches its results on the tree. Callers must call
+ * {@link #release()} once they are done with the table.
+ */
+public class JSSymbolTable
+{
+	private final JSScope globals;
+	private final ReentrantLock lock;
+
+	/**
+	 * JSSymbolTable
+	 * 
+	 * @param globals
+	 * @param shared
+	 *            true if the table is kept in the cache and needs to be leased
+	 */
+	JSSymbolTable(JSScope globals, boolean shared)
+	{
+		this.globals = globals;
+		this.lock = (shared) ? new ReentrantLock() : null;
+	}
+
+	/**
+	 * Return the global scope of the file
+	 * 
+	 * @return
+	 */
+	public JSScope getGlobals()
+	{
+		return globals;
+	}
+
+	/**
+	 * Return the innermost scope containing the specified offset, defaulting to the global scope
+	 * 
+	 * @param offset
+	 * @return
+	 */
+	public JSScope getScopeAtOffset(int offset)
+	{
+		JSScope candidate = globals.getScopeAtOffset(offset);
+
+		return (candidate != null) ? candidate : globals;
+	}
+
+	/**
+	 * Lease this table to the current thread if no other thread holds it
+	 * 
+	 * @return
+	 */
+	boolean tryAcquire()
+	{
+		return lock == null || lock.tryLock();
+	}
+
+	/**
+	 * Return this table so other threads can lease it
+	 */
+	public void release()
+	{
+		if (lock != null && lock.isHeldByCurrentThread())
+		{
+			lock.unlock();
+		}
+	}
+}
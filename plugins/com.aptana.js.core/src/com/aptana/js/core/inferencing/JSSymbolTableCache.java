@@ -0,0 +1,166 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.js.core.inferencing;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.aptana.js.core.index.JSIndexQueryHelper;
+import com.aptana.js.core.parsing.ast.JSParseRootNode;
+
+/**
+ * A bounded cache of symbol tables keyed by file location, a hash of the file's content and the modification stamps of
+ * the indices types get inferred from. The indexer publishes the tables it has fully inferred, and content assist, hover
+ * and hyperlink detection lease them, so requests against an unchanged file reuse the types inferred for it instead of
+ * collecting and inferring the file again. Any change to one of those indices, caused by editing another file for
+ * instance, moves later requests to a new table.
+ */
+public class JSSymbolTableCache
+{
+	/**
+	 * The number of files whose tables we keep around. Each table holds on to the AST it was collected from
+	 */
+	private static final int MAX_TABLES = 32;
+
+	private static final JSSymbolTableCache INSTANCE = new JSSymbolTableCache();
+
+	/**
+	 * Return the shared cache
+	 * 
+	 * @return
+	 */
+	public static JSSymbolTableCache getInstance()
+	{
+		return INSTANCE;
+	}
+
+	private final Map<String, JSSymbolTable> tables;
+
+	/**
+	 * JSSymbolTableCache
+	 */
+	private JSSymbolTableCache()
+	{
+		tables = new LinkedHashMap<String, JSSymbolTable>(MAX_TABLES, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, JSSymbolTable> eldest)
+			{
+				return size() > MAX_TABLES;
+			}
+		};
+	}
+
+	/**
+	 * Lease the symbol table for the specified AST. If another thread currently holds the cached table, or the AST
+	 * can't be keyed, a private table is collected for the caller instead of waiting. Either way, callers must release
+	 * the returned table once they are done with it.
+	 * 
+	 * @param ast
+	 * @param location
+	 * @param queryHelper
+	 *            The helper types will be inferred with. May be null if types won't be looked up in any index
+	 * @return
+	 */
+	public JSSymbolTable acquire(JSParseRootNode ast, URI location, JSIndexQueryHelper queryHelper)
+	{
+		String key = getKey(ast, location, queryHelper);
+
+		if (key != null)
+		{
+			JSSymbolTable table;
+
+			synchronized (tables)
+			{
+				table = tables.get(key);
+			}
+
+			if (table == null)
+			{
+				JSSymbolTable collected = new JSSymbolTable(ast.getGlobals(), true);
+
+				synchronized (tables)
+				{
+					table = tables.get(key);
+
+					if (table == null)
+					{
+						table = collected;
+						tables.put(key, table);
+					}
+				}
+			}
+
+			if (table.tryAcquire())
+			{
+				return table;
+			}
+		}
+
+		return new JSSymbolTable(ast.getGlobals(), false);
+	}
+
+	/**
+	 * Drop all cached tables
+	 */
+	public void clear()
+	{
+		synchronized (tables)
+		{
+			tables.clear();
+		}
+	}
+
+	/**
+	 * Publish the scope tree of the specified AST once all of its symbols have been inferred, replacing any table
+	 * cached for the same content and indices. The caller must not modify the tree afterwards.
+	 * 
+	 * @param ast
+	 * @param location
+	 * @param globals
+	 * @param queryHelper
+	 *            The helper the tree's types were inferred with
+	 */
+	public void put(JSParseRootNode ast, URI location, JSScope globals, JSIndexQueryHelper queryHelper)
+	{
+		String key = getKey(ast, location, queryHelper);
+
+		if (key != null && globals != null)
+		{
+			synchronized (tables)
+			{
+				tables.put(key, new JSSymbolTable(globals, true));
+			}
+		}
+	}
+
+	/**
+	 * Return the key of the table for the specified AST or null if the AST can't be cached
+	 * 
+	 * @param ast
+	 * @param location
+	 * @param queryHelper
+	 * @return
+	 */
+	private static String getKey(JSParseRootNode ast, URI location, JSIndexQueryHelper queryHelper)
+	{
+		String contentHash = (ast != null) ? ast.getContentHash() : null;
+
+		if (contentHash == null || location == null)
+		{
+			return null;
+		}
+
+		String key = location.toString() + '#' + contentHash;
+
+		return (queryHelper != null) ? key + '#' + queryHelper.getIndexStamp() : key;
+	}
+}
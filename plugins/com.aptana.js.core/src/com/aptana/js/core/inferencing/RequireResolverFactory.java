@@ -24,6 +24,7 @@ import com.aptana.core.util.CollectionsUtil;
 import com.aptana.core.util.EclipseUtil;
 import com.aptana.core.util.IConfigurationElementProcessor;
 import com.aptana.js.core.JSCorePlugin;
+import com.aptana.js.internal.core.inferencing.ModuleResolutionCache;
 
 public class RequireResolverFactory
 {
@@ -133,6 +134,24 @@ public class RequireResolverFactory
 	 */
 	public static IPath resolve(final String moduleId, final IProject project, final IPath currentDirectory,
 			final IPath indexRoot)
+	{
+		// Resolving probes the file system up the directory tree, remember the answer until files change
+		ModuleResolutionCache cache = ModuleResolutionCache.getInstance();
+		String key = ModuleResolutionCache.getKey(moduleId, project, currentDirectory, indexRoot);
+		IPath cached = cache.getResolution(key);
+		if (cached != null)
+		{
+			return cached.isEmpty() ? null : cached;
+		}
+
+		long generation = cache.getGeneration();
+		IPath path = resolveUncached(moduleId, project, currentDirectory, indexRoot);
+		cache.putResolution(key, path, generation);
+		return path;
+	}
+
+	private static IPath resolveUncached(final String moduleId, final IProject project, final IPath currentDirectory,
+			final IPath indexRoot)
 	{
 		List<IRequireResolver> resolvers = CollectionsUtil.filter(getResolvers(), new IFilter<IRequireResolver>()
 		{
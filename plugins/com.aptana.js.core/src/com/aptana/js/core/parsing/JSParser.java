@@ -3,6 +3,7 @@ package com.aptana.js.core.parsing;
 import com.aptana.parsing.IRecoveryStrategy;
 import com.aptana.parsing.ast.IParseNode;
 import com.aptana.core.build.IProblem;
+import com.aptana.core.util.StringUtil;
 import com.aptana.js.core.JSCorePlugin;
 import com.aptana.parsing.WorkingParseResult;
 import com.aptana.js.core.preferences.IPreferenceConstants;
@@ -404,6 +405,9 @@ public class JSParser extends Parser implements IParser {
 			// align root with zero-based offset
 			result.setLocation(0, length - 1);
 
+			// identify the content this AST was built from so symbol tables can be shared between identical ASTs
+			result.setContentHash(StringUtil.md5(source) + ':' + attachComments);
+
 			if (start != 0)
 			{
 				// shift all offsets to the correct position
@@ -11,11 +11,14 @@ import beaver.Symbol;
 
 import com.aptana.js.core.IJSConstants;
 import com.aptana.js.core.inferencing.JSScope;
+import com.aptana.js.core.inferencing.JSSymbolTableCache;
 import com.aptana.js.internal.core.inferencing.JSSymbolCollector;
 import com.aptana.parsing.ast.ParseRootNode;
 
 public class JSParseRootNode extends ParseRootNode
 {
+	private String contentHash;
+
 	/**
 	 * JSParseRootNode
 	 */
@@ -52,7 +55,25 @@ public class JSParseRootNode extends ParseRootNode
 	}
 
 	/**
-	 * getGlobals
+	 * getContentHash
+	 * 
+	 * @return a hash of the source, parse options and current starting offset of this AST, or null if unknown
+	 */
+	public String getContentHash()
+	{
+		if (contentHash == null)
+		{
+			return null;
+		}
+		// the offset is added here so the hash stays right when the AST is moved
+		return contentHash + ':' + getStartingOffset();
+	}
+
+	/**
+	 * Collect a new scope tree for this AST. The tree is never kept on this node: the parse cache shares ASTs between
+	 * threads and inference caches types on the tree, so each caller gets a private copy. Use
+	 * {@link JSSymbolTableCache} to share the tree and the types inferred on it with other requests against the same
+	 * content
 	 * 
 	 * @return
 	 */
@@ -65,6 +86,17 @@ public class JSParseRootNode extends ParseRootNode
 		return s.getScope();
 	}
 
+	/**
+	 * setContentHash
+	 * 
+	 * @param contentHash
+	 *            a hash of the source and parse options this AST was built from
+	 */
+	public void setContentHash(String contentHash)
+	{
+		this.contentHash = contentHash;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see com.aptana.parsing.ast.ParseNode#toString()
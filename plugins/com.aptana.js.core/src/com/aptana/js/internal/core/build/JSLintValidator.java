@@ -65,7 +65,14 @@ public class JSLintValidator extends AbstractBuildParticipant
 	public static final String ID = "com.aptana.js.core.JSLintValidator"; //$NON-NLS-1$
 
 	private static final String JSLINT_FILENAME = "fulljslint.js"; //$NON-NLS-1$
-	private static JSLint JS_LINT_SCRIPT;
+	private static final String JSLINT_FUNCTION = "JSLINT"; //$NON-NLS-1$
+
+	/**
+	 * The number of idle JSLint instances we keep around for reuse
+	 */
+	private static final int MAX_POOLED_SCOPES = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	private static JSLintScript JS_LINT_SCRIPT;
 
 	private static ContextFactory contextFactory = new ContextFactory();
 
@@ -106,17 +113,37 @@ public class JSLintValidator extends AbstractBuildParticipant
 		context.removeProblems(IJSConstants.JSLINT_PROBLEM_MARKER_TYPE);
 	}
 
-	private List<IProblem> parseWithLint(String source, String path)
+	private List<IProblem> parseWithLint(final String source, final String path)
 	{
-		JSLint script = getJSLintScript();
+		final JSLintScript script = getJSLintScript();
 		if (script == null)
 		{
 			return Collections.emptyList();
 		}
 
-		script.runLint(source, getOptions());
+		final Map<String, Object> options = getOptions();
+		final List<IProblem> collected = new ArrayList<IProblem>();
+
+		// Lint and read back the errors on the same instance, in one go, so concurrent builds don't see each other's
+		// results
+		contextFactory.call(new ContextAction()
+		{
+			public Object run(Context cx)
+			{
+				Scriptable scope = script.acquireScope(cx);
+				try
+				{
+					runLint(cx, scope, source, options);
+					collectProblems(scope, source, path, collected);
+				}
+				finally
+				{
+					script.releaseScope(scope);
+				}
+				return null;
+			}
+		});
 
-		List<IProblem> collected = script.getProblems(source, path);
 		final List<String> filters = getFilters();
 		return CollectionsUtil.filter(collected, new IFilter<IProblem>()
 		{
@@ -133,7 +160,7 @@ public class JSLintValidator extends AbstractBuildParticipant
 	 * 
 	 * @return
 	 */
-	private synchronized JSLint getJSLintScript()
+	private static synchronized JSLintScript getJSLintScript()
 	{
 		if (JS_LINT_SCRIPT == null)
 		{
@@ -146,7 +173,7 @@ public class JSLintValidator extends AbstractBuildParticipant
 					String source = StreamUtil.readContent(url.openStream());
 					if (source != null)
 					{
-						JS_LINT_SCRIPT = getJSLintScript(source);
+						JS_LINT_SCRIPT = new JSLintScript(source);
 					}
 				}
 				catch (IOException e)
@@ -159,195 +186,280 @@ public class JSLintValidator extends AbstractBuildParticipant
 	}
 
 	/**
-	 * Compile JSLint file into {@link Script} object.
-	 * 
-	 * @param source
-	 * @return
+	 * JSLint compiled once, along with a sealed scope holding the standard objects as extended by JSLint. Each lint run
+	 * gets a child scope of its own in which the script has been executed, so the state JSLint keeps in its closure is
+	 * never shared between threads. Child scopes are pooled since running the script builds JSLint's tables.
 	 */
-	private JSLint getJSLintScript(String source)
+	static class JSLintScript
 	{
-		try
+		private final Script script;
+		private final ScriptableObject sharedScope;
+		private final List<Scriptable> idleScopes;
+
+		/**
+		 * JSLintScript
+		 * 
+		 * @param source
+		 */
+		JSLintScript(final String source)
 		{
-			Context cx = contextFactory.enterContext();
-			ScriptableObject scope = cx.initStandardObjects();
-			cx.evaluateString(scope, source, JSLINT_FILENAME, 1, null);
-			return new JSLint(contextFactory, scope);
-		}
-		finally
-		{
-			Context.exit();
-		}
-	}
+			this.idleScopes = new ArrayList<Scriptable>();
+			this.script = (Script) contextFactory.call(new ContextAction()
+			{
+				public Object run(Context cx)
+				{
+					return compile(cx, source);
+				}
+			});
+			this.sharedScope = (ScriptableObject) contextFactory.call(new ContextAction()
+			{
+				public Object run(Context cx)
+				{
+					ScriptableObject scope = cx.initStandardObjects();
 
-	class JSLint
-	{
-		private ContextFactory contextFactory;
-		private ScriptableObject scope;
+					// Let JSLint install its extensions to the built-in prototypes once, then lock everything down
+					script.exec(cx, scope);
+					scope.delete(JSLINT_FUNCTION);
+					sealStandardObjects(scope);
+					scope.sealObject();
 
-		JSLint(ContextFactory contextFactory, ScriptableObject scope)
-		{
-			this.contextFactory = contextFactory;
-			this.scope = scope;
-			this.scope.sealObject();
+					return scope;
+				}
+			});
 		}
 
-		public List<IProblem> getProblems(final String source, final String path)
+		/**
+		 * Compile the script to bytecode, falling back to interpreting it if it can't be compiled (the generated
+		 * methods can hit the class file size limits)
+		 * 
+		 * @param cx
+		 * @param source
+		 * @return
+		 */
+		private static Script compile(Context cx, String source)
 		{
-			final List<IProblem> items = new ArrayList<IProblem>();
+			int level = cx.getOptimizationLevel();
+			try
+			{
+				cx.setOptimizationLevel(9);
+				return cx.compileString(source, JSLINT_FILENAME, 1, null);
+			}
+			catch (RuntimeException e)
+			{
+				IdeLog.logWarning(JSCorePlugin.getDefault(),
+						"Unable to compile JSLint, falling back to interpreted mode", e); //$NON-NLS-1$
+				cx.setOptimizationLevel(-1);
+				return cx.compileString(source, JSLINT_FILENAME, 1, null);
+			}
+			finally
+			{
+				cx.setOptimizationLevel(level);
+			}
+		}
 
-			contextFactory.call(new ContextAction()
+		/**
+		 * Seal the standard constructors and their prototypes so lint runs can't alter what other runs see
+		 * 
+		 * @param scope
+		 */
+		private static void sealStandardObjects(ScriptableObject scope)
+		{
+			for (Object id : scope.getAllIds())
 			{
-				public Object run(Context cx)
+				if (!(id instanceof String))
 				{
-					Function lintFunc = (Function) scope.get("JSLINT", scope); //$NON-NLS-1$
-
-					Object errorObject = lintFunc.get("errors", scope); //$NON-NLS-1$
-					if (!(errorObject instanceof NativeArray))
+					continue;
+				}
+				Object value = ScriptableObject.getProperty(scope, (String) id);
+				if (value instanceof ScriptableObject)
+				{
+					ScriptableObject object = (ScriptableObject) value;
+					Object prototype = ScriptableObject.getProperty(object, "prototype"); //$NON-NLS-1$
+					if (prototype instanceof ScriptableObject)
 					{
-						return null;
+						((ScriptableObject) prototype).sealObject();
 					}
+					object.sealObject();
+				}
+			}
+		}
 
-					NativeArray errorArray = (NativeArray) errorObject;
-					Object[] ids = errorArray.getIds();
-					if (ArrayUtil.isEmpty(ids))
-					{
-						return null;
-					}
+		/**
+		 * Grab an idle scope holding its own JSLINT function, or create one. Must be called with an entered context.
+		 * 
+		 * @param cx
+		 * @return
+		 */
+		Scriptable acquireScope(Context cx)
+		{
+			synchronized (idleScopes)
+			{
+				if (!idleScopes.isEmpty())
+				{
+					return idleScopes.remove(idleScopes.size() - 1);
+				}
+			}
 
-					boolean lastIsError = false;
-					NativeObject last = (NativeObject) errorArray.get(Integer.parseInt(ids[ids.length - 1].toString()),
-							scope);
-					if (last == null)
-					{
-						lastIsError = true;
-					}
+			Scriptable scope = cx.newObject(sharedScope);
+			scope.setPrototype(sharedScope);
+			scope.setParentScope(null);
+			script.exec(cx, scope);
 
-					IDocument doc = null; // Lazily init document object to query about lines/offsets
-					for (int i = 0; i < ids.length; ++i)
-					{
-						// Grab the warning/error
-						NativeObject object = (NativeObject) errorArray.get(Integer.parseInt(ids[i].toString()), scope);
-						if (object == null)
-						{
-							continue;
-						}
-
-						// Grab the line of the error. Skip if we already recorded an error on this line (why?)
-						int line = (int) Double.parseDouble(object.get("line", scope).toString()); //$NON-NLS-1$
-
-						// Grab the details of the error. If user has set up filters to ignore it, move on
-						String reason = object.get("reason", scope).toString().trim(); //$NON-NLS-1$
-
-						// lazy init of document to query for offsets/line info
-						if (doc == null)
-						{
-							doc = new Document(source);
-						}
-
-						// Translate the column reported into the absolute offset from start of doc
-						int character = (int) Double.parseDouble(object.get("character", scope).toString()); //$NON-NLS-1$
-						try
-						{
-							// JSLint reports the offset as column on the given line, and counts tab characters as 4
-							// columns
-							// We account for that by adding the offset of the line start, and reducing the column count
-							// on
-							// tabs
-							IRegion lineInfo = doc.getLineInformation(line - 1);
-							int realOffset = lineInfo.getOffset();
-							String rawLine = doc.get(realOffset, lineInfo.getLength());
-							int lineLength = rawLine.length();
-							int actual = character - 1;
-							for (int x = 0; x < actual; x++)
-							{
-								if (lineLength <= x)
-								{
-									break;
-								}
-								char c = rawLine.charAt(x);
-								if (c == '\t')
-								{
-									actual -= 3;
-								}
-								realOffset++;
-							}
-							character = realOffset;
-						}
-						catch (BadLocationException e)
-						{
-							// ignore
-						}
-
-						// Now record the error
-						if (i == ids.length - 2 && lastIsError)
-						{
-							// If this starts with "Stopping", convert the last warning to an error and skip this.
-							if (reason.startsWith("Stopping")) //$NON-NLS-1$
-							{
-								IProblem lastWarning = items.remove(items.size() - 1);
-								items.add(createError(lastWarning.getMessage(), lastWarning.getLineNumber(),
-										lastWarning.getOffset(), 1, path));
-							}
-							else
-							{
-								items.add(createError(reason, line, character, 1, path));
-							}
-						}
-						else
-						{
-							items.add(createWarning(reason, line, character, 1, path));
-						}
-					}
-					return null;
-				}
-			});
-			return items;
+			return scope;
 		}
 
-		void runLint(final String source, final Map<String, Object> options)
+		/**
+		 * Hand a scope grabbed with {@link #acquireScope(Context)} back for reuse
+		 * 
+		 * @param scope
+		 */
+		void releaseScope(Scriptable scope)
 		{
-			contextFactory.call(new ContextAction()
+			synchronized (idleScopes)
 			{
-				public Object run(Context cx)
+				if (idleScopes.size() < MAX_POOLED_SCOPES)
 				{
-					Object[] args = new Object[] { source, optionsAsJavaScriptObject(options) };
-					Function lintFunc = (Function) scope.get("JSLINT", scope); //$NON-NLS-1$
-					// PC: we ignore the result, because i have found that with some versions, there might
-					// be errors but this function returned true (false == errors)
-					lintFunc.call(cx, scope, scope, args);
-					return null;
+					idleScopes.add(scope);
 				}
-			});
+			}
+		}
+	}
+
+	private void runLint(Context cx, Scriptable scope, String source, Map<String, Object> options)
+	{
+		Object[] args = new Object[] { source, optionsAsJavaScriptObject(cx, scope, options) };
+		Function lintFunc = (Function) scope.get(JSLINT_FUNCTION, scope);
+		// PC: we ignore the result, because i have found that with some versions, there might
+		// be errors but this function returned true (false == errors)
+		lintFunc.call(cx, scope, scope, args);
+	}
+
+	private void collectProblems(Scriptable scope, String source, String path, List<IProblem> items)
+	{
+		Function lintFunc = (Function) scope.get(JSLINT_FUNCTION, scope);
+
+		Object errorObject = lintFunc.get("errors", scope); //$NON-NLS-1$
+		if (!(errorObject instanceof NativeArray))
+		{
+			return;
+		}
+
+		NativeArray errorArray = (NativeArray) errorObject;
+		Object[] ids = errorArray.getIds();
+		if (ArrayUtil.isEmpty(ids))
+		{
+			return;
+		}
+
+		boolean lastIsError = false;
+		NativeObject last = (NativeObject) errorArray.get(Integer.parseInt(ids[ids.length - 1].toString()), scope);
+		if (last == null)
+		{
+			lastIsError = true;
 		}
 
-		private Scriptable optionsAsJavaScriptObject(final Map<String, Object> options)
+		IDocument doc = null; // Lazily init document object to query about lines/offsets
+		for (int i = 0; i < ids.length; ++i)
 		{
-			return (Scriptable) contextFactory.call(new ContextAction()
+			// Grab the warning/error
+			NativeObject object = (NativeObject) errorArray.get(Integer.parseInt(ids[i].toString()), scope);
+			if (object == null)
 			{
-				public Object run(Context cx)
+				continue;
+			}
+
+			// Grab the line of the error. Skip if we already recorded an error on this line (why?)
+			int line = (int) Double.parseDouble(object.get("line", scope).toString()); //$NON-NLS-1$
+
+			// Grab the details of the error. If user has set up filters to ignore it, move on
+			String reason = object.get("reason", scope).toString().trim(); //$NON-NLS-1$
+
+			// lazy init of document to query for offsets/line info
+			if (doc == null)
+			{
+				doc = new Document(source);
+			}
+
+			// Translate the column reported into the absolute offset from start of doc
+			int character = (int) Double.parseDouble(object.get("character", scope).toString()); //$NON-NLS-1$
+			try
+			{
+				// JSLint reports the offset as column on the given line, and counts tab characters as 4
+				// columns
+				// We account for that by adding the offset of the line start, and reducing the column count
+				// on
+				// tabs
+				IRegion lineInfo = doc.getLineInformation(line - 1);
+				int realOffset = lineInfo.getOffset();
+				String rawLine = doc.get(realOffset, lineInfo.getLength());
+				int lineLength = rawLine.length();
+				int actual = character - 1;
+				for (int x = 0; x < actual; x++)
 				{
-					Scriptable opts = cx.newObject(scope);
-					for (Map.Entry<String, Object> entry : options.entrySet())
+					if (lineLength <= x)
+					{
+						break;
+					}
+					char c = rawLine.charAt(x);
+					if (c == '\t')
 					{
-						String key = entry.getKey();
-						Object value = javaToJS(entry.getValue(), opts);
-						opts.put(key, opts, value);
+						actual -= 3;
 					}
-					return opts;
+					realOffset++;
 				}
-			});
+				character = realOffset;
+			}
+			catch (BadLocationException e)
+			{
+				// ignore
+			}
+
+			// Now record the error
+			if (i == ids.length - 2 && lastIsError)
+			{
+				// If this starts with "Stopping", convert the last warning to an error and skip this.
+				if (reason.startsWith("Stopping")) //$NON-NLS-1$
+				{
+					IProblem lastWarning = items.remove(items.size() - 1);
+					items.add(createError(lastWarning.getMessage(), lastWarning.getLineNumber(),
+							lastWarning.getOffset(), 1, path));
+				}
+				else
+				{
+					items.add(createError(reason, line, character, 1, path));
+				}
+			}
+			else
+			{
+				items.add(createWarning(reason, line, character, 1, path));
+			}
 		}
+	}
 
-		Object javaToJS(Object o, Scriptable scope)
+	private Scriptable optionsAsJavaScriptObject(Context cx, Scriptable scope, Map<String, Object> options)
+	{
+		Scriptable opts = cx.newObject(scope);
+		if (options != null)
 		{
-			Class<?> cls = o.getClass();
-			if (cls.isArray())
+			for (Map.Entry<String, Object> entry : options.entrySet())
 			{
-				return new NativeArray((Object[]) o);
+				String key = entry.getKey();
+				Object value = javaToJS(entry.getValue(), opts);
+				opts.put(key, opts, value);
 			}
+		}
+		return opts;
+	}
 
-			return Context.javaToJS(o, scope);
+	Object javaToJS(Object o, Scriptable scope)
+	{
+		Class<?> cls = o.getClass();
+		if (cls.isArray())
+		{
+			return new NativeArray((Object[]) o);
 		}
+
+		return Context.javaToJS(o, scope);
 	}
 
 	class DefaultErrorReporter implements ErrorReporter
@@ -11,10 +11,10 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -242,7 +242,38 @@ public class JSStyleValidator extends AbstractBuildParticipant
 	 */
 	private EnumMap<Option, Boolean> initialOptions = new EnumMap<Option, Boolean>(Option.class);
 
-	private Collection<IProblem> problems;
+	private List<IProblem> problems;
+
+	/**
+	 * The number of top-level function results we remember
+	 */
+	private static final int MAX_FUNCTION_RESULTS = 500;
+
+	/**
+	 * The results of checking top-level functions, keyed by {@link #getFunctionKey(JSFunctionNode)}. Shared by all
+	 * files, since a function checked in the same global state yields the same problems wherever it is.
+	 */
+	private static final Map<String, FunctionResult> FUNCTION_RESULTS = new LinkedHashMap<String, FunctionResult>(
+			MAX_FUNCTION_RESULTS, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, FunctionResult> eldest)
+		{
+			return size() > MAX_FUNCTION_RESULTS;
+		}
+	};
+
+	/**
+	 * The top-level function whose result we're collecting, if any
+	 */
+	private FunctionRecording functionRecording;
+
+	/**
+	 * The top-level function whose cached result was used. Its descendants are skipped.
+	 */
+	private IParseNode skippedFunction;
 
 	/**
 	 * Kind of name/label.
@@ -394,6 +425,65 @@ public class JSStyleValidator extends AbstractBuildParticipant
 		}
 	}
 
+	/**
+	 * A problem found in a top-level function, with an offset relative to the start of the function
+	 */
+	private static class FunctionProblem
+	{
+		private final boolean error;
+		private final String message;
+		private final int offset;
+		private final int length;
+
+		private FunctionProblem(boolean error, String message, int offset, int length)
+		{
+			this.error = error;
+			this.message = message;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	/**
+	 * What checking a top-level function did: the problems it found, the names it added to the global scope and the
+	 * kinds it changed in the global function
+	 */
+	private static class FunctionResult
+	{
+		private final List<FunctionProblem> problems;
+		private final Set<String> globalNames;
+		private final Map<String, Kind> globalKinds;
+
+		private FunctionResult(List<FunctionProblem> problems, Set<String> globalNames, Map<String, Kind> globalKinds)
+		{
+			this.problems = problems;
+			this.globalNames = globalNames;
+			this.globalKinds = globalKinds;
+		}
+	}
+
+	/**
+	 * The state we need to build the result of a top-level function once we exit it
+	 */
+	private static class FunctionRecording
+	{
+		private final JSFunctionNode node;
+		private final String key;
+		private final int problemCount;
+		private final Map<String, Scope> globalNames;
+		private final Map<String, Kind> globalKinds;
+
+		private FunctionRecording(JSFunctionNode node, String key, int problemCount, Map<String, Scope> globalNames,
+				Map<String, Kind> globalKinds)
+		{
+			this.node = node;
+			this.key = key;
+			this.problemCount = problemCount;
+			this.globalNames = globalNames;
+			this.globalKinds = globalKinds;
+		}
+	}
+
 	/**
 	 * a Scope object. Holds a map of names/vars in the scope.
 	 * 
@@ -488,13 +578,23 @@ public class JSStyleValidator extends AbstractBuildParticipant
 
 					public boolean exitNode(IParseNode node)
 					{
-						JSStyleValidator.this.exitNode(node);
+						if (skippedFunction == null)
+						{
+							JSStyleValidator.this.exitNode(node);
+						}
+						else if (skippedFunction == node)
+						{
+							skippedFunction = null;
+						}
 						return true;
 					}
 
 					public boolean enterNode(IParseNode node)
 					{
-						JSStyleValidator.this.enterNode(node);
+						if (skippedFunction == null)
+						{
+							JSStyleValidator.this.enterNode(node);
+						}
 						return true;
 					}
 				});
@@ -513,6 +613,8 @@ public class JSStyleValidator extends AbstractBuildParticipant
 		this.functionStack = null;
 		this.optionStack = null;
 		this.predefineds = null;
+		this.functionRecording = null;
+		this.skippedFunction = null;
 		this.initialOptions.clear();
 
 		// Filter down the list of problems based on filter expressions.
@@ -658,7 +760,14 @@ public class JSStyleValidator extends AbstractBuildParticipant
 				break;
 
 			case IJSNodeTypes.FUNCTION:
-				enterFunction((JSFunctionNode) node);
+				if (inGlobalFunct())
+				{
+					enterTopLevelFunction((JSFunctionNode) node);
+				}
+				else
+				{
+					enterFunction((JSFunctionNode) node);
+				}
 				break;
 
 			case IJSNodeTypes.GET_ELEMENT:
@@ -1226,6 +1335,139 @@ public class JSStyleValidator extends AbstractBuildParticipant
 		}
 	}
 
+	/**
+	 * Enter a function that isn't nested in another one. If it was checked before with the same source and global
+	 * state, we add the problems it had and replay its changes to the global state instead of checking it again, so
+	 * an edit only re-checks the top-level function it's in (and those whose view of the globals it changed).
+	 * 
+	 * @param node
+	 */
+	private void enterTopLevelFunction(JSFunctionNode node)
+	{
+		String key = getFunctionKey(node);
+		if (key == null)
+		{
+			enterFunction(node);
+			return;
+		}
+
+		FunctionResult result;
+		synchronized (FUNCTION_RESULTS)
+		{
+			result = FUNCTION_RESULTS.get(key);
+		}
+
+		if (result != null)
+		{
+			int start = node.getStartingOffset();
+			for (FunctionProblem problem : result.problems)
+			{
+				if (problem.error)
+				{
+					problems.add(createError(problem.message, start + problem.offset, problem.length));
+				}
+				else
+				{
+					problems.add(createWarning(problem.message, start + problem.offset, problem.length));
+				}
+			}
+			for (String name : result.globalNames)
+			{
+				globalScope().put(name, new Scope(name, true, globalFunct()));
+			}
+			for (Map.Entry<String, Kind> entry : result.globalKinds.entrySet())
+			{
+				globalFunct().put(entry.getKey(), entry.getValue());
+			}
+
+			skippedFunction = node;
+			return;
+		}
+
+		Scope globalScope = globalScope();
+		Map<String, Scope> globalNames = (globalScope.names != null) ? new HashMap<String, Scope>(globalScope.names)
+				: new HashMap<String, Scope>();
+		functionRecording = new FunctionRecording(node, key, problems.size(), globalNames, new HashMap<String, Kind>(
+				globalFunct().map));
+
+		enterFunction(node);
+	}
+
+	/**
+	 * Returns the key of the result of checking the specified top-level function, made of a hash of its source and of
+	 * everything it reads from the enclosing state: the options, predefined names, names in scope and the kinds of
+	 * the globals
+	 * 
+	 * @param node
+	 * @return the key or null if the function's source couldn't be read
+	 */
+	private String getFunctionKey(JSFunctionNode node)
+	{
+		String source;
+		try
+		{
+			source = doc.get(node.getStartingOffset(), node.getLength());
+		}
+		catch (BadLocationException e)
+		{
+			return null;
+		}
+
+		Scope scope = currentScope();
+		StringBuilder builder = new StringBuilder(StringUtil.md5(source));
+
+		builder.append(':').append(options().hashCode());
+		builder.append(':').append(predefineds.hashCode());
+		builder.append(':').append((scope.names != null) ? scope.names.keySet().hashCode() : 0);
+		builder.append(':').append(globalFunct().map.hashCode());
+
+		return builder.toString();
+	}
+
+	/**
+	 * Remember the result of checking the top-level function we just exited
+	 */
+	private void exitTopLevelFunction()
+	{
+		FunctionRecording recording = functionRecording;
+		functionRecording = null;
+
+		int start = recording.node.getStartingOffset();
+		List<FunctionProblem> functionProblems = new ArrayList<FunctionProblem>();
+		for (IProblem problem : problems.subList(recording.problemCount, problems.size()))
+		{
+			functionProblems.add(new FunctionProblem(problem.getSeverity() == IProblem.Severity.ERROR, problem
+					.getMessage(), problem.getOffset() - start, problem.getLength()));
+		}
+
+		Set<String> globalNames = new HashSet<String>();
+		Scope globalScope = globalScope();
+		if (globalScope.names != null)
+		{
+			for (Map.Entry<String, Scope> entry : globalScope.names.entrySet())
+			{
+				if (recording.globalNames.get(entry.getKey()) != entry.getValue())
+				{
+					globalNames.add(entry.getKey());
+				}
+			}
+		}
+
+		Map<String, Kind> globalKinds = new HashMap<String, Kind>();
+		for (Map.Entry<String, Kind> entry : globalFunct().map.entrySet())
+		{
+			if (recording.globalKinds.get(entry.getKey()) != entry.getValue())
+			{
+				globalKinds.put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		synchronized (FUNCTION_RESULTS)
+		{
+			FUNCTION_RESULTS.put(recording.key, new FunctionResult(functionProblems, globalNames, globalKinds));
+		}
+	}
+
 	private void checkIdentifier(IParseNode node)
 	{
 		String name = node.getNameNode().getName();
@@ -1267,6 +1509,11 @@ public class JSStyleValidator extends AbstractBuildParticipant
 		this.functionStack.pop();
 		this.optionStack.pop();
 		this.scopeStack.pop();
+
+		if (functionRecording != null && functionRecording.node == node)
+		{
+			exitTopLevelFunction();
+		}
 	}
 
 	private void enterParameters(JSParametersNode node)
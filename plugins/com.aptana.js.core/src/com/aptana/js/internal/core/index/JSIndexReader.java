@@ -8,15 +8,16 @@
 package com.aptana.js.internal.core.index;
 
 import java.io.IOException;
-import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import com.aptana.core.IMap;
 import com.aptana.core.util.CollectionsUtil;
-import com.aptana.core.util.RegexUtil;
 import com.aptana.core.util.StringUtil;
 import com.aptana.index.core.Index;
 import com.aptana.index.core.IndexReader;
@@ -109,68 +110,77 @@ public class JSIndexReader extends IndexReader
 	 */
 	protected TypeElement createType(QueryResult type)
 	{
-		TypeElement result;
-		String[] columns = this.getDelimiterPattern().split(type.getWord());
+		TypeElement result = new TypeElement();
+		String word = type.getWord();
+		String delimiter = this.getDelimiter();
+		int start = 0;
 		int column = 0;
 
-		// create type
-		result = new TypeElement();
-
-		// name
-		result.setName(columns[column]);
-		column++;
-
-		// super types
-		if (column < columns.length)
-		{
-			for (String parentType : this.getSubDelimiterPattern().split(columns[column]))
-			{
-				result.addParentType(parentType);
-			}
-		}
-		column++;
-
-		// description
-		if (column < columns.length)
-		{
-			result.setDescription(columns[column]);
-		}
-		column++;
-
-		// deprecated
-		if (column < columns.length)
+		// walk the columns in place rather than splitting the whole key up front
+		while (true)
 		{
-			result.setIsDeprecated(columns[column].equals("1")); //$NON-NLS-1$
-		}
-		column++;
-
-		// isInternal
-		if (column < columns.length)
-		{
-			result.setIsInternal(columns[column].equals("1")); //$NON-NLS-1$
-		}
-		column++;
+			int end = word.indexOf(delimiter, start);
+			String value = (end == -1) ? word.substring(start) : word.substring(start, end);
 
-		// user agents
-		if (column < columns.length)
-		{
-			String value = columns[column];
-			if (IJSIndexConstants.ALL_AGENTS.equals(value))
+			switch (column)
 			{
-				result.setHasAllUserAgents();
+				case 0:
+					// name
+					result.setName(value);
+					break;
+
+				case 1:
+					// super types
+					for (String parentType : this.getSubDelimiterPattern().split(value))
+					{
+						result.addParentType(parentType);
+					}
+					break;
+
+				case 2:
+					// description
+					result.setDescription(value);
+					break;
+
+				case 3:
+					// deprecated
+					result.setIsDeprecated(value.equals("1")); //$NON-NLS-1$
+					break;
+
+				case 4:
+					// isInternal
+					result.setIsInternal(value.equals("1")); //$NON-NLS-1$
+					break;
+
+				case 5:
+					// user agents
+					if (IJSIndexConstants.ALL_AGENTS.equals(value))
+					{
+						result.setHasAllUserAgents();
+					}
+					else if (value.length() > 0)
+					{
+						for (String agent : this.getSubDelimiterPattern().split(value))
+						{
+							UserAgentElement uaElement = new UserAgentElement();
+							uaElement.setPlatform(agent);
+							result.addUserAgent(uaElement);
+						}
+					}
+					break;
+
+				default:
+					break;
 			}
-			else
+
+			if (end == -1)
 			{
-				String[] agents = value.split(IJSIndexConstants.SUB_DELIMITER);
-				for (String agent : agents)
-				{
-					UserAgentElement uaElement = new UserAgentElement();
-					uaElement.setPlatform(agent);
-					result.addUserAgent(uaElement);
-				}
+				break;
 			}
+
+			start = end + delimiter.length();
+			column++;
 		}
-		column++;
 
 		// documents
 		for (String document : type.getDocuments())
@@ -204,13 +214,7 @@ public class JSIndexReader extends IndexReader
 		if (index != null && !CollectionsUtil.isEmpty(owningTypes))
 		{
 			// read events
-			// @formatter:off
-			List<QueryResult> events = index.query(
-				new String[] { IJSIndexConstants.EVENT },
-				this.getMemberPattern(owningTypes),
-				SearchPattern.REGEX_MATCH | SearchPattern.CASE_SENSITIVE
-			);
-			// @formatter:on
+			List<QueryResult> events = this.getMembers(index, IJSIndexConstants.EVENT, owningTypes);
 
 			return CollectionsUtil.map(events, new IMap<QueryResult, EventElement>()
 			{
@@ -251,13 +255,8 @@ public class JSIndexReader extends IndexReader
 		if (index != null && !StringUtil.isEmpty(owningType) && !StringUtil.isEmpty(eventName))
 		{
 			// read events
-			// @formatter:off
-			List<QueryResult> events = index.query(
-				new String[] { IJSIndexConstants.EVENT },
-				this.getMemberPattern(owningType, eventName),
-				SearchPattern.PREFIX_MATCH | SearchPattern.CASE_SENSITIVE
-			);
-			// @formatter:on
+			List<QueryResult> events = JSMemberTable.getTable(index, IJSIndexConstants.EVENT).getMembers(
+					stripGenericsFromType(owningType), eventName);
 
 			return CollectionsUtil.map(events, new IMap<QueryResult, EventElement>()
 			{
@@ -284,13 +283,7 @@ public class JSIndexReader extends IndexReader
 		if (index != null && !CollectionsUtil.isEmpty(owningTypes))
 		{
 			// read functions
-			// @formatter:off
-			List<QueryResult> functions = index.query(
-				new String[] { IJSIndexConstants.FUNCTION },
-				this.getMemberPattern(owningTypes),
-				SearchPattern.REGEX_MATCH | SearchPattern.CASE_SENSITIVE
-			);
-			// @formatter:on
+			List<QueryResult> functions = this.getMembers(index, IJSIndexConstants.FUNCTION, owningTypes);
 
 			return CollectionsUtil.map(functions, new IMap<QueryResult, FunctionElement>()
 			{
@@ -330,13 +323,8 @@ public class JSIndexReader extends IndexReader
 	{
 		if (index != null && !StringUtil.isEmpty(owningType) && !StringUtil.isEmpty(propertyName))
 		{
-			// @formatter:off
-			List<QueryResult> functions = index.query(
-				new String[] { IJSIndexConstants.FUNCTION },
-				this.getMemberPattern(owningType, propertyName),
-				SearchPattern.PREFIX_MATCH | SearchPattern.CASE_SENSITIVE
-			);
-			// @formatter:on
+			List<QueryResult> functions = JSMemberTable.getTable(index, IJSIndexConstants.FUNCTION).getMembers(
+					stripGenericsFromType(owningType), propertyName);
 
 			return CollectionsUtil.map(functions, new IMap<QueryResult, FunctionElement>()
 			{
@@ -351,36 +339,60 @@ public class JSIndexReader extends IndexReader
 	}
 
 	/**
-	 * getMemberPattern
+	 * Looks up the members of the specified types in the member table of the given index category
 	 * 
+	 * @param index
+	 * @param category
 	 * @param typeNames
 	 * @return
 	 */
-	private String getMemberPattern(List<String> typeNames)
+	private List<QueryResult> getMembers(Index index, String category, List<String> typeNames)
 	{
-		typeNames = CollectionsUtil.map(typeNames, new IMap<String, String>()
+		JSMemberTable table = JSMemberTable.getTable(index, category);
+		Set<String> owningTypes = new LinkedHashSet<String>();
+
+		for (String typeName : typeNames)
 		{
-			public String map(String item)
-			{
-				return stripGenericsFromType(item);
-			}
-		});
-		String typePattern = RegexUtil.createQuotedListPattern(typeNames);
+			owningTypes.add(stripGenericsFromType(typeName));
+		}
+
+		List<QueryResult> result = new ArrayList<QueryResult>();
 
-		return MessageFormat.format("^{1}{0}", new Object[] { this.getDelimiter(), typePattern }); //$NON-NLS-1$
+		for (String owningType : owningTypes)
+		{
+			result.addAll(table.getMembers(owningType));
+		}
+
+		return result;
 	}
 
 	/**
-	 * getMemberPattern
+	 * Returns the names of the functions and properties of the specified types without decoding the members themselves
 	 * 
-	 * @param typeName
-	 * @param memberName
+	 * @param index
+	 * @param owningTypes
 	 * @return
 	 */
-	private String getMemberPattern(String typeName, String memberName)
+	public Set<String> getMemberNames(Index index, List<String> owningTypes)
 	{
-		return MessageFormat.format(
-				"{1}{0}{2}{0}", new Object[] { this.getDelimiter(), stripGenericsFromType(typeName), memberName }); //$NON-NLS-1$
+		if (index == null || CollectionsUtil.isEmpty(owningTypes))
+		{
+			return Collections.emptySet();
+		}
+
+		JSMemberTable functions = JSMemberTable.getTable(index, IJSIndexConstants.FUNCTION);
+		JSMemberTable properties = JSMemberTable.getTable(index, IJSIndexConstants.PROPERTY);
+		Set<String> result = new HashSet<String>();
+
+		for (String typeName : owningTypes)
+		{
+			String owningType = stripGenericsFromType(typeName);
+
+			result.addAll(functions.getMemberNames(owningType));
+			result.addAll(properties.getMemberNames(owningType));
+		}
+
+		return result;
 	}
 
 	/**
@@ -411,13 +423,7 @@ public class JSIndexReader extends IndexReader
 		if (index != null && !CollectionsUtil.isEmpty(owningTypes))
 		{
 			// read properties
-			// @formatter:off
-			List<QueryResult> properties = index.query(
-				new String[] { IJSIndexConstants.PROPERTY },
-				this.getMemberPattern(owningTypes),
-				SearchPattern.REGEX_MATCH | SearchPattern.CASE_SENSITIVE
-			);
-			// @formatter:on
+			List<QueryResult> properties = this.getMembers(index, IJSIndexConstants.PROPERTY, owningTypes);
 
 			return CollectionsUtil.map(properties, new IMap<QueryResult, PropertyElement>()
 			{
@@ -457,13 +463,8 @@ public class JSIndexReader extends IndexReader
 	{
 		if (index != null && !StringUtil.isEmpty(owningType) && !StringUtil.isEmpty(propertyName))
 		{
-			// @formatter:off
-			List<QueryResult> properties = index.query(
-				new String[] { IJSIndexConstants.PROPERTY },
-				this.getMemberPattern(owningType, propertyName),
-				SearchPattern.PREFIX_MATCH | SearchPattern.CASE_SENSITIVE
-			);
-			// @formatter:on
+			List<QueryResult> properties = JSMemberTable.getTable(index, IJSIndexConstants.PROPERTY).getMembers(
+					stripGenericsFromType(owningType), propertyName);
 
 			return CollectionsUtil.map(properties, new IMap<QueryResult, PropertyElement>()
 			{
@@ -0,0 +1,224 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.js.internal.core.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.aptana.index.core.Index;
+import com.aptana.index.core.QueryResult;
+import com.aptana.index.core.SearchPattern;
+import com.aptana.js.core.index.IJSIndexConstants;
+
+/**
+ * A table of the members (functions, properties or events) stored in one category of an index, keyed by owning type and
+ * member name. Member keys are written as "owningType DELIMITER name DELIMITER JSON". The table is built with a single
+ * pass over the category so member lookups become hash hits instead of regular expression scans over every key. The
+ * JSON column is left untouched, callers only decode the entries they actually return.
+ */
+class JSMemberTable
+{
+	/**
+	 * Tables per index and category. Indexes are only weakly referenced so tables go away with their index.
+	 */
+	private static final Map<Index, Map<String, JSMemberTable>> TABLES = new WeakHashMap<Index, Map<String, JSMemberTable>>();
+
+	/**
+	 * Returns the member table for the specified index category, building it if the index has been modified since the
+	 * cached table was built.
+	 * 
+	 * @param index
+	 * @param category
+	 * @return
+	 */
+	static JSMemberTable getTable(Index index, String category)
+	{
+		// grab the stamp before reading so changes made while we build cause a rebuild on the next request
+		long stamp = index.getModificationStamp();
+
+		synchronized (TABLES)
+		{
+			Map<String, JSMemberTable> tables = TABLES.get(index);
+
+			if (tables != null)
+			{
+				JSMemberTable table = tables.get(category);
+
+				if (table != null && table.stamp == stamp)
+				{
+					return table;
+				}
+			}
+		}
+
+		JSMemberTable table = new JSMemberTable(stamp);
+		table.load(index, category);
+
+		synchronized (TABLES)
+		{
+			Map<String, JSMemberTable> tables = TABLES.get(index);
+
+			if (tables == null)
+			{
+				tables = new HashMap<String, JSMemberTable>();
+				TABLES.put(index, tables);
+			}
+
+			JSMemberTable current = tables.get(category);
+
+			if (current == null || current.stamp < stamp)
+			{
+				tables.put(category, table);
+			}
+		}
+
+		return table;
+	}
+
+	private final long stamp;
+	private final Map<String, Map<String, List<QueryResult>>> members;
+
+	/**
+	 * JSMemberTable
+	 * 
+	 * @param stamp
+	 */
+	private JSMemberTable(long stamp)
+	{
+		this.stamp = stamp;
+		this.members = new HashMap<String, Map<String, List<QueryResult>>>();
+	}
+
+	/**
+	 * Returns all members of the specified type
+	 * 
+	 * @param owningType
+	 * @return
+	 */
+	List<QueryResult> getMembers(String owningType)
+	{
+		Map<String, List<QueryResult>> byName = members.get(owningType);
+
+		if (byName == null)
+		{
+			return Collections.emptyList();
+		}
+
+		List<QueryResult> result = new ArrayList<QueryResult>();
+
+		for (List<QueryResult> entries : byName.values())
+		{
+			result.addAll(entries);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the names of the members of the specified type. Nothing is decoded to answer this.
+	 * 
+	 * @param owningType
+	 * @return
+	 */
+	Set<String> getMemberNames(String owningType)
+	{
+		Map<String, List<QueryResult>> byName = members.get(owningType);
+
+		return (byName == null) ? Collections.<String> emptySet() : Collections.unmodifiableSet(byName.keySet());
+	}
+
+	/**
+	 * Returns the members of the specified type with the specified name
+	 * 
+	 * @param owningType
+	 * @param name
+	 * @return
+	 */
+	List<QueryResult> getMembers(String owningType, String name)
+	{
+		Map<String, List<QueryResult>> byName = members.get(owningType);
+
+		if (byName == null)
+		{
+			return Collections.emptyList();
+		}
+
+		List<QueryResult> entries = byName.get(name);
+
+		return (entries == null) ? Collections.<QueryResult> emptyList() : Collections.unmodifiableList(entries);
+	}
+
+	/**
+	 * Reads every key of the category once and files it under its owning type and name
+	 * 
+	 * @param index
+	 * @param category
+	 */
+	private void load(Index index, String category)
+	{
+		// @formatter:off
+		List<QueryResult> entries = index.query(
+			new String[] { category },
+			"*", //$NON-NLS-1$
+			SearchPattern.PATTERN_MATCH
+		);
+		// @formatter:on
+
+		if (entries == null)
+		{
+			return;
+		}
+
+		String delimiter = IJSIndexConstants.DELIMITER;
+
+		for (QueryResult entry : entries)
+		{
+			String word = entry.getWord();
+			int typeEnd = word.indexOf(delimiter);
+
+			if (typeEnd == -1)
+			{
+				continue;
+			}
+
+			int nameStart = typeEnd + delimiter.length();
+			int nameEnd = word.indexOf(delimiter, nameStart);
+
+			if (nameEnd == -1)
+			{
+				continue;
+			}
+
+			String owningType = word.substring(0, typeEnd);
+			String name = word.substring(nameStart, nameEnd);
+			Map<String, List<QueryResult>> byName = members.get(owningType);
+
+			if (byName == null)
+			{
+				byName = new HashMap<String, List<QueryResult>>();
+				members.put(owningType, byName);
+			}
+
+			List<QueryResult> named = byName.get(name);
+
+			if (named == null)
+			{
+				// most names have a single entry
+				named = new ArrayList<QueryResult>(1);
+				byName.put(name, named);
+			}
+
+			named.add(entry);
+		}
+	}
+}
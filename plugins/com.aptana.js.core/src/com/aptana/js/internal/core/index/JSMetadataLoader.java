@@ -28,6 +28,7 @@ import com.aptana.index.core.MetadataLoader;
 import com.aptana.js.core.JSCorePlugin;
 import com.aptana.js.core.index.IJSIndexConstants;
 import com.aptana.js.core.index.JSIndexQueryHelper;
+import com.aptana.js.core.inferencing.JSSymbolTableCache;
 import com.aptana.js.core.model.TypeElement;
 import com.aptana.js.core.preferences.IPreferenceConstants;
 
@@ -116,6 +117,9 @@ public class JSMetadataLoader extends MetadataLoader<JSMetadataReader>
 	{
 		super.postRebuild();
 
+		// inferred types may refer to metadata that changed
+		JSSymbolTableCache.getInstance().clear();
+
 		this.rebuildProjectIndexes();
 	}
 
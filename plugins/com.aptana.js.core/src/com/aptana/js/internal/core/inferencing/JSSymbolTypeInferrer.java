@@ -9,13 +9,11 @@ package com.aptana.js.internal.core.inferencing;
 
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
@@ -30,6 +28,7 @@ import com.aptana.core.util.StringUtil;
 import com.aptana.index.core.Index;
 import com.aptana.js.core.JSTypeConstants;
 import com.aptana.js.core.index.JSIndexQueryHelper;
+import com.aptana.js.core.inferencing.JSInferenceBudget;
 import com.aptana.js.core.inferencing.JSNodeTypeInferrer;
 import com.aptana.js.core.inferencing.JSPropertyCollection;
 import com.aptana.js.core.inferencing.JSScope;
@@ -57,6 +56,7 @@ public class JSSymbolTypeInferrer
 	private final URI location;
 	private final JSIndexWriter writer;
 	private final JSIndexQueryHelper queryHelper;
+	private final JSInferenceBudget budget;
 
 	/**
 	 * generateType
@@ -126,11 +126,27 @@ public class JSSymbolTypeInferrer
 	 *            The query helper that knows the build path order. We can lookup types/etc from it.
 	 */
 	public JSSymbolTypeInferrer(JSScope activeScope, Index index, URI location, JSIndexQueryHelper queryHelper)
+	{
+		this(activeScope, index, location, queryHelper, null);
+	}
+
+	/**
+	 * @param activeScope
+	 * @param index
+	 * @param location
+	 * @param queryHelper
+	 * @param budget
+	 *            The budget shared with the inferrer that created us. Once it's used up we return partial types and
+	 *            stop caching them or writing generated types to the index. May be null for unlimited inference
+	 */
+	public JSSymbolTypeInferrer(JSScope activeScope, Index index, URI location, JSIndexQueryHelper queryHelper,
+			JSInferenceBudget budget)
 	{
 		this.index = index;
 		this.activeScope = activeScope;
 		this.location = location;
 		this.queryHelper = queryHelper;
+		this.budget = budget;
 		this.writer = new JSIndexWriter();
 	}
 
@@ -255,7 +271,7 @@ public class JSSymbolTypeInferrer
 	 */
 	private List<String> getAdditionalProperties(JSPropertyCollection activeObject, Set<String> types)
 	{
-		Map<String, PropertyElement> propertyMap = this.getTypePropertyMap(types);
+		Set<String> propertyNames = this.getTypePropertyNames(types);
 		List<String> additionalProperties = new ArrayList<String>();
 
 		// create a list of properties that are not in the ancestor chain of the
@@ -263,7 +279,7 @@ public class JSSymbolTypeInferrer
 		for (String name : activeObject.getPropertyNames())
 		{
 			// TODO: Treat as new property if names match but not their types?
-			if (!propertyMap.containsKey(name) || JSTypeConstants.PROTOTYPE_PROPERTY.equals(name))
+			if (!propertyNames.contains(name) || JSTypeConstants.PROTOTYPE_PROPERTY.equals(name))
 			{
 				additionalProperties.add(name);
 			}
@@ -394,8 +410,11 @@ public class JSSymbolTypeInferrer
 			// apply any docs info we have to the property
 			this.applyDocumentation(result, property, sub.newChild(10));
 
-			// Cache the property we generated for this collection!
-			property.setElement(result);
+			// Cache the property we generated for this collection, unless it's only partially inferred
+			if (!isOverBudget())
+			{
+				property.setElement(result);
+			}
 		}
 		else
 		{
@@ -421,14 +440,14 @@ public class JSSymbolTypeInferrer
 	}
 
 	/**
-	 * Generate a mapping of property names to their property elements. The properties are a collection generated from
-	 * the specified list of types and of those type's ancestor types
+	 * Generate a set of property names. The properties are a collection generated from the specified list of types and
+	 * of those type's ancestor types
 	 * 
 	 * @param types
 	 *            A set of type names
-	 * @return Returns a map of property name to property element
+	 * @return Returns a set of property names
 	 */
-	private Map<String, PropertyElement> getTypePropertyMap(Set<String> types)
+	private Set<String> getTypePropertyNames(Set<String> types)
 	{
 		// create a unique set of type names and their ancestor types
 		Set<String> ancestors = new HashSet<String>();
@@ -436,22 +455,19 @@ public class JSSymbolTypeInferrer
 		for (String type : types)
 		{
 			ancestors.add(type);
-			ancestors.addAll(queryHelper.getTypeAncestorNames(type));
+			if (startQuery())
+			{
+				ancestors.addAll(queryHelper.getTypeAncestorNames(type));
+			}
 		}
 
-		// grab property elements for all collected types
-		List<String> typesAndAncestors = new ArrayList<String>(ancestors);
-		Collection<PropertyElement> typeMembers = queryHelper.getTypeMembers(typesAndAncestors);
-
-		// generate map of property name to its property element
-		Map<String, PropertyElement> propertyMap = new HashMap<String, PropertyElement>();
-
-		for (PropertyElement propertyElement : typeMembers)
+		if (!startQuery())
 		{
-			propertyMap.put(propertyElement.getName(), propertyElement);
+			return Collections.emptySet();
 		}
 
-		return propertyMap;
+		// only names are needed, so the property elements themselves are never decoded
+		return queryHelper.getTypeMemberNames(new ArrayList<String>(ancestors));
 	}
 
 	/**
@@ -532,6 +548,10 @@ public class JSSymbolTypeInferrer
 						int work = 70 / additionalProperties.size();
 						for (String pname : additionalProperties)
 						{
+							if (isOverBudget())
+							{
+								break;
+							}
 							PropertyElement pe = this.getSymbolPropertyElement(property, pname, sub.newChild(work));
 							pe.setIsClassProperty(true);
 							subType.addProperty(pe);
@@ -552,12 +572,20 @@ public class JSSymbolTypeInferrer
 
 				sub.setWorkRemaining(5);
 
-				// push type to the current index
-				this.writeType(subType);
+				if (isOverBudget())
+				{
+					// don't keep or publish a partially inferred type
+					property.clearTypes();
+				}
+				else
+				{
+					// push type to the current index
+					this.writeType(subType);
+				}
 				sub.worked(5);
 			}
 		}
-		else
+		else if (!isOverBudget())
 		{
 			for (String typeName : types)
 			{
@@ -588,6 +616,10 @@ public class JSSymbolTypeInferrer
 			{
 				throw new OperationCanceledException();
 			}
+			if (isOverBudget())
+			{
+				break;
+			}
 
 			boolean isFunction = value instanceof JSFunctionNode;
 			DocumentationBlock docs = value.getDocumentation();
@@ -627,7 +659,27 @@ public class JSSymbolTypeInferrer
 	private JSNodeTypeInferrer getNodeInferrer(SubMonitor sub)
 	{
 		// FIXME Keep one around and re-use it? Can we just pass in a new monitor?
-		return new JSNodeTypeInferrer(activeScope, index, location, queryHelper, sub);
+		return new JSNodeTypeInferrer(activeScope, index, location, queryHelper, sub, budget);
+	}
+
+	/**
+	 * Determine if our budget, if any, has been used up
+	 * 
+	 * @return
+	 */
+	private boolean isOverBudget()
+	{
+		return budget != null && budget.isExhausted();
+	}
+
+	/**
+	 * Charge an index query against our budget, if any
+	 * 
+	 * @return false if the budget is used up and the query should be skipped
+	 */
+	private boolean startQuery()
+	{
+		return budget == null || budget.queryIndex();
 	}
 
 	/**
@@ -0,0 +1,309 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.js.internal.core.inferencing;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+
+import com.aptana.core.logging.IdeLog;
+import com.aptana.core.util.StringUtil;
+import com.aptana.js.core.JSCorePlugin;
+
+/**
+ * Remembers what require() calls resolved to, keyed by module id, project, requiring directory and index root, along
+ * with listings of the node_modules directories probed along the way. Everything is forgotten as soon as a file is
+ * added to or removed from the workspace or a package.json in it changes. Changes to directories outside the workspace,
+ * like global node module folders, aren't noticed until then.
+ */
+public class ModuleResolutionCache implements IResourceChangeListener
+{
+	/**
+	 * The packages found directly below a node_modules directory
+	 */
+	public static class PackageListing
+	{
+		private final Set<String> names;
+		private final Map<String, String> mainFiles;
+
+		/**
+		 * PackageListing
+		 * 
+		 * @param names
+		 *            the lower-cased names of the directory's children
+		 * @param mainFiles
+		 *            the main file declared in package.json by each package that declares one
+		 */
+		public PackageListing(Set<String> names, Map<String, String> mainFiles)
+		{
+			this.names = names;
+			this.mainFiles = mainFiles;
+		}
+
+		/**
+		 * Returns the main file declared by the specified package or null if it doesn't declare one
+		 * 
+		 * @param packageName
+		 * @return
+		 */
+		public String getMainFile(String packageName)
+		{
+			return mainFiles.get(packageName);
+		}
+
+		/**
+		 * Determines if the directory may hold the specified module, either as a package or as a file. Names are
+		 * compared ignoring case to stay on the safe side on case-insensitive file systems.
+		 * 
+		 * @param name
+		 * @param extensions
+		 * @return
+		 */
+		public boolean mayContain(String name, String... extensions)
+		{
+			String lowerCaseName = name.toLowerCase();
+
+			if (names.contains(lowerCaseName))
+			{
+				return true;
+			}
+			for (String extension : extensions)
+			{
+				if (names.contains(lowerCaseName + '.' + extension))
+				{
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
+
+	/**
+	 * The number of resolutions we remember
+	 */
+	private static final int MAX_RESOLUTIONS = 1000;
+
+	/**
+	 * Recorded for module ids that couldn't be resolved
+	 */
+	private static final IPath UNRESOLVED = Path.EMPTY;
+
+	private static final String PACKAGE_JSON = "package.json"; //$NON-NLS-1$
+
+	private static ModuleResolutionCache INSTANCE;
+
+	/**
+	 * Returns the shared cache
+	 * 
+	 * @return
+	 */
+	public static synchronized ModuleResolutionCache getInstance()
+	{
+		if (INSTANCE == null)
+		{
+			INSTANCE = new ModuleResolutionCache();
+		}
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the key of the resolution of a module id from the specified location
+	 * 
+	 * @param moduleId
+	 * @param project
+	 * @param currentDirectory
+	 * @param indexRoot
+	 * @return
+	 */
+	public static String getKey(String moduleId, IProject project, IPath currentDirectory, IPath indexRoot)
+	{
+		StringBuilder builder = new StringBuilder();
+
+		builder.append(moduleId).append('\n');
+		builder.append((project != null) ? project.getName() : StringUtil.EMPTY).append('\n');
+		builder.append(currentDirectory).append('\n');
+		builder.append(indexRoot);
+
+		return builder.toString();
+	}
+
+	private final Map<String, IPath> resolutions;
+	private final Map<IPath, PackageListing> packageListings;
+	private long generation;
+
+	/**
+	 * ModuleResolutionCache
+	 */
+	private ModuleResolutionCache()
+	{
+		resolutions = new LinkedHashMap<String, IPath>(MAX_RESOLUTIONS, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, IPath> eldest)
+			{
+				return size() > MAX_RESOLUTIONS;
+			}
+		};
+		packageListings = new HashMap<IPath, PackageListing>();
+	}
+
+	/**
+	 * Forget all resolutions and listings
+	 */
+	public synchronized void clear()
+	{
+		resolutions.clear();
+		packageListings.clear();
+		generation++;
+	}
+
+	/**
+	 * Returns the current generation of the cache. Callers grab this before resolving something so results computed
+	 * from files that changed in the meantime don't get cached.
+	 * 
+	 * @return
+	 */
+	public synchronized long getGeneration()
+	{
+		return generation;
+	}
+
+	/**
+	 * Returns the cached listing of the specified node_modules directory or null if it hasn't been scanned
+	 * 
+	 * @param directory
+	 * @return
+	 */
+	public synchronized PackageListing getPackageListing(IPath directory)
+	{
+		return packageListings.get(directory);
+	}
+
+	/**
+	 * Returns the cached resolution for the specified key, {@link IPath#isEmpty() an empty path} if the module
+	 * couldn't be resolved, or null if it hasn't been resolved yet
+	 * 
+	 * @param key
+	 * @return
+	 */
+	public synchronized IPath getResolution(String key)
+	{
+		return resolutions.get(key);
+	}
+
+	/**
+	 * Caches the listing of the specified node_modules directory
+	 * 
+	 * @param directory
+	 * @param listing
+	 * @param scannedGeneration
+	 *            the generation grabbed before scanning the directory
+	 */
+	public synchronized void putPackageListing(IPath directory, PackageListing listing, long scannedGeneration)
+	{
+		if (scannedGeneration == generation)
+		{
+			packageListings.put(directory, listing);
+		}
+	}
+
+	/**
+	 * Caches the resolution for the specified key
+	 * 
+	 * @param key
+	 * @param path
+	 *            the resolved path or null if the module couldn't be resolved
+	 * @param resolvedGeneration
+	 *            the generation grabbed before resolving the module
+	 */
+	public synchronized void putResolution(String key, IPath path, long resolvedGeneration)
+	{
+		if (resolvedGeneration == generation)
+		{
+			resolutions.put(key, (path != null) ? path : UNRESOLVED);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see
+	 * org.eclipse.core.resources.IResourceChangeListener#resourceChanged(org.eclipse.core.resources.IResourceChangeEvent
+	 * )
+	 */
+	public void resourceChanged(IResourceChangeEvent event)
+	{
+		IResourceDelta delta = event.getDelta();
+
+		if (delta == null)
+		{
+			return;
+		}
+
+		final boolean[] affectsResolution = new boolean[1];
+
+		try
+		{
+			delta.accept(new IResourceDeltaVisitor()
+			{
+				public boolean visit(IResourceDelta child) throws CoreException
+				{
+					if (affectsResolution[0])
+					{
+						return false;
+					}
+
+					switch (child.getKind())
+					{
+						case IResourceDelta.ADDED:
+						case IResourceDelta.REMOVED:
+							affectsResolution[0] = true;
+							return false;
+
+						case IResourceDelta.CHANGED:
+							IResource resource = child.getResource();
+
+							if (resource.getType() == IResource.FILE && PACKAGE_JSON.equals(resource.getName())
+									&& (child.getFlags() & IResourceDelta.CONTENT) != 0)
+							{
+								affectsResolution[0] = true;
+								return false;
+							}
+							return true;
+
+						default:
+							return true;
+					}
+				}
+			});
+		}
+		catch (CoreException e)
+		{
+			IdeLog.logError(JSCorePlugin.getDefault(), e);
+			affectsResolution[0] = true;
+		}
+
+		if (affectsResolution[0])
+		{
+			clear();
+		}
+	}
+}
@@ -10,6 +10,7 @@ package com.aptana.js.internal.core.inferencing;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +30,7 @@ import com.aptana.js.core.JSCorePlugin;
 import com.aptana.js.core.inferencing.AbstractRequireResolver;
 import com.aptana.js.core.node.INodeJS;
 import com.aptana.js.core.node.INodePackageManager;
+import com.aptana.js.internal.core.inferencing.ModuleResolutionCache.PackageListing;
 
 /**
  * See http://nodejs.org/api/modules.html#modules_all_together
@@ -51,15 +53,12 @@ public class NodeModuleResolver extends AbstractRequireResolver
 			"querystring", "readline", "repl", "stream", "string_decoder", "sys", "timers", "tls", "tty", "url",
 			"util", "vm", "zlib");
 
-	private IPath location;
-
 	public IPath resolve(String moduleId, IProject project, IPath location, IPath indexRoot)
 	{
 		if (!location.toFile().isDirectory())
 		{
 			throw new IllegalArgumentException("location must be a directory"); //$NON-NLS-1$
 		}
-		this.location = location;
 
 		IPath result = null;
 		if (isCore(moduleId))
@@ -130,8 +129,16 @@ public class NodeModuleResolver extends AbstractRequireResolver
 	private IPath loadNodeModules(String x, IPath start)
 	{
 		List<IPath> dirs = nodeModulesPaths(start);
+		String name = Path.fromPortableString(x).segment(0);
 		for (IPath dir : dirs)
 		{
+			// Most node_modules directories up the tree don't hold the module, or don't exist at all. Check their
+			// listing rather than probing for each possible file
+			if (name != null && !getPackageListing(dir).mayContain(name, JS, NODE))
+			{
+				continue;
+			}
+
 			IPath path = loadAsFile(dir.append(x), NODE);
 			if (path == null)
 			{
@@ -145,6 +152,70 @@ public class NodeModuleResolver extends AbstractRequireResolver
 		return null;
 	}
 
+	/**
+	 * Returns the main file of packages directly below a node_modules directory from the directory's listing, scanning
+	 * all of its packages at once the first time
+	 */
+	@Override
+	protected String getPackageMainFile(IPath directory)
+	{
+		IPath parent = directory.removeLastSegments(1);
+		if (directory.segmentCount() > 0 && NODE_MODULES.equals(parent.lastSegment()))
+		{
+			return getPackageListing(parent).getMainFile(directory.lastSegment());
+		}
+		return super.getPackageMainFile(directory);
+	}
+
+	/**
+	 * Returns the listing of the specified node_modules directory, scanning it if it isn't cached
+	 * 
+	 * @param directory
+	 * @return
+	 */
+	private PackageListing getPackageListing(IPath directory)
+	{
+		ModuleResolutionCache cache = ModuleResolutionCache.getInstance();
+		PackageListing listing = cache.getPackageListing(directory);
+		if (listing == null)
+		{
+			long generation = cache.getGeneration();
+			listing = scanPackages(directory);
+			cache.putPackageListing(directory, listing, generation);
+		}
+		return listing;
+	}
+
+	/**
+	 * Lists the children of a node_modules directory, reading the main file of each package in it
+	 * 
+	 * @param directory
+	 * @return
+	 */
+	private PackageListing scanPackages(IPath directory)
+	{
+		Set<String> names = new HashSet<String>();
+		Map<String, String> mainFiles = new HashMap<String, String>();
+		File[] children = directory.toFile().listFiles();
+		if (children != null)
+		{
+			for (File child : children)
+			{
+				String name = child.getName();
+				names.add(name.toLowerCase());
+				if (child.isDirectory())
+				{
+					String mainFile = super.getPackageMainFile(directory.append(name));
+					if (mainFile != null)
+					{
+						mainFiles.put(name, mainFile);
+					}
+				}
+			}
+		}
+		return new PackageListing(names, mainFiles);
+	}
+
 	private List<IPath> nodeModulesPaths(IPath start)
 	{
 		String[] parts = start.segments();
@@ -172,11 +243,11 @@ public class NodeModuleResolver extends AbstractRequireResolver
 		}
 
 		// Search global folders, see http://nodejs.org/api/modules.html#modules_loading_from_the_global_folders
-		dirs.addAll(globalFolders());
+		dirs.addAll(globalFolders(start));
 		return dirs;
 	}
 
-	private Collection<? extends IPath> globalFolders()
+	private Collection<? extends IPath> globalFolders(IPath location)
 	{
 		List<IPath> dirs = new ArrayList<IPath>();
 		// FIXME Handle properly on Windows...
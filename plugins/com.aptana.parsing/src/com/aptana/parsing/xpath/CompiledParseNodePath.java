@@ -0,0 +1,443 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.parsing.xpath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jaxen.expr.EqualityExpr;
+import org.jaxen.expr.Expr;
+import org.jaxen.expr.FunctionCallExpr;
+import org.jaxen.expr.LiteralExpr;
+import org.jaxen.expr.LocationPath;
+import org.jaxen.expr.NameStep;
+import org.jaxen.expr.NumberExpr;
+import org.jaxen.expr.PathExpr;
+import org.jaxen.expr.Predicate;
+import org.jaxen.expr.UnionExpr;
+import org.jaxen.saxpath.Axis;
+
+import com.aptana.core.util.StringUtil;
+import com.aptana.parsing.ast.IParseNode;
+import com.aptana.parsing.ast.IParseNodeAttribute;
+
+/**
+ * An XPath expression evaluated by walking {@link IParseNode} trees directly rather than through Jaxen's navigator and
+ * iterators. Only the subset of XPath used on our ASTs is supported: unions of absolute or relative paths made of
+ * child steps testing element names (or *), each optionally filtered by position ([1], [position() = 1]) or by
+ * attribute value ([@name='value']).
+ */
+class CompiledParseNodePath
+{
+	/**
+	 * Filters the nodes a step selected from one context node
+	 */
+	private static abstract class StepPredicate
+	{
+		abstract List<IParseNode> filter(List<IParseNode> nodes);
+	}
+
+	private static class PositionPredicate extends StepPredicate
+	{
+		private final int position;
+
+		private PositionPredicate(int position)
+		{
+			this.position = position;
+		}
+
+		List<IParseNode> filter(List<IParseNode> nodes)
+		{
+			if (position > nodes.size())
+			{
+				return Collections.emptyList();
+			}
+			return Collections.singletonList(nodes.get(position - 1));
+		}
+	}
+
+	private static class AttributePredicate extends StepPredicate
+	{
+		private final String name;
+		private final String value;
+
+		private AttributePredicate(String name, String value)
+		{
+			this.name = name;
+			this.value = value;
+		}
+
+		List<IParseNode> filter(List<IParseNode> nodes)
+		{
+			List<IParseNode> result = new ArrayList<IParseNode>(nodes.size());
+			for (IParseNode node : nodes)
+			{
+				IParseNodeAttribute[] attributes = node.getAttributes();
+				if (attributes == null)
+				{
+					continue;
+				}
+				for (IParseNodeAttribute attribute : attributes)
+				{
+					if (name.equals(attribute.getName()) && value.equals(attribute.getValue()))
+					{
+						result.add(node);
+						break;
+					}
+				}
+			}
+			return result;
+		}
+	}
+
+	private static class Step
+	{
+		/**
+		 * The element name to match or null for any element
+		 */
+		private final String name;
+		private final List<StepPredicate> predicates;
+
+		private Step(String name, List<StepPredicate> predicates)
+		{
+			this.name = name;
+			this.predicates = predicates;
+		}
+	}
+
+	private static class Path
+	{
+		private final boolean absolute;
+		private final List<Step> steps;
+
+		private Path(boolean absolute, List<Step> steps)
+		{
+			this.absolute = absolute;
+			this.steps = steps;
+		}
+	}
+
+	/**
+	 * Compile the specified expression, as parsed by Jaxen
+	 * 
+	 * @param expr
+	 * @param navigator
+	 *            the navigator whose element names are matched, so case insensitivity is honored
+	 * @return the compiled expression or null if the expression uses anything outside of the supported subset
+	 */
+	static CompiledParseNodePath compile(Expr expr, ParseNodeNavigator navigator)
+	{
+		List<Path> paths = new ArrayList<Path>();
+
+		if (!addPaths(expr, paths))
+		{
+			return null;
+		}
+
+		return new CompiledParseNodePath(paths, navigator);
+	}
+
+	private static boolean addPaths(Expr expr, List<Path> paths)
+	{
+		if (expr instanceof UnionExpr)
+		{
+			UnionExpr union = (UnionExpr) expr;
+
+			return addPaths(union.getLHS(), paths) && addPaths(union.getRHS(), paths);
+		}
+
+		LocationPath locationPath = getLocationPath(expr);
+		if (locationPath == null)
+		{
+			return false;
+		}
+
+		List<Step> steps = new ArrayList<Step>();
+		for (Object item : locationPath.getSteps())
+		{
+			if (!(item instanceof NameStep))
+			{
+				return false;
+			}
+
+			NameStep nameStep = (NameStep) item;
+			if (nameStep.getAxis() != Axis.CHILD || !StringUtil.isEmpty(nameStep.getPrefix()))
+			{
+				return false;
+			}
+
+			List<StepPredicate> predicates = new ArrayList<StepPredicate>();
+			for (Object predicate : nameStep.getPredicates())
+			{
+				StepPredicate stepPredicate = compilePredicate(((Predicate) predicate).getExpr());
+				if (stepPredicate == null)
+				{
+					return false;
+				}
+				predicates.add(stepPredicate);
+			}
+
+			String name = nameStep.getLocalName();
+			steps.add(new Step("*".equals(name) ? null : name, predicates)); //$NON-NLS-1$
+		}
+
+		paths.add(new Path(locationPath.isAbsolute(), steps));
+		return true;
+	}
+
+	private static StepPredicate compilePredicate(Expr expr)
+	{
+		if (expr instanceof NumberExpr)
+		{
+			return compilePosition((NumberExpr) expr);
+		}
+		if (!(expr instanceof EqualityExpr) || !"=".equals(((EqualityExpr) expr).getOperator())) //$NON-NLS-1$
+		{
+			return null;
+		}
+
+		Expr lhs = ((EqualityExpr) expr).getLHS();
+		Expr rhs = ((EqualityExpr) expr).getRHS();
+		if (rhs instanceof NumberExpr || rhs instanceof LiteralExpr)
+		{
+			// put the constant on the left
+			Expr temp = lhs;
+			lhs = rhs;
+			rhs = temp;
+		}
+
+		if (lhs instanceof NumberExpr && isPositionCall(rhs))
+		{
+			return compilePosition((NumberExpr) lhs);
+		}
+		if (lhs instanceof LiteralExpr)
+		{
+			String attributeName = getAttributeName(rhs);
+			if (attributeName != null)
+			{
+				return new AttributePredicate(attributeName, ((LiteralExpr) lhs).getLiteral());
+			}
+		}
+
+		return null;
+	}
+
+	private static StepPredicate compilePosition(NumberExpr expr)
+	{
+		double number = expr.getNumber().doubleValue();
+		int position = (int) number;
+
+		return (position == number && position > 0) ? new PositionPredicate(position) : null;
+	}
+
+	private static boolean isPositionCall(Expr expr)
+	{
+		if (!(expr instanceof FunctionCallExpr))
+		{
+			return false;
+		}
+
+		FunctionCallExpr call = (FunctionCallExpr) expr;
+		return StringUtil.isEmpty(call.getPrefix()) && "position".equals(call.getFunctionName()) //$NON-NLS-1$
+				&& call.getParameters().isEmpty();
+	}
+
+	/**
+	 * Returns the name of the attribute if the expression is a plain @name path
+	 * 
+	 * @param expr
+	 * @return
+	 */
+	private static String getAttributeName(Expr expr)
+	{
+		LocationPath locationPath = getLocationPath(expr);
+		if (locationPath == null || locationPath.isAbsolute() || locationPath.getSteps().size() != 1)
+		{
+			return null;
+		}
+
+		Object step = locationPath.getSteps().get(0);
+		if (!(step instanceof NameStep))
+		{
+			return null;
+		}
+
+		NameStep nameStep = (NameStep) step;
+		if (nameStep.getAxis() != Axis.ATTRIBUTE || !StringUtil.isEmpty(nameStep.getPrefix())
+				|| !nameStep.getPredicates().isEmpty() || "*".equals(nameStep.getLocalName())) //$NON-NLS-1$
+		{
+			return null;
+		}
+
+		return nameStep.getLocalName();
+	}
+
+	private static LocationPath getLocationPath(Expr expr)
+	{
+		if (expr instanceof PathExpr)
+		{
+			PathExpr pathExpr = (PathExpr) expr;
+
+			return (pathExpr.getFilterExpr() == null) ? pathExpr.getLocationPath() : null;
+		}
+
+		return (expr instanceof LocationPath) ? (LocationPath) expr : null;
+	}
+
+	private final List<Path> paths;
+	private final ParseNodeNavigator navigator;
+
+	/**
+	 * CompiledParseNodePath
+	 * 
+	 * @param paths
+	 * @param navigator
+	 */
+	private CompiledParseNodePath(List<Path> paths, ParseNodeNavigator navigator)
+	{
+		this.paths = paths;
+		this.navigator = navigator;
+	}
+
+	/**
+	 * Return the nodes selected from the specified context node, in document order
+	 * 
+	 * @param context
+	 * @return
+	 */
+	List<IParseNode> select(IParseNode context)
+	{
+		if (paths.size() == 1)
+		{
+			return select(paths.get(0), context);
+		}
+
+		// union, drop the nodes selected by more than one path and sort the rest
+		Map<IParseNode, Boolean> selected = new IdentityHashMap<IParseNode, Boolean>();
+		List<IParseNode> result = new ArrayList<IParseNode>();
+		for (Path path : paths)
+		{
+			for (IParseNode node : select(path, context))
+			{
+				if (selected.put(node, Boolean.TRUE) == null)
+				{
+					result.add(node);
+				}
+			}
+		}
+		if (result.size() > 1)
+		{
+			sortInDocumentOrder(result);
+		}
+
+		return result;
+	}
+
+	private List<IParseNode> select(Path path, IParseNode context)
+	{
+		IParseNode start = context;
+		if (path.absolute)
+		{
+			while (start.getParent() != null)
+			{
+				start = start.getParent();
+			}
+		}
+
+		// Since only the child axis is supported and every context node is the child of a different parent, each step
+		// yields nodes in document order without duplicates
+		List<IParseNode> nodes = new ArrayList<IParseNode>(1);
+		nodes.add(start);
+		for (Step step : path.steps)
+		{
+			List<IParseNode> next = new ArrayList<IParseNode>();
+			for (IParseNode node : nodes)
+			{
+				List<IParseNode> matches = new ArrayList<IParseNode>();
+				for (IParseNode child : node.getChildren())
+				{
+					if (step.name == null || step.name.equals(navigator.getElementName(child)))
+					{
+						matches.add(child);
+					}
+				}
+				for (StepPredicate predicate : step.predicates)
+				{
+					if (matches.isEmpty())
+					{
+						break;
+					}
+					matches = predicate.filter(matches);
+				}
+				next.addAll(matches);
+			}
+			if (next.isEmpty())
+			{
+				return next;
+			}
+			nodes = next;
+		}
+
+		return nodes;
+	}
+
+	private static void sortInDocumentOrder(List<IParseNode> nodes)
+	{
+		final Map<IParseNode, int[]> locations = new IdentityHashMap<IParseNode, int[]>();
+		for (IParseNode node : nodes)
+		{
+			locations.put(node, getLocation(node));
+		}
+
+		Collections.sort(nodes, new Comparator<IParseNode>()
+		{
+			public int compare(IParseNode o1, IParseNode o2)
+			{
+				int[] l1 = locations.get(o1);
+				int[] l2 = locations.get(o2);
+				int length = Math.min(l1.length, l2.length);
+				for (int i = 0; i < length; i++)
+				{
+					if (l1[i] != l2[i])
+					{
+						return (l1[i] < l2[i]) ? -1 : 1;
+					}
+				}
+				// ancestors come before their descendants
+				return l1.length - l2.length;
+			}
+		});
+	}
+
+	/**
+	 * Returns the child indexes leading from the root to the node
+	 * 
+	 * @param node
+	 * @return
+	 */
+	private static int[] getLocation(IParseNode node)
+	{
+		List<Integer> indexes = new ArrayList<Integer>();
+		for (IParseNode current = node; current.getParent() != null; current = current.getParent())
+		{
+			indexes.add(current.getIndex());
+		}
+
+		int size = indexes.size();
+		int[] location = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			location[i] = indexes.get(size - 1 - i);
+		}
+		return location;
+	}
+}
@@ -7,27 +7,52 @@
  */
 package com.aptana.parsing.xpath;
 
+import java.util.List;
+
 import org.jaxen.BaseXPath;
 import org.jaxen.JaxenException;
 
+import com.aptana.parsing.ast.IParseNode;
+
 /**
+ * An XPath over parse nodes. Expressions within the subset supported by {@link CompiledParseNodePath} are evaluated by
+ * walking the tree directly when the context is a single node, everything else goes through Jaxen.
+ * 
  * @author Kevin Lindsey
  */
 public class ParseNodeXPath extends BaseXPath
 {
 	private static final long serialVersionUID = -5097831277212173034L;
 
+	private final transient CompiledParseNodePath compiledPath;
+
 	/**
 	 * @param xpathExpr
 	 * @throws JaxenException
 	 */
 	public ParseNodeXPath(String xpathExpr) throws JaxenException
 	{
-		super(xpathExpr, ParseNodeNavigator.getInstance());
+		this(xpathExpr, ParseNodeNavigator.getInstance());
 	}
 
 	public ParseNodeXPath(String xpathExpr, ParseNodeNavigator navigator) throws JaxenException
 	{
 		super(xpathExpr, navigator);
+		compiledPath = CompiledParseNodePath.compile(getRootExpr(), navigator);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.jaxen.BaseXPath#selectNodes(java.lang.Object)
+	 */
+	@SuppressWarnings("rawtypes")
+	@Override
+	public List selectNodes(Object node) throws JaxenException
+	{
+		if (compiledPath != null && node instanceof IParseNode)
+		{
+			return compiledPath.select((IParseNode) node);
+		}
+		return super.selectNodes(node);
 	}
 }
@@ -19,4 +19,10 @@ public interface IScriptingSystemProperties
 	 */
 	public static String RUBLE_USER_LOCATION = "studio.rubleUserLocation"; //$NON-NLS-1$
 
+	/**
+	 * The number of JRuby runtimes bundles get spread across. Commands from bundles loaded in different runtimes can
+	 * execute concurrently. A value of 1 loads and runs everything in a single runtime.
+	 */
+	public static String RUNTIME_POOL_SIZE = "studio.rubleRuntimePoolSize"; //$NON-NLS-1$
+
 }
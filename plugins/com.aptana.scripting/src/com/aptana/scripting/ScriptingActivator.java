@@ -105,6 +105,8 @@ public class ScriptingActivator extends Plugin
 				}
 				else
 				{
+					// spin up the pooled runtimes while the bundles get located
+					ScriptingEngine.getInstance().warmUp();
 					manager.loadBundles();
 				}
 
@@ -19,8 +19,12 @@ import java.util.Set;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.jruby.embed.LocalContextScope;
 import org.jruby.embed.LocalVariableBehavior;
 import org.jruby.embed.ScriptingContainer;
@@ -31,6 +35,8 @@ import com.aptana.core.util.CollectionsUtil;
 import com.aptana.core.util.EclipseUtil;
 import com.aptana.core.util.IConfigurationElementProcessor;
 import com.aptana.core.util.ResourceUtil;
+import com.aptana.core.util.StringUtil;
+import com.aptana.scripting.model.BundleManager;
 import com.aptana.scripting.model.RunType;
 import com.aptana.scripting.model.ScriptLoadJob;
 
@@ -46,13 +52,51 @@ public class ScriptingEngine
 	private static final String TAG_LOADPATH = "loadPath"; //$NON-NLS-1$
 	private static final String ATTR_PATH = "path"; //$NON-NLS-1$
 
+	// upper bound for the default number of runtimes, each one carries its own copy of the ruble framework
+	private static final int MAX_DEFAULT_POOL_SIZE = 4;
+
 	private static ScriptingEngine instance;
 
-	private ScriptingContainer _scriptingContainer;
+	private RuntimeSlot[] _runtimes;
 	private List<String> _loadPaths;
 	private List<String> _frameworkFiles;
 	private RunType _runType;
-	private boolean initialized;
+
+	/**
+	 * Holds one scripting container of the pool. Slots are locked individually so containers can be created and
+	 * initialized concurrently.
+	 */
+	private class RuntimeSlot
+	{
+		private final LocalContextScope scope;
+		private ScriptingContainer container;
+		private boolean initialized;
+
+		RuntimeSlot(LocalContextScope scope)
+		{
+			this.scope = scope;
+		}
+
+		synchronized ScriptingContainer getContainer()
+		{
+			if (container == null)
+			{
+				container = createScriptingContainer(scope);
+			}
+			return container;
+		}
+
+		synchronized ScriptingContainer getInitializedContainer()
+		{
+			ScriptingContainer sc = getContainer();
+			if (!initialized)
+			{
+				sc.runScriptlet("require 'ruble'"); //$NON-NLS-1$
+				initialized = true;
+			}
+			return sc;
+		}
+	}
 
 	/**
 	 * ScriptingEngine
@@ -60,6 +104,43 @@ public class ScriptingEngine
 	private ScriptingEngine()
 	{
 		this._runType = ScriptingActivator.getDefaultRunType();
+
+		int size = getRuntimePoolSize();
+		this._runtimes = new RuntimeSlot[size];
+		// The first runtime is the global one used for everything not tied to a bundle
+		this._runtimes[0] = new RuntimeSlot(LocalContextScope.SINGLETON);
+		for (int i = 1; i < size; i++)
+		{
+			// CONCURRENT keeps a single runtime per container while giving each thread its own local context.
+			// THREADSAFE would hand every calling thread a separate runtime and defeat the pool.
+			this._runtimes[i] = new RuntimeSlot(LocalContextScope.CONCURRENT);
+		}
+	}
+
+	/**
+	 * Determine how many runtimes bundles get spread across
+	 * 
+	 * @return
+	 */
+	private static int getRuntimePoolSize()
+	{
+		int size = Math.min(Runtime.getRuntime().availableProcessors(), MAX_DEFAULT_POOL_SIZE);
+		String value = System.getProperty(IScriptingSystemProperties.RUNTIME_POOL_SIZE);
+
+		if (!StringUtil.isEmpty(value))
+		{
+			try
+			{
+				size = Integer.parseInt(value.trim());
+			}
+			catch (NumberFormatException e)
+			{
+				IdeLog.logWarning(ScriptingActivator.getDefault(), MessageFormat.format(
+						"Invalid value for {0}: {1}", IScriptingSystemProperties.RUNTIME_POOL_SIZE, value)); //$NON-NLS-1$
+			}
+		}
+
+		return Math.max(1, size);
 	}
 
 	/**
@@ -94,8 +175,6 @@ public class ScriptingEngine
 
 			result.setHomeDirectory(jrubyHome.getAbsolutePath());
 
-			// TODO Generate two containers? A global one for loading bundles, a threadsafe one for executing
-			// commands/snippets/etc?
 			// Pre-load 'ruble' framework files!
 			List<String> loadPaths = result.getLoadPaths();
 			loadPaths.addAll(0, getContributedLoadPaths());
@@ -219,18 +298,83 @@ public class ScriptingEngine
 	}
 
 	/**
-	 * getScriptingContainer
+	 * Returns the global scripting container. This is the runtime used for anything not tied to a specific bundle.
+	 * 
+	 * @return
+	 */
+	public ScriptingContainer getScriptingContainer()
+	{
+		return this._runtimes[0].getContainer();
+	}
+
+	/**
+	 * Returns the scripting container that owns the bundle containing the specified script. All scripts of a bundle get
+	 * loaded into the same runtime, so a bundle's commands always execute in the runtime that defined them while
+	 * commands of bundles in other runtimes can run at the same time. Scripts outside of a bundle use the global
+	 * container.
 	 * 
+	 * @param script
 	 * @return
 	 */
-	public synchronized ScriptingContainer getScriptingContainer()
+	public ScriptingContainer getScriptingContainer(File script)
 	{
-		if (this._scriptingContainer == null)
+		return getRuntimeSlot(script).getContainer();
+	}
+
+	/**
+	 * Returns the number of runtimes in the pool
+	 * 
+	 * @return
+	 */
+	public int getRuntimePoolSizeInUse()
+	{
+		return this._runtimes.length;
+	}
+
+	/**
+	 * getRuntimeSlot
+	 * 
+	 * @param script
+	 * @return
+	 */
+	private RuntimeSlot getRuntimeSlot(File script)
+	{
+		if (this._runtimes.length == 1 || script == null)
 		{
-			this._scriptingContainer = this.createScriptingContainer(LocalContextScope.SINGLETON);
+			return this._runtimes[0];
 		}
 
-		return this._scriptingContainer;
+		File bundleDirectory = BundleManager.getInstance().getBundleDirectory(script);
+		if (bundleDirectory == null)
+		{
+			return this._runtimes[0];
+		}
+
+		int hash = bundleDirectory.getAbsolutePath().hashCode() & Integer.MAX_VALUE;
+		return this._runtimes[hash % this._runtimes.length];
+	}
+
+	/**
+	 * Creates and initializes every runtime of the pool in the background so the first bundle load or command
+	 * execution in each runtime doesn't pay the startup cost.
+	 */
+	public void warmUp()
+	{
+		for (final RuntimeSlot slot : this._runtimes)
+		{
+			Job job = new Job("Initialize Ruby runtime") //$NON-NLS-1$
+			{
+				@Override
+				protected IStatus run(IProgressMonitor monitor)
+				{
+					slot.getInitializedContainer();
+					return Status.OK_STATUS;
+				}
+			};
+			job.setSystem(true);
+			job.setPriority(Job.LONG);
+			job.schedule();
+		}
 	}
 
 	/**
@@ -284,14 +428,26 @@ public class ScriptingEngine
 		return (async && this._runType != RunType.CURRENT_THREAD) ? null : job.getReturnValue();
 	}
 
-	public synchronized ScriptingContainer getInitializedScriptingContainer()
+	/**
+	 * Returns the global scripting container, making sure the ruble framework has been loaded into it.
+	 * 
+	 * @return
+	 */
+	public ScriptingContainer getInitializedScriptingContainer()
 	{
-		ScriptingContainer sc = getScriptingContainer();
-		if (!initialized)
-		{
-			sc.runScriptlet("require 'ruble'"); //$NON-NLS-1$
-			initialized = true;
-		}
-		return sc;
+		return this._runtimes[0].getInitializedContainer();
+	}
+
+	/**
+	 * Returns the scripting container that owns the bundle containing the specified script, making sure the ruble
+	 * framework has been loaded into it.
+	 * 
+	 * @see #getScriptingContainer(File)
+	 * @param script
+	 * @return
+	 */
+	public ScriptingContainer getInitializedScriptingContainer(File script)
+	{
+		return getRuntimeSlot(script).getInitializedContainer();
 	}
 }
@@ -0,0 +1,1094 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2013 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.scripting.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.jruby.Ruby;
+import org.jruby.RubyRegexp;
+import org.jruby.util.RegexpOptions;
+
+import com.aptana.core.util.IOUtil;
+import com.aptana.scope.ScopeSelector;
+import com.aptana.scripting.ScriptingEngine;
+
+/**
+ * A compact, versioned binary serialization of a bundle's element tree. The file consists of a fixed header, a table
+ * of every distinct string used by the bundle (paths, scope selectors, display names, etc.) and then the element tree,
+ * which refers to strings by their index into the table. The whole file is pulled into memory with a single read and
+ * decoded from there.
+ *
+ * @author cwilliams
+ */
+class BinaryBundleCache
+{
+	/**
+	 * Creates the element instances used when decoding elements whose invoke blocks are not serialized.
+	 */
+	interface IElementFactory
+	{
+		CommandElement createCommand(String path);
+
+		ContentAssistElement createContentAssist(String path);
+
+		EnvironmentElement createEnvironment(String path);
+
+		TemplateElement createTemplate(String path);
+	}
+
+	/**
+	 * "ABC" + format marker, used to reject files that aren't binary bundle caches.
+	 */
+	static final int MAGIC = 0x41424301;
+
+	/**
+	 * Bump this whenever the layout below changes. Caches written with a different version are ignored and rebuilt.
+	 */
+	static final short VERSION = 1;
+
+	private static final int NULL_STRING = -1;
+
+	// element tags
+	private static final byte BUILD_PATH = 1;
+	private static final byte COMMAND = 2;
+	private static final byte CONTENT_ASSIST = 3;
+	private static final byte ENVIRONMENT = 4;
+	private static final byte MENU = 5;
+	private static final byte PROJECT_SAMPLE = 6;
+	private static final byte PROJECT_TEMPLATE = 7;
+	private static final byte SMART_TYPING_PAIRS = 8;
+	private static final byte SNIPPET = 9;
+	private static final byte SNIPPET_CATEGORY = 10;
+	private static final byte TEMPLATE = 11;
+
+	// custom property value tags
+	private static final byte VALUE_NULL = 0;
+	private static final byte VALUE_STRING = 1;
+	private static final byte VALUE_BOOLEAN = 2;
+	private static final byte VALUE_INTEGER = 3;
+	private static final byte VALUE_LONG = 4;
+	private static final byte VALUE_DOUBLE = 5;
+	private static final byte VALUE_STRING_ARRAY = 6;
+	private static final byte VALUE_OBJECT_ARRAY = 7;
+	private static final byte VALUE_LIST = 8;
+	private static final byte VALUE_MAP = 9;
+
+	private final File bundleDirectory;
+	private final IPath bundlePath;
+	private final IElementFactory factory;
+
+	/**
+	 * BinaryBundleCache
+	 *
+	 * @param bundleDirectory
+	 *            The directory that paths get stored relative to
+	 * @param factory
+	 *            Factory for elements whose executable parts are loaded lazily
+	 */
+	BinaryBundleCache(File bundleDirectory, IElementFactory factory)
+	{
+		this.bundleDirectory = bundleDirectory;
+		this.bundlePath = Path.fromOSString(bundleDirectory.getAbsolutePath());
+		this.factory = factory;
+	}
+
+	/**
+	 * Serialize the bundle to the specified file.
+	 *
+	 * @param be
+	 * @param file
+	 * @throws IOException
+	 */
+	void write(BundleElement be, File file) throws IOException
+	{
+		FileOutputStream out = null;
+		try
+		{
+			out = new FileOutputStream(file);
+			write(be, out);
+		}
+		finally
+		{
+			if (out != null)
+			{
+				try
+				{
+					out.close();
+				}
+				catch (IOException e)
+				{
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Serialize the bundle to the specified stream. The element tree is encoded first so that the string table can be
+	 * written ahead of it.
+	 *
+	 * @param be
+	 * @param out
+	 * @throws IOException
+	 */
+	void write(BundleElement be, OutputStream out) throws IOException
+	{
+		StringTable strings = new StringTable();
+		ByteArrayOutputStream body = new ByteArrayOutputStream(8192);
+		new Writer(new DataOutputStream(body), strings).writeBundle(be);
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeShort(VERSION);
+		strings.write(data);
+		body.writeTo(data);
+		data.flush();
+	}
+
+	/**
+	 * Load a bundle from the specified file. Returns null if the file was written in a different format version.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	BundleElement read(File file) throws IOException
+	{
+		long length = file.length();
+		if (length > Integer.MAX_VALUE)
+		{
+			throw new IOException(MessageFormat.format("Bundle cache file {0} is too large", file)); //$NON-NLS-1$
+		}
+
+		byte[] bytes = new byte[(int) length];
+		DataInputStream in = null;
+		try
+		{
+			in = new DataInputStream(new FileInputStream(file));
+			in.readFully(bytes);
+		}
+		finally
+		{
+			if (in != null)
+			{
+				try
+				{
+					in.close();
+				}
+				catch (IOException e)
+				{
+					// ignore
+				}
+			}
+		}
+
+		return read(bytes);
+	}
+
+	/**
+	 * Decode a bundle from the raw contents of a cache file. Returns null if the contents were written in a different
+	 * format version.
+	 *
+	 * @param bytes
+	 * @return
+	 * @throws IOException
+	 */
+	BundleElement read(byte[] bytes) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+		if (in.readInt() != MAGIC)
+		{
+			throw new IOException("Not a binary bundle cache"); //$NON-NLS-1$
+		}
+		if (in.readShort() != VERSION)
+		{
+			return null;
+		}
+
+		return new Reader(in, StringTable.read(in)).readBundle();
+	}
+
+	/**
+	 * Convert an absolute path into one relative to the bundle directory
+	 *
+	 * @param path
+	 * @return
+	 */
+	private String toRelativePath(String path)
+	{
+		if (path == null)
+		{
+			return null;
+		}
+		return Path.fromOSString(path).makeRelativeTo(bundlePath).toOSString();
+	}
+
+	/**
+	 * Convert a bundle-relative path back into an absolute one
+	 *
+	 * @param path
+	 * @return
+	 */
+	private String toAbsolutePath(String path)
+	{
+		if (path == null || Path.fromOSString(path).isAbsolute())
+		{
+			return path;
+		}
+		return new File(bundleDirectory, path).getAbsolutePath();
+	}
+
+	/**
+	 * Interns every string written to the cache. Each distinct string is stored once and referred to by index.
+	 */
+	private static class StringTable
+	{
+		private final Map<String, Integer> indices;
+		private final String[] values;
+
+		StringTable()
+		{
+			this.indices = new LinkedHashMap<String, Integer>();
+			this.values = null;
+		}
+
+		private StringTable(String[] values)
+		{
+			this.indices = null;
+			this.values = values;
+		}
+
+		static StringTable read(DataInputStream in) throws IOException
+		{
+			int count = in.readInt();
+			String[] values = new String[count];
+			for (int i = 0; i < count; i++)
+			{
+				byte[] utf8 = new byte[in.readInt()];
+				in.readFully(utf8);
+				values[i] = new String(utf8, IOUtil.UTF_8);
+			}
+			return new StringTable(values);
+		}
+
+		int indexOf(String value)
+		{
+			if (value == null)
+			{
+				return NULL_STRING;
+			}
+			Integer index = indices.get(value);
+			if (index == null)
+			{
+				index = indices.size();
+				indices.put(value, index);
+			}
+			return index;
+		}
+
+		String get(int index) throws IOException
+		{
+			if (index == NULL_STRING)
+			{
+				return null;
+			}
+			if (index < 0 || index >= values.length)
+			{
+				throw new IOException(MessageFormat.format("Invalid string table index {0}", index)); //$NON-NLS-1$
+			}
+			return values[index];
+		}
+
+		void write(DataOutputStream out) throws IOException
+		{
+			out.writeInt(indices.size());
+			for (String value : indices.keySet())
+			{
+				// Not using writeUTF since expansions and descriptions can exceed its 64K limit
+				byte[] utf8 = value.getBytes(IOUtil.UTF_8);
+				out.writeInt(utf8.length);
+				out.write(utf8);
+			}
+		}
+	}
+
+	/**
+	 * Encodes the element tree.
+	 */
+	private class Writer
+	{
+		private final DataOutputStream out;
+		private final StringTable strings;
+
+		Writer(DataOutputStream out, StringTable strings)
+		{
+			this.out = out;
+			this.strings = strings;
+		}
+
+		void writeBundle(BundleElement be) throws IOException
+		{
+			writePath(be.getPath());
+			writeString(be.getDisplayName());
+			writeString(be.getAuthor());
+			writeString(be.getCopyright());
+			writeString(be.getDescription());
+			writeString(be.getLicense());
+			writeString(be.getLicenseUrl());
+			writeString(be.getRepository());
+			out.writeBoolean(be.isVisible());
+			writeCustomProperties(be);
+
+			writeStrings(be.getFileTypes());
+			writeStringMap(be.getFileTypeRegistry());
+			writeRegexpMap(be.getFoldingStartMarkers());
+			writeRegexpMap(be.getFoldingStopMarkers());
+			writeRegexpMap(be.getIncreaseIndentMarkers());
+			writeRegexpMap(be.getDecreaseIndentMarkers());
+
+			List<AbstractBundleElement> children = be.getChildren();
+			out.writeInt(children.size());
+			for (AbstractBundleElement child : children)
+			{
+				writeElement(child);
+			}
+		}
+
+		private void writeElement(AbstractBundleElement element) throws IOException
+		{
+			// NOTE: subclasses must be tested before their parents
+			if (element instanceof SnippetElement)
+			{
+				SnippetElement snippet = (SnippetElement) element;
+				out.writeByte(SNIPPET);
+				writeCommand(snippet);
+				writeString(snippet.getExpansion());
+				writeString(snippet.getCategory());
+				writeStrings(snippet.getTags());
+				writeString(snippet.getIconPath());
+				writeString(snippet.getDescription());
+			}
+			else if (element instanceof TemplateElement)
+			{
+				TemplateElement template = (TemplateElement) element;
+				out.writeByte(TEMPLATE);
+				writeCommand(template);
+				writeString(template.getFiletype());
+			}
+			else if (element instanceof ContentAssistElement)
+			{
+				out.writeByte(CONTENT_ASSIST);
+				writeCommand((CommandElement) element);
+			}
+			else if (element instanceof CommandElement)
+			{
+				out.writeByte(COMMAND);
+				writeCommand((CommandElement) element);
+			}
+			else if (element instanceof MenuElement)
+			{
+				out.writeByte(MENU);
+				writeMenu((MenuElement) element);
+			}
+			else if (element instanceof EnvironmentElement)
+			{
+				out.writeByte(ENVIRONMENT);
+				writeCommon(element);
+			}
+			else if (element instanceof SmartTypingPairsElement)
+			{
+				SmartTypingPairsElement pairs = (SmartTypingPairsElement) element;
+				out.writeByte(SMART_TYPING_PAIRS);
+				writeCommon(pairs);
+
+				List<Character> characters = pairs.getPairs();
+				if (characters == null)
+				{
+					out.writeInt(-1);
+				}
+				else
+				{
+					out.writeInt(characters.size());
+					for (Character c : characters)
+					{
+						out.writeChar(c.charValue());
+					}
+				}
+			}
+			else if (element instanceof SnippetCategoryElement)
+			{
+				out.writeByte(SNIPPET_CATEGORY);
+				writeCommon(element);
+				writeString(((SnippetCategoryElement) element).getIconPath());
+			}
+			else if (element instanceof BuildPathElement)
+			{
+				out.writeByte(BUILD_PATH);
+				writeCommon(element);
+				writePath(((BuildPathElement) element).getBuildPath());
+			}
+			else if (element instanceof ProjectTemplateElement)
+			{
+				ProjectTemplateElement template = (ProjectTemplateElement) element;
+				out.writeByte(PROJECT_TEMPLATE);
+				writeCommon(template);
+				writeString(template.getType().name());
+				writeString(template.getLocation());
+				writeString(template.getDescription());
+				writeString(template.getId());
+				writeString(template.getIcon());
+				out.writeInt(template.getPriority());
+				writeStrings(template.getTags());
+			}
+			else if (element instanceof ProjectSampleElement)
+			{
+				ProjectSampleElement sample = (ProjectSampleElement) element;
+				out.writeByte(PROJECT_SAMPLE);
+				writeCommon(sample);
+				writeString(sample.getId());
+				writeString(sample.getCategory());
+				writeString(sample.getLocation());
+				writeString(sample.getDescription());
+				String[] natures = sample.getNatures();
+				if (natures == null)
+				{
+					out.writeInt(-1);
+				}
+				else
+				{
+					out.writeInt(natures.length);
+					for (String nature : natures)
+					{
+						writeString(nature);
+					}
+				}
+				writeStringMap(sample.getIcon());
+			}
+			else
+			{
+				throw new IOException(MessageFormat.format(
+						"Unable to cache element of type {0}", element.getClass().getName())); //$NON-NLS-1$
+			}
+		}
+
+		private void writeCommon(AbstractBundleElement element) throws IOException
+		{
+			writePath(element.getPath());
+			writeString(element.getDisplayName());
+			writeString(element.getScope());
+			writeCustomProperties(element);
+		}
+
+		private void writeCommand(CommandElement command) throws IOException
+		{
+			writeCommon(command);
+			out.writeBoolean(command.isAsync());
+			writeStrings(command.getInput());
+			writeString(command.getInputPath());
+			writeString(command.getOutputPath());
+			writeString(command.getOutputType());
+			writeString(command.getRunType());
+
+			WorkingDirectoryType workingDirectoryType = command.getWorkingDirectoryType();
+			writeString(workingDirectoryType.getName());
+			if (workingDirectoryType == WorkingDirectoryType.PATH
+					|| workingDirectoryType == WorkingDirectoryType.CURRENT_PROJECT)
+			{
+				IPath workingDirectory = command.getWorkingDirectory();
+				writeString((workingDirectory == null) ? null : workingDirectory.toPortableString());
+			}
+
+			Map<Platform, List<String>> keyBindings = command.getKeyBindingMap();
+			if (keyBindings == null)
+			{
+				out.writeInt(0);
+			}
+			else
+			{
+				out.writeInt(keyBindings.size());
+				for (Map.Entry<Platform, List<String>> entry : keyBindings.entrySet())
+				{
+					writeString(entry.getKey().getName());
+					writeStrings(entry.getValue());
+				}
+			}
+		}
+
+		private void writeMenu(MenuElement menu) throws IOException
+		{
+			writeCommon(menu);
+			writeString(menu.getCommandName());
+
+			List<MenuElement> children = menu.getChildren();
+			out.writeInt(children.size());
+			for (MenuElement child : children)
+			{
+				writeMenu(child);
+			}
+		}
+
+		private void writeCustomProperties(AbstractElement element) throws IOException
+		{
+			Map<String, Object> properties = element.getCustomProperties();
+			if (properties == null)
+			{
+				out.writeInt(-1);
+				return;
+			}
+			out.writeInt(properties.size());
+			for (Map.Entry<String, Object> entry : properties.entrySet())
+			{
+				writeString(entry.getKey());
+				writeValue(entry.getValue());
+			}
+		}
+
+		private void writeValue(Object value) throws IOException
+		{
+			if (value == null)
+			{
+				out.writeByte(VALUE_NULL);
+			}
+			else if (value instanceof String)
+			{
+				out.writeByte(VALUE_STRING);
+				writeString((String) value);
+			}
+			else if (value instanceof Boolean)
+			{
+				out.writeByte(VALUE_BOOLEAN);
+				out.writeBoolean(((Boolean) value).booleanValue());
+			}
+			else if (value instanceof Integer)
+			{
+				out.writeByte(VALUE_INTEGER);
+				out.writeInt(((Integer) value).intValue());
+			}
+			else if (value instanceof Long)
+			{
+				out.writeByte(VALUE_LONG);
+				out.writeLong(((Long) value).longValue());
+			}
+			else if (value instanceof Double)
+			{
+				out.writeByte(VALUE_DOUBLE);
+				out.writeDouble(((Double) value).doubleValue());
+			}
+			else if (value instanceof String[])
+			{
+				String[] array = (String[]) value;
+				out.writeByte(VALUE_STRING_ARRAY);
+				out.writeInt(array.length);
+				for (String item : array)
+				{
+					writeString(item);
+				}
+			}
+			else if (value instanceof Object[])
+			{
+				Object[] array = (Object[]) value;
+				out.writeByte(VALUE_OBJECT_ARRAY);
+				out.writeInt(array.length);
+				for (Object item : array)
+				{
+					writeValue(item);
+				}
+			}
+			else if (value instanceof List<?>)
+			{
+				List<?> list = (List<?>) value;
+				out.writeByte(VALUE_LIST);
+				out.writeInt(list.size());
+				for (Object item : list)
+				{
+					writeValue(item);
+				}
+			}
+			else if (value instanceof Map<?, ?>)
+			{
+				Map<?, ?> map = (Map<?, ?>) value;
+				out.writeByte(VALUE_MAP);
+				out.writeInt(map.size());
+				for (Map.Entry<?, ?> entry : map.entrySet())
+				{
+					writeValue(entry.getKey());
+					writeValue(entry.getValue());
+				}
+			}
+			else
+			{
+				// Fall back to the same string representation we use when printing the element
+				out.writeByte(VALUE_STRING);
+				writeString(value.toString());
+			}
+		}
+
+		private void writeRegexpMap(Map<ScopeSelector, RubyRegexp> markers) throws IOException
+		{
+			out.writeInt(markers.size());
+			for (Map.Entry<ScopeSelector, RubyRegexp> entry : markers.entrySet())
+			{
+				writeString(entry.getKey().toString());
+				writeString(entry.getValue().toString());
+			}
+		}
+
+		private void writeStringMap(Map<String, String> map) throws IOException
+		{
+			if (map == null)
+			{
+				out.writeInt(-1);
+				return;
+			}
+			out.writeInt(map.size());
+			for (Map.Entry<String, String> entry : map.entrySet())
+			{
+				writeString(entry.getKey());
+				writeString(entry.getValue());
+			}
+		}
+
+		private void writeStrings(List<String> values) throws IOException
+		{
+			if (values == null)
+			{
+				out.writeInt(-1);
+				return;
+			}
+			out.writeInt(values.size());
+			for (String value : values)
+			{
+				writeString(value);
+			}
+		}
+
+		private void writePath(String path) throws IOException
+		{
+			writeString(toRelativePath(path));
+		}
+
+		private void writeString(String value) throws IOException
+		{
+			out.writeInt(strings.indexOf(value));
+		}
+	}
+
+	/**
+	 * Decodes the element tree.
+	 */
+	private class Reader
+	{
+		private final DataInputStream in;
+		private final StringTable strings;
+		private Ruby runtime;
+
+		Reader(DataInputStream in, StringTable strings)
+		{
+			this.in = in;
+			this.strings = strings;
+		}
+
+		BundleElement readBundle() throws IOException
+		{
+			BundleElement be = new BundleElement(readPath());
+			be.setDisplayName(readString());
+			be.setAuthor(readString());
+			be.setCopyright(readString());
+			be.setDescription(readString());
+			be.setLicense(readString());
+			be.setLicenseUrl(readString());
+			be.setRepository(readString());
+			be.setVisible(in.readBoolean());
+			be.setCustomProperties(readCustomProperties());
+
+			be.setFileTypes(readStrings());
+			be.setFileTypeRegistry(readStringMap());
+			be.setFoldingStartMarkers(readRegexpMap());
+			be.setFoldingStopMarkers(readRegexpMap());
+			be.setIncreaseIndentMarkers(readRegexpMap());
+			be.setDecreaseIndentMarkers(readRegexpMap());
+
+			int count = in.readInt();
+			List<AbstractBundleElement> children = new ArrayList<AbstractBundleElement>(count);
+			for (int i = 0; i < count; i++)
+			{
+				children.add(readElement());
+			}
+			be.setChildren(children);
+
+			return be;
+		}
+
+		private AbstractBundleElement readElement() throws IOException
+		{
+			byte tag = in.readByte();
+			String path = readPath();
+
+			switch (tag)
+			{
+				case SNIPPET:
+				{
+					SnippetElement snippet = new SnippetElement(path);
+					readCommand(snippet);
+					snippet.setExpansion(readString());
+					snippet.setCategory(readString());
+					snippet.setTags(readStrings());
+					snippet.setIconPath(readString());
+					snippet.setDescription(readString());
+					return snippet;
+				}
+
+				case TEMPLATE:
+				{
+					TemplateElement template = factory.createTemplate(path);
+					readCommand(template);
+					template.setFiletype(readString());
+					return template;
+				}
+
+				case CONTENT_ASSIST:
+				{
+					ContentAssistElement contentAssist = factory.createContentAssist(path);
+					readCommand(contentAssist);
+					return contentAssist;
+				}
+
+				case COMMAND:
+				{
+					CommandElement command = factory.createCommand(path);
+					readCommand(command);
+					return command;
+				}
+
+				case MENU:
+					return readMenu(path);
+
+				case ENVIRONMENT:
+				{
+					EnvironmentElement environment = factory.createEnvironment(path);
+					readCommon(environment);
+					return environment;
+				}
+
+				case SMART_TYPING_PAIRS:
+				{
+					SmartTypingPairsElement pairs = new SmartTypingPairsElement(path);
+					readCommon(pairs);
+
+					int count = in.readInt();
+					if (count >= 0)
+					{
+						List<Character> characters = new ArrayList<Character>(count);
+						for (int i = 0; i < count; i++)
+						{
+							characters.add(Character.valueOf(in.readChar()));
+						}
+						pairs.setPairs(characters);
+					}
+					return pairs;
+				}
+
+				case SNIPPET_CATEGORY:
+				{
+					SnippetCategoryElement category = new SnippetCategoryElement(path);
+					readCommon(category);
+					category.setIconPath(readString());
+					return category;
+				}
+
+				case BUILD_PATH:
+				{
+					BuildPathElement buildPath = new BuildPathElement(path);
+					readCommon(buildPath);
+					buildPath.setBuildPath(readPath());
+					return buildPath;
+				}
+
+				case PROJECT_TEMPLATE:
+				{
+					ProjectTemplateElement template = new ProjectTemplateElement(path);
+					readCommon(template);
+					template.setType(readString());
+					template.setLocation(readString());
+					template.setDescription(readString());
+					template.setId(readString());
+					template.setIcon(readString());
+					template.setPriority(in.readInt());
+					template.setTags(readStrings());
+					return template;
+				}
+
+				case PROJECT_SAMPLE:
+				{
+					ProjectSampleElement sample = new ProjectSampleElement(path);
+					readCommon(sample);
+					sample.setId(readString());
+					sample.setCategory(readString());
+					sample.setLocation(readString());
+					sample.setDescription(readString());
+
+					int count = in.readInt();
+					if (count >= 0)
+					{
+						String[] natures = new String[count];
+						for (int i = 0; i < count; i++)
+						{
+							natures[i] = readString();
+						}
+						sample.setNatures(natures);
+					}
+
+					Map<String, String> icons = readStringMap();
+					if (icons != null)
+					{
+						sample.setIcon(icons);
+					}
+					return sample;
+				}
+
+				default:
+					throw new IOException(MessageFormat.format("Unknown element tag {0}", tag)); //$NON-NLS-1$
+			}
+		}
+
+		private void readCommon(AbstractBundleElement element) throws IOException
+		{
+			element.setDisplayName(readString());
+			element.setScope(readString());
+			element.setCustomProperties(readCustomProperties());
+		}
+
+		private void readCommand(CommandElement command) throws IOException
+		{
+			readCommon(command);
+			command.setAsync(in.readBoolean());
+
+			List<String> input = readStrings();
+			if (input != null)
+			{
+				command.setInput(input);
+			}
+			command.setInputPath(readString());
+			command.setOutputPath(readString());
+			command.setOutputType(readString());
+			command.setRunType(readString());
+
+			WorkingDirectoryType workingDirectoryType = WorkingDirectoryType.get(readString());
+			command.setWorkingDirectoryType(workingDirectoryType);
+			if (workingDirectoryType == WorkingDirectoryType.PATH
+					|| workingDirectoryType == WorkingDirectoryType.CURRENT_PROJECT)
+			{
+				String workingDirectory = readString();
+				if (workingDirectory != null)
+				{
+					command.setWorkingDirectoryPath(Path.fromPortableString(workingDirectory));
+				}
+			}
+
+			int count = in.readInt();
+			for (int i = 0; i < count; i++)
+			{
+				String os = readString();
+				List<String> bindings = readStrings();
+				if (bindings != null)
+				{
+					command.setKeyBindings(os, bindings.toArray(new String[bindings.size()]));
+				}
+			}
+		}
+
+		private MenuElement readMenu(String path) throws IOException
+		{
+			MenuElement menu = new MenuElement(path);
+			readCommon(menu);
+			menu.setCommandName(readString());
+
+			int count = in.readInt();
+			if (count > 0)
+			{
+				List<MenuElement> children = new ArrayList<MenuElement>(count);
+				for (int i = 0; i < count; i++)
+				{
+					children.add(readMenu(readPath()));
+				}
+				menu.setChildren(children);
+			}
+			return menu;
+		}
+
+		private Map<String, Object> readCustomProperties() throws IOException
+		{
+			int count = in.readInt();
+			if (count < 0)
+			{
+				return null;
+			}
+			Map<String, Object> properties = new HashMap<String, Object>(count);
+			for (int i = 0; i < count; i++)
+			{
+				String key = readString();
+				properties.put(key, readValue());
+			}
+			return properties;
+		}
+
+		private Object readValue() throws IOException
+		{
+			byte tag = in.readByte();
+			switch (tag)
+			{
+				case VALUE_NULL:
+					return null;
+
+				case VALUE_STRING:
+					return readString();
+
+				case VALUE_BOOLEAN:
+					return Boolean.valueOf(in.readBoolean());
+
+				case VALUE_INTEGER:
+					return Integer.valueOf(in.readInt());
+
+				case VALUE_LONG:
+					return Long.valueOf(in.readLong());
+
+				case VALUE_DOUBLE:
+					return Double.valueOf(in.readDouble());
+
+				case VALUE_STRING_ARRAY:
+				{
+					String[] array = new String[in.readInt()];
+					for (int i = 0; i < array.length; i++)
+					{
+						array[i] = readString();
+					}
+					return array;
+				}
+
+				case VALUE_OBJECT_ARRAY:
+				{
+					Object[] array = new Object[in.readInt()];
+					for (int i = 0; i < array.length; i++)
+					{
+						array[i] = readValue();
+					}
+					return array;
+				}
+
+				case VALUE_LIST:
+				{
+					int count = in.readInt();
+					List<Object> list = new ArrayList<Object>(count);
+					for (int i = 0; i < count; i++)
+					{
+						list.add(readValue());
+					}
+					return list;
+				}
+
+				case VALUE_MAP:
+				{
+					int count = in.readInt();
+					Map<Object, Object> map = new HashMap<Object, Object>(count);
+					for (int i = 0; i < count; i++)
+					{
+						Object key = readValue();
+						map.put(key, readValue());
+					}
+					return map;
+				}
+
+				default:
+					throw new IOException(MessageFormat.format("Unknown property value tag {0}", tag)); //$NON-NLS-1$
+			}
+		}
+
+		private Map<ScopeSelector, RubyRegexp> readRegexpMap() throws IOException
+		{
+			int count = in.readInt();
+			if (count == 0)
+			{
+				return null;
+			}
+			Map<ScopeSelector, RubyRegexp> markers = new HashMap<ScopeSelector, RubyRegexp>(count);
+			for (int i = 0; i < count; i++)
+			{
+				ScopeSelector selector = new ScopeSelector(readString());
+				markers.put(selector, RubyRegexp.newRegexp(getRuntime(), readString(), RegexpOptions.NULL_OPTIONS));
+			}
+			return markers;
+		}
+
+		private Map<String, String> readStringMap() throws IOException
+		{
+			int count = in.readInt();
+			if (count < 0)
+			{
+				return null;
+			}
+			Map<String, String> map = new HashMap<String, String>(count);
+			for (int i = 0; i < count; i++)
+			{
+				String key = readString();
+				map.put(key, readString());
+			}
+			return map;
+		}
+
+		private List<String> readStrings() throws IOException
+		{
+			int count = in.readInt();
+			if (count < 0)
+			{
+				return null;
+			}
+			List<String> values = new ArrayList<String>(count);
+			for (int i = 0; i < count; i++)
+			{
+				values.add(readString());
+			}
+			return values;
+		}
+
+		private String readPath() throws IOException
+		{
+			return toAbsolutePath(readString());
+		}
+
+		private String readString() throws IOException
+		{
+			return strings.get(in.readInt());
+		}
+
+		private Ruby getRuntime()
+		{
+			if (runtime == null)
+			{
+				runtime = ScriptingEngine.getInstance().getScriptingContainer().getProvider().getRuntime();
+			}
+			return runtime;
+		}
+	}
+}
@@ -10,10 +10,8 @@ package com.aptana.scripting.model;
 import java.beans.IntrospectionException;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -55,7 +53,9 @@ import com.aptana.scripting.ScriptingActivator;
 import com.aptana.scripting.ScriptingEngine;
 
 /**
- * This class serializes and deserializes the scripting model for a given bundle.
+ * This class serializes and deserializes the scripting model for a given bundle. Caches are written in the binary
+ * format defined by {@link BinaryBundleCache}; YAML caches written by older versions are still read and get migrated to
+ * the binary format on load.
  * 
  * @author cwilliams
  */
@@ -63,9 +63,20 @@ public class BundleCacher
 {
 
 	/**
-	 * The file where we store our serialized model.
+	 * The default name of the file where we store our serialized model, minus the extension.
 	 */
-	private static final String CACHE_FILE = "cache.yml"; //$NON-NLS-1$
+	private static final String CACHE_FILE_PREFIX = "cache."; //$NON-NLS-1$
+
+	/**
+	 * Extension of the binary cache files we write. See {@link BinaryBundleCache}.
+	 */
+	private static final String BINARY_EXTENSION = "bin"; //$NON-NLS-1$
+
+	/**
+	 * Extension of the YAML cache files written by older versions. These are only read, to migrate them to the binary
+	 * format.
+	 */
+	private static final String YAML_EXTENSION = "yml"; //$NON-NLS-1$
 
 	private static final String REGEXP_TAG = "!regexp"; //$NON-NLS-1$
 	private static final String SCOPE_SELECTOR_TAG = "!scope"; //$NON-NLS-1$
@@ -153,56 +164,34 @@ public class BundleCacher
 			return false;
 		}
 
-		// Now write the config file out...
-		OutputStreamWriter writer = null;
+		// Now write the cache file out...
+		File bundleDirectory = be.getBundleDirectory();
 		File cacheFile = null;
-		Yaml yaml = null;
+		BinaryBundleCache binaryCache = createBinaryCache(bundleDirectory);
 
 		try
 		{
-			if (be.getBundleDirectory().canWrite())
+			if (bundleDirectory.canWrite())
 			{
-				yaml = createYAML(be.getBundleDirectory());
-
-				Locale locale = Locale.getDefault();
-				cacheFile = new File(be.getBundleDirectory(), MessageFormat.format(
-						"cache.{0}_{1}.yml", locale.getLanguage(), locale.getCountry())); //$NON-NLS-1$
-				writer = new OutputStreamWriter(new FileOutputStream(cacheFile), IOUtil.UTF_8);
-
-				yaml.dump(be, writer);
+				cacheFile = getLocaleCacheFile(bundleDirectory, BINARY_EXTENSION);
+				binaryCache.write(be, cacheFile);
 			}
 		}
 		catch (IOException e)
 		{
 			IdeLog.logError(ScriptingActivator.getDefault(), e);
 		}
-		finally
-		{
-			if (writer != null)
-			{
-				try
-				{
-					writer.close();
-				}
-				catch (IOException e)
-				{
-					// ignore
-				}
-			}
-		}
 
-		InputStreamReader reader = null;
 		boolean serializationSucceeded = false;
 		try
 		{
-			if (be.getBundleDirectory().canRead())
+			if (bundleDirectory.canRead())
 			{
 				if (cacheFile == null || !cacheFile.exists())
 				{
 					return false;
 				}
-				reader = new InputStreamReader(new FileInputStream(cacheFile), IOUtil.UTF_8);
-				BundleElement be2 = (BundleElement) yaml.load(reader);
+				BundleElement be2 = binaryCache.read(cacheFile);
 				if (be2 == null)
 				{
 					return false;
@@ -214,6 +203,15 @@ public class BundleCacher
 				// It's not the ideal way to test equality, but seems to work correctly. This is the mechanism
 				// currently in use by the unit tests
 				serializationSucceeded = beString2.equals(beString1);
+				if (serializationSucceeded)
+				{
+					// The binary cache supersedes any YAML cache we generated for this locale in the past
+					File yamlCacheFile = getLocaleCacheFile(bundleDirectory, YAML_EXTENSION);
+					if (yamlCacheFile.isFile())
+					{
+						yamlCacheFile.delete();
+					}
+				}
 				return true;
 			}
 		}
@@ -223,18 +221,6 @@ public class BundleCacher
 		}
 		finally
 		{
-			if (reader != null)
-			{
-				try
-				{
-					reader.close();
-				}
-				catch (IOException e)
-				{
-					// ignore
-				}
-			}
-
 			if (!serializationSucceeded && cacheFile != null)
 			{
 				IdeLog.logWarning(ScriptingActivator.getDefault(),
@@ -247,30 +233,67 @@ public class BundleCacher
 	}
 
 	/**
-	 * Tries to return the cache file that matches the current locale.
+	 * Returns the binary cache file if one exists for the current locale, otherwise the YAML cache file we'd migrate
+	 * from.
 	 * 
 	 * @param bundleDirectory
 	 * @return
 	 */
 	private File getCacheFile(File bundleDirectory)
+	{
+		File file = getCacheFile(bundleDirectory, BINARY_EXTENSION);
+		if (file.isFile())
+		{
+			return file;
+		}
+		return getCacheFile(bundleDirectory, YAML_EXTENSION);
+	}
+
+	/**
+	 * Tries to return the cache file with the given extension that matches the current locale.
+	 * 
+	 * @param bundleDirectory
+	 * @param extension
+	 * @return
+	 */
+	private File getCacheFile(File bundleDirectory, String extension)
 	{
 		File file = null;
 		Locale current = Locale.getDefault();
-		// Try "cache.lang_country.yml", like "cache.en_US.yml"
-		file = new File(bundleDirectory, MessageFormat.format("cache.{0}_{1}.yml", current.getLanguage(), //$NON-NLS-1$
-				current.getCountry()));
+		// Try "cache.lang_country.ext", like "cache.en_US.yml"
+		file = getLocaleCacheFile(bundleDirectory, extension);
 		if (file.isFile())
 		{
 			return file;
 		}
 		// Then try just language: cache.en.yml
-		file = new File(bundleDirectory, MessageFormat.format("cache.{0}.yml", current.getLanguage())); //$NON-NLS-1$
+		file = new File(bundleDirectory, MessageFormat.format("cache.{0}.{1}", current.getLanguage(), extension)); //$NON-NLS-1$
 		if (file.isFile())
 		{
 			return file;
 		}
 		// Fall back to cache.yml
-		return new File(bundleDirectory, CACHE_FILE);
+		return new File(bundleDirectory, CACHE_FILE_PREFIX + extension);
+	}
+
+	/**
+	 * Returns the cache file with the given extension for the current language and country. This is the file we write
+	 * out.
+	 * 
+	 * @param bundleDirectory
+	 * @param extension
+	 * @return
+	 */
+	private File getLocaleCacheFile(File bundleDirectory, String extension)
+	{
+		Locale current = Locale.getDefault();
+		return new File(bundleDirectory, MessageFormat.format("cache.{0}_{1}.{2}", current.getLanguage(), //$NON-NLS-1$
+				current.getCountry(), extension));
+	}
+
+	private boolean isBinaryCacheFile(File cacheFile)
+	{
+		return cacheFile.getName().endsWith(BINARY_EXTENSION);
 	}
 
 	/**
@@ -315,55 +338,124 @@ public class BundleCacher
 			}
 
 			// Load up the bundle contents from the cache
-			InputStreamReader reader = null;
-			try
+			sub.subTask(MessageFormat.format(Messages.BundleCacher_LoadCacheTaskName,
+					bundleDirectory.getAbsolutePath()));
+			boolean binary = isBinaryCacheFile(cacheFile);
+			if (binary)
 			{
-				Yaml yaml = createYAML(bundleDirectory);
-				reader = new InputStreamReader(new FileInputStream(cacheFile), IOUtil.UTF_8);
-				sub.subTask(MessageFormat.format(Messages.BundleCacher_LoadCacheTaskName,
-						bundleDirectory.getAbsolutePath()));
-
-				synchronized (this)
-				{
-					be = (BundleElement) yaml.load(reader);
-				}
+				be = loadBinary(bundleDirectory, cacheFile);
+			}
+			else
+			{
+				be = loadYAML(bundleDirectory, cacheFile);
+			}
+			sub.worked(80);
 
-				sub.worked(80);
+			// If any file has been deleted, ignore the cache, it'll get rewritten
+			if (be == null || (!ignoreFileStatus && anyFileDeleted(be, sub.newChild(10))))
+			{
+				return null;
+			}
 
-				// If any file has been deleted, ignore the cache, it'll get rewritten
-				if (!ignoreFileStatus && anyFileDeleted(be, sub.newChild(10)))
-				{
-					return null;
-				}
-				fireScriptLoadedEvents(be, sub.newChild(20));
+			// Migrate a YAML cache to the binary format so subsequent startups skip YAML parsing
+			if (!binary && bundleDirectory.canWrite())
+			{
+				migrate(be);
 			}
-			catch (Exception e)
+			fireScriptLoadedEvents(be, sub.newChild(20));
+		}
+		finally
+		{
+			sub.done();
+		}
+		return be;
+	}
+
+	/**
+	 * Load a bundle from a binary cache file. Returns null if the cache is unreadable or was written in an older format.
+	 * 
+	 * @param bundleDirectory
+	 * @param cacheFile
+	 * @return
+	 */
+	private BundleElement loadBinary(File bundleDirectory, File cacheFile)
+	{
+		try
+		{
+			return createBinaryCache(bundleDirectory).read(cacheFile);
+		}
+		catch (Exception e)
+		{
+			IdeLog.logError(ScriptingActivator.getDefault(),
+					MessageFormat.format("Failed to load bundle {0}", bundleDirectory.getAbsolutePath()), e); //$NON-NLS-1$
+			IdeLog.logInfo(ScriptingActivator.getDefault(),
+					MessageFormat.format(Messages.BundleCacher_LoadingCacheError, bundleDirectory.getAbsolutePath()));
+		}
+		return null;
+	}
+
+	/**
+	 * Load a bundle from a YAML cache file written by older versions.
+	 * 
+	 * @param bundleDirectory
+	 * @param cacheFile
+	 * @return
+	 */
+	private BundleElement loadYAML(File bundleDirectory, File cacheFile)
+	{
+		InputStreamReader reader = null;
+		try
+		{
+			Yaml yaml = createYAML(bundleDirectory);
+			reader = new InputStreamReader(new FileInputStream(cacheFile), IOUtil.UTF_8);
+
+			synchronized (this)
 			{
-				IdeLog.logError(ScriptingActivator.getDefault(),
-						MessageFormat.format("Failed to load bundle {0}", bundleDirectory.getAbsolutePath()), e); //$NON-NLS-1$
-				IdeLog.logInfo(ScriptingActivator.getDefault(),
-						MessageFormat.format(Messages.BundleCacher_LoadingYAMLError, bundleDirectory.getAbsolutePath()));
+				return (BundleElement) yaml.load(reader);
 			}
-			finally
+		}
+		catch (Exception e)
+		{
+			IdeLog.logError(ScriptingActivator.getDefault(),
+					MessageFormat.format("Failed to load bundle {0}", bundleDirectory.getAbsolutePath()), e); //$NON-NLS-1$
+			IdeLog.logInfo(ScriptingActivator.getDefault(),
+					MessageFormat.format(Messages.BundleCacher_LoadingYAMLError, bundleDirectory.getAbsolutePath()));
+		}
+		finally
+		{
+			if (reader != null)
 			{
-				if (reader != null)
+				try
 				{
-					try
-					{
-						reader.close();
-					}
-					catch (IOException e)
-					{
-						// ignore
-					}
+					reader.close();
+				}
+				catch (IOException e)
+				{
+					// ignore
 				}
 			}
 		}
-		finally
+		return null;
+	}
+
+	/**
+	 * Write out a binary cache for a bundle that was loaded from a YAML cache.
+	 * 
+	 * @param be
+	 */
+	private void migrate(BundleElement be)
+	{
+		File bundleDirectory = be.getBundleDirectory();
+		File cacheFile = getLocaleCacheFile(bundleDirectory, BINARY_EXTENSION);
+		try
 		{
-			sub.done();
+			createBinaryCache(bundleDirectory).write(be, cacheFile);
+		}
+		catch (IOException e)
+		{
+			IdeLog.logError(ScriptingActivator.getDefault(), e);
+			cacheFile.delete();
 		}
-		return be;
 	}
 
 	private void fireScriptLoadedEvents(BundleElement be, IProgressMonitor monitor)
@@ -526,6 +618,39 @@ public class BundleCacher
 		return false;
 	}
 
+	private BinaryBundleCache createBinaryCache(File bundleDirectory)
+	{
+		return new BinaryBundleCache(bundleDirectory, new LazyElementFactory());
+	}
+
+	/**
+	 * Creates the lazy variants of elements whose invoke strings/blocks aren't serialized.
+	 * 
+	 * @author cwilliams
+	 */
+	private class LazyElementFactory implements BinaryBundleCache.IElementFactory
+	{
+		public CommandElement createCommand(String path)
+		{
+			return new LazyCommandElement(path);
+		}
+
+		public ContentAssistElement createContentAssist(String path)
+		{
+			return new LazyContentAssistElement(path);
+		}
+
+		public EnvironmentElement createEnvironment(String path)
+		{
+			return new LazyEnvironmentElement(path);
+		}
+
+		public TemplateElement createTemplate(String path)
+		{
+			return new LazyTemplateElement(path);
+		}
+	}
+
 	private Yaml createYAML(File bundleDirectory)
 	{
 		return new Yaml(new BundleElementsConstructor(bundleDirectory), new MyRepresenter(bundleDirectory));
@@ -13,6 +13,7 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.text.MessageFormat;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -91,6 +92,59 @@ public class CommandBlockRunner extends AbstractCommandRunner
 		this.unapplyEnvironment();
 	}
 
+	/**
+	 * Replace the contents of one environment hash with the entries of another that may belong to a different runtime.
+	 * Keys and values are converted to their Java equivalents and back into the target runtime, so no Ruby object ends
+	 * up in a runtime other than the one that created it. Values without a Java equivalent are copied as strings.
+	 * 
+	 * @param from
+	 * @param to
+	 */
+	private static void copyEnvironment(RubyHash from, RubyHash to)
+	{
+		Ruby runtime = to.getRuntime();
+		ThreadContext context = runtime.getCurrentContext();
+
+		to.rb_clear();
+
+		for (Object item : from.directEntrySet())
+		{
+			Map.Entry<?, ?> entry = (Map.Entry<?, ?>) item;
+
+			to.op_aset(context, toRuntime(runtime, (IRubyObject) entry.getKey()),
+					toRuntime(runtime, (IRubyObject) entry.getValue()));
+		}
+	}
+
+	/**
+	 * Convert a Ruby object into an equivalent object owned by the specified runtime
+	 * 
+	 * @param runtime
+	 * @param value
+	 * @return
+	 */
+	private static IRubyObject toRuntime(Ruby runtime, IRubyObject value)
+	{
+		if (value.getRuntime() == runtime)
+		{
+			return value;
+		}
+		if (value.isNil())
+		{
+			return runtime.getNil();
+		}
+
+		Object javaValue = JavaEmbedUtils.rubyToJava(value);
+
+		if (javaValue instanceof IRubyObject)
+		{
+			// no Java equivalent, fall back to the string value
+			javaValue = value.asString().asJavaString();
+		}
+
+		return JavaEmbedUtils.javaToRuby(runtime, javaValue);
+	}
+
 	/**
 	 * applyEnvironment
 	 * 
@@ -119,7 +173,22 @@ public class CommandBlockRunner extends AbstractCommandRunner
 				RubyProc invoke = e.getInvokeBlock();
 				if (invoke != null)
 				{
-					invoke.call(runtime.getCurrentContext(), new IRubyObject[] { hash });
+					Ruby envRuntime = invoke.getRuntime();
+
+					if (envRuntime == runtime)
+					{
+						invoke.call(runtime.getCurrentContext(), new IRubyObject[] { hash });
+					}
+					else
+					{
+						// bundles may be loaded in different runtimes. Hand the block a copy owned by its own runtime
+						// and bring any changes back into ours
+						RubyHash copy = RubyHash.newHash(envRuntime);
+
+						copyEnvironment(hash, copy);
+						invoke.call(envRuntime.getCurrentContext(), new IRubyObject[] { copy });
+						copyEnvironment(copy, hash);
+					}
 				}
 			}
 		}
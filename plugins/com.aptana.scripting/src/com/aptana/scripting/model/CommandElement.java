@@ -29,7 +29,6 @@ import com.aptana.core.util.SourcePrinter;
 import com.aptana.scripting.ScriptLogger;
 import com.aptana.scripting.ScriptUtils;
 import com.aptana.scripting.ScriptingActivator;
-import com.aptana.scripting.ScriptingEngine;
 
 public class CommandElement extends AbstractBundleElement
 {
@@ -606,8 +605,7 @@ public class CommandElement extends AbstractBundleElement
 
 				if (rubyObject.respondsTo(TO_ENV_METHOD_NAME))
 				{
-					Ruby runtime = ScriptingEngine.getInstance().getInitializedScriptingContainer().getProvider()
-							.getRuntime();
+					Ruby runtime = rubyObject.getRuntime();
 					ThreadContext threadContext = runtime.getCurrentContext();
 
 					try
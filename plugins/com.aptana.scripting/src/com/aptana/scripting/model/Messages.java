@@ -16,6 +16,7 @@ public class Messages extends NLS
 	public static String BundleCacher_ComparingTimestampSubTaskName;
 	public static String BundleCacher_FileReferencedInCacheMissingMsg;
 	public static String BundleCacher_LoadCacheTaskName;
+	public static String BundleCacher_LoadingCacheError;
 	public static String BundleCacher_LoadingYAMLError;
 	public static String BundleCacher_OutOfDateCacheMsg;
 	public static String BundleCacher_SerializationExceptionDeletingCacheFile;
@@ -73,7 +73,9 @@ public class ScriptLoadJob extends AbstractScriptRunner
 	 */
 	protected IStatus run(IProgressMonitor monitor)
 	{
-		ScriptingContainer container = ScriptingEngine.getInstance().getInitializedScriptingContainer();
+		ScriptingEngine engine = ScriptingEngine.getInstance();
+		ScriptingContainer container = (this._filename != null) ? engine.getInitializedScriptingContainer(new File(
+				this._filename)) : engine.getInitializedScriptingContainer();
 		Ruby runtime = container.getProvider().getRuntime();
 		Object result = null;
 
@@ -10,6 +10,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -212,4 +213,22 @@ public class BuildPathManagerTest
 		BuildPathManager bpm = BuildPathManager.getInstance();
 		assertFalse(bpm.setBuildPaths(project, null));
 	}
+
+	@Test
+	public void testEntryIsIndexedOnceUntilInvalidated() throws Exception
+	{
+		BuildPathManager bpm = BuildPathManager.getInstance();
+		File file = FileUtil.createTempFile("bpe", ".js");
+		IBuildPathEntry entry = new BuildPathEntry("build path entry", file.toURI());
+		IBuildPathEntry sameLibrary = new BuildPathEntry("same library", file.toURI());
+
+		assertFalse(bpm.isIndexed(entry));
+
+		assertTrue(bpm.indexBuildPath(entry, new NullProgressMonitor()).isOK());
+		assertTrue(bpm.isIndexed(entry));
+		assertTrue("Expected entries with the same path to share the index", bpm.isIndexed(sameLibrary));
+
+		bpm.invalidateIndex(sameLibrary);
+		assertFalse(bpm.isIndexed(entry));
+	}
 }
@@ -13,6 +13,9 @@ import org.junit.Before;
 import static org.junit.Assert.*;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import junit.framework.TestCase;
 
@@ -23,10 +26,13 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import com.aptana.core.util.FileUtil;
 import com.aptana.core.util.IOUtil;
 import com.aptana.css.core.CSSColors;
+import com.aptana.css.core.parsing.CSSIndexScanner;
 import com.aptana.index.core.FileStoreBuildContext;
 import com.aptana.index.core.Index;
 import com.aptana.index.core.IndexManager;
 import com.aptana.index.core.IndexPlugin;
+import com.aptana.index.core.QueryResult;
+import com.aptana.index.core.SearchPattern;
 import com.aptana.index.core.build.BuildContext;
 
 public class CSSFileIndexingParticipantTest
@@ -135,6 +141,76 @@ public class CSSFileIndexingParticipantTest
 		}
 	}
 
+	@Test
+	public void testLargeStylesheetGetsSameEntriesAsAST() throws Exception
+	{
+		File tmpDir = null;
+		try
+		{
+			String[] colors = { "red", "#fff", "#a0b1c2", "navy", "#000" };
+			StringBuilder src = new StringBuilder();
+
+			for (int i = 0; src.length() <= CSSIndexScanner.SCAN_THRESHOLD; i++)
+			{
+				src.append("div.item").append(i).append(" > #node").append(i).append(", .other").append(i % 50);
+				src.append(":hover {\n\tcolor: ").append(colors[i % colors.length]).append(";\n");
+				src.append("\tborder: 1px solid ").append(colors[(i + 1) % colors.length]).append(";\n}\n");
+
+				if (i % 100 == 0)
+				{
+					src.append("@media screen { .media").append(i).append(" { background: white; } }\n");
+				}
+			}
+
+			tmpDir = new File(FileUtil.getTempDirectory().toOSString(), "testIndex_" + System.currentTimeMillis());
+			tmpDir.mkdirs();
+
+			File cssFile = new File(tmpDir, "large.css");
+			IOUtil.write(new FileOutputStream(cssFile), src.toString());
+			IFileStore fileStore = EFS.getStore(cssFile.toURI());
+			BuildContext context = new FileStoreBuildContext(fileStore);
+
+			// the participant scans files over the threshold
+			Index scanned = getIndexManager().getIndex(new File(tmpDir, "scanned").toURI());
+			indexer.index(context, scanned, new NullProgressMonitor());
+
+			Index walked = getIndexManager().getIndex(new File(tmpDir, "walked").toURI());
+			indexer.walkNode(walked, context.getURI(), context.getAST());
+
+			for (String category : new String[] { ICSSIndexConstants.CLASS, ICSSIndexConstants.IDENTIFIER,
+					ICSSIndexConstants.COLOR })
+			{
+				Set<String> expected = getWords(walked, category);
+
+				assertFalse(category, expected.isEmpty());
+				assertEquals(category, expected, getWords(scanned, category));
+			}
+		}
+		finally
+		{
+			if (tmpDir != null)
+			{
+				getIndexManager().removeIndex(new File(tmpDir, "scanned").toURI());
+				getIndexManager().removeIndex(new File(tmpDir, "walked").toURI());
+			}
+			// Clean up the generated files!
+			FileUtil.deleteRecursively(tmpDir);
+		}
+	}
+
+	private Set<String> getWords(Index index, String category)
+	{
+		List<QueryResult> results = index.query(new String[] { category }, "*", SearchPattern.PATTERN_MATCH);
+		Set<String> words = new HashSet<String>();
+
+		for (QueryResult result : results)
+		{
+			words.add(result.getWord());
+		}
+
+		return words;
+	}
+
 	protected IndexManager getIndexManager()
 	{
 		return IndexPlugin.getDefault().getIndexManager();
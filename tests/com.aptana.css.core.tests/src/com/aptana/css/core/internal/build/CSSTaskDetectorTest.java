@@ -28,6 +28,7 @@ import com.aptana.core.resources.IMarkerConstants;
 import com.aptana.core.util.FileUtil;
 import com.aptana.core.util.IOUtil;
 import com.aptana.css.core.build.CSSTaskDetector;
+import com.aptana.css.core.parsing.CSSIndexScanner;
 import com.aptana.index.core.FileStoreBuildContext;
 import com.aptana.index.core.build.BuildContext;
 
@@ -105,6 +106,54 @@ public class CSSTaskDetectorTest
 		}
 	}
 
+	@Test
+	public void testDetectTaskTagInLargeStylesheet() throws Exception
+	{
+		File tmpDir = null;
+		try
+		{
+			StringBuilder src = new StringBuilder();
+			int lines = 0;
+
+			while (src.length() <= CSSIndexScanner.SCAN_THRESHOLD)
+			{
+				src.append(".a").append(lines).append(" { color: red; } /* nothing to do */\n");
+				lines++;
+			}
+			int offset = src.length() + 11;
+			src.append("body {\n\t/* TODO: split this file */\n}\n");
+
+			tmpDir = new File(FileUtil.getTempDirectory().toOSString(), "testIndex_" + System.currentTimeMillis());
+			tmpDir.mkdirs();
+
+			File cssFile = new File(tmpDir, "large.css");
+			IOUtil.write(new FileOutputStream(cssFile), src.toString(), "UTF-8");
+			IFileStore fileStore = EFS.getStore(cssFile.toURI());
+
+			BuildContext context = new FileStoreBuildContext(fileStore)
+			{
+				@Override
+				public void putProblems(String markerType, Collection<IProblem> newItems)
+				{
+					problems.put(markerType, newItems);
+				}
+			};
+			taskDetector.buildFile(context, new NullProgressMonitor());
+
+			Collection<IProblem> tasks = context.getProblems().get(IMarkerConstants.TASK_MARKER);
+			assertEquals(1, tasks.size());
+			IProblem task = tasks.iterator().next();
+			assertEquals("TODO: split this file", task.getMessage());
+			assertEquals(lines + 2, task.getLineNumber());
+			assertEquals(offset, task.getOffset());
+		}
+		finally
+		{
+			// Clean up the generated files!
+			FileUtil.deleteRecursively(tmpDir);
+		}
+	}
+
 	@Test
 	public void testDeleteFileNullContext() throws Exception
 	{
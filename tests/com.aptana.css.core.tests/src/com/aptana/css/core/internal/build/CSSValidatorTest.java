@@ -255,4 +255,20 @@ public class CSSValidatorTest extends AbstractValidatorTestCase
 		List<IProblem> items = getParseErrors(text);
 		assertEquals(0, items.size());
 	}
+
+	@Test
+	public void testInvalidValueReportsPropertyAndValue() throws CoreException
+	{
+		String text = "div {\ncolor: foo;\n}";
+
+		List<IProblem> items = getParseErrors(text);
+		assertEquals(1, items.size());
+
+		IProblem item = items.get(0);
+		assertEquals(IMarker.SEVERITY_ERROR, item.getSeverity().intValue());
+		assertEquals(2, item.getLineNumber());
+		assertEquals(
+				"Value Error : color (http://www.w3.org/TR/REC-CSS2/colors.html#propdef-color) foo is not a color value :",
+				item.getMessage());
+	}
 }
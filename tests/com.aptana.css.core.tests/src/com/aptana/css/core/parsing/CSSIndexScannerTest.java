@@ -0,0 +1,85 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2013 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.css.core.parsing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CSSIndexScannerTest
+{
+	private static class RecordingHandler implements CSSIndexScanner.Handler
+	{
+		private final List<String> found = new ArrayList<String>();
+
+		public void classFound(String name)
+		{
+			found.add("." + name); //$NON-NLS-1$
+		}
+
+		public void idFound(String name)
+		{
+			found.add("#" + name); //$NON-NLS-1$
+		}
+
+		public void colorFound(String color)
+		{
+			found.add("color:" + color); //$NON-NLS-1$
+		}
+	}
+
+	private void assertFound(String source, String... expected) throws Exception
+	{
+		RecordingHandler handler = new RecordingHandler();
+
+		new CSSIndexScanner().scan(source, handler);
+
+		assertEquals(Arrays.asList(expected), handler.found);
+	}
+
+	@Test
+	public void testSelectors() throws Exception
+	{
+		assertFound("div.a > #b, .c:hover {}", ".a", "#b", ".c");
+	}
+
+	@Test
+	public void testColors() throws Exception
+	{
+		assertFound(".a { color: red; background: #fff url(x.png); border-color: #abcdef; width: 10px; }", ".a",
+				"color:red", "color:#fff", "color:#abcdef");
+	}
+
+	@Test
+	public void testPropertyNamesAreNotColors() throws Exception
+	{
+		assertFound("p { red: 1; }");
+	}
+
+	@Test
+	public void testMedia() throws Exception
+	{
+		assertFound("@media screen and (max-width: 100px) { .a { color: blue; } #b { } }", ".a", "color:blue", "#b");
+	}
+
+	@Test
+	public void testAtRules() throws Exception
+	{
+		assertFound("@import url(a.css);\n@font-face { font-family: x; color: white; }\n.a {}", "color:white", ".a");
+	}
+
+	@Test
+	public void testKeyframes() throws Exception
+	{
+		assertFound("@keyframes k { from { color: black; } to { color: #000; } }", "color:black", "color:#000");
+	}
+}
@@ -12,7 +12,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ CSSIdentifierTest.class, CSSKeywordTest.class, CSSLiteralTest.class, CSSNotTest.class,
+@SuiteClasses({ CSSIdentifierTest.class, CSSIndexScannerTest.class, CSSKeywordTest.class, CSSLiteralTest.class, CSSNotTest.class,
 		CSSParserTest.class, CSSPunctuatorTest.class, CSSSpecialTokenHandlingTest.class, })
 public class CSSParsingTests
 {
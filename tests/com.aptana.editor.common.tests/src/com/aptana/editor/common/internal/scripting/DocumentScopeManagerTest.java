@@ -12,9 +12,12 @@ import junit.framework.TestCase;
 
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.TypedPosition;
 import org.eclipse.jface.text.source.ISourceViewer;
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.ide.IDE;
@@ -203,6 +206,41 @@ public class DocumentScopeManagerTest
 		assertScope("meta.project.com.aptana.projects.webnature source.js support.class.js", 7);
 	}
 
+	@Test
+	public void testMetaProjectNatureScopeFollowsProjectDescription() throws Exception
+	{
+		setUpStandardScopes();
+
+		project = new TestProject("scope_nature_change", new String[] { "com.aptana.projects.webnature" });
+
+		IFile iFile = project.createFile("project_scope.js", "if(Object.isUndefined(Effect))\nthrow(\"effects\");");
+		editor = (ITextEditor) EditorTestHelper.openInEditor(iFile, true);
+
+		assertScope("meta.project.com.aptana.projects.webnature source.js keyword.control.js", 1);
+
+		IProject innerProject = project.getInnerProject();
+		IProjectDescription description = innerProject.getDescription();
+		description.setNatureIds(new String[0]);
+		innerProject.setDescription(description, null);
+
+		assertScope("source.js keyword.control.js", 1);
+	}
+
+	@Test
+	public void testGetScopeAtOffsetAfterEdit() throws Exception
+	{
+		setUpStandardScopes();
+
+		createAndOpenFile("edit_scope", ".js", "// This is a comment");
+		assertScope("source.js comment.line.double-slash.js", 2);
+
+		IDocument document = TextEditorUtils.getSourceViewer(editor).getDocument();
+		document.replace(0, 0, "if(a)\n");
+
+		assertScope("source.js keyword.control.js", 1);
+		assertScope("source.js comment.line.double-slash.js", 8);
+	}
+
 	@Test
 	public void testGetScopeAtEndOfFile() throws Exception
 	{
@@ -230,6 +268,27 @@ public class DocumentScopeManagerTest
 		assertScope("text.html.basic meta.tag.block.any.html punctuation.definition.tag.end.html", 42);
 	}
 
+	@Test
+	public void testScopePositionInsertedAtQueriedOffset() throws Exception
+	{
+		IDocument document = new Document("abc def");
+		ExtendedDocumentInfo info = new ExtendedDocumentInfo("text", null);
+		TypedPosition first = new TypedPosition(0, 7, "a");
+
+		document.addPositionCategory(ICommonConstants.SCOPE_CATEGORY);
+		document.addPosition(ICommonConstants.SCOPE_CATEGORY, first);
+		assertEquals(first, info.getScopePosition(document, 4));
+
+		// split the scope with a new position starting exactly at the queried offset
+		TypedPosition second = new TypedPosition(4, 3, "b");
+		first.setLength(4);
+		document.addPosition(ICommonConstants.SCOPE_CATEGORY, second);
+		info.scopePositionsChanged();
+
+		assertEquals(second, info.getScopePosition(document, 4));
+		assertEquals(first, info.getScopePosition(document, 2));
+	}
+
 	/**
 	 * This level gives back only partition level scopes.
 	 * 
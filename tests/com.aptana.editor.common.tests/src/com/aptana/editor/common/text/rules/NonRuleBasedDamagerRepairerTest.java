@@ -0,0 +1,63 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.editor.common.text.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.TextAttribute;
+import org.eclipse.jface.text.TextPresentation;
+import org.eclipse.jface.text.TypedPosition;
+import org.eclipse.jface.text.TypedRegion;
+import org.eclipse.jface.text.rules.Token;
+import org.junit.Test;
+
+import com.aptana.editor.common.ICommonConstants;
+
+public class NonRuleBasedDamagerRepairerTest
+{
+	@Test
+	public void testWipedScopesAreMarkedDeleted() throws Exception
+	{
+		IDocument document = new Document("abc def ghi");
+		Position first = new TypedPosition(0, 3, "a");
+		Position second = new TypedPosition(4, 3, "b");
+		Position third = new TypedPosition(8, 3, "c");
+
+		document.addPositionCategory(ICommonConstants.SCOPE_CATEGORY);
+		document.addPosition(ICommonConstants.SCOPE_CATEGORY, first);
+		document.addPosition(ICommonConstants.SCOPE_CATEGORY, second);
+		document.addPosition(ICommonConstants.SCOPE_CATEGORY, third);
+
+		NonRuleBasedDamagerRepairer repairer = new NonRuleBasedDamagerRepairer(new Token("text"))
+		{
+			@Override
+			protected TextAttribute getTextAttribute(ITypedRegion region)
+			{
+				return null;
+			}
+		};
+		repairer.setDocument(document);
+		repairer.createPresentation(new TextPresentation(), new TypedRegion(0, 7, IDocument.DEFAULT_CONTENT_TYPE));
+
+		// snapshots of the scope positions rely on removed positions being flagged
+		assertTrue(first.isDeleted());
+		assertTrue(second.isDeleted());
+		assertFalse(third.isDeleted());
+
+		Position[] positions = document.getPositions(ICommonConstants.SCOPE_CATEGORY);
+		assertEquals(2, positions.length);
+		assertEquals("text", ((TypedPosition) positions[0]).getType());
+		assertEquals(third, positions[1]);
+	}
+}
@@ -15,7 +15,7 @@ import junit.framework.TestResult;
 import junit.framework.TestSuite;
 
 @RunWith(Suite.class)
-@SuiteClasses({CaseInsensitiveMultiLineRuleTest.class, TagRuleTest.class, RegexpRuleTest.class, WhitespaceDetectorTest.class, WordDetectorTest.class, SingleCharacterRuleTest.class, SingleTagRuleTest.class, ExtendedWordRuleTest.class, })
+@SuiteClasses({CaseInsensitiveMultiLineRuleTest.class, TagRuleTest.class, RegexpRuleTest.class, WhitespaceDetectorTest.class, WordDetectorTest.class, SingleCharacterRuleTest.class, SingleTagRuleTest.class, ExtendedWordRuleTest.class, NonRuleBasedDamagerRepairerTest.class, })
 public class RulesTests
 {
 
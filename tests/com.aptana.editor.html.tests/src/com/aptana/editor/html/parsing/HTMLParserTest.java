@@ -9,6 +9,7 @@ package com.aptana.editor.html.parsing;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -34,6 +35,7 @@ import com.aptana.editor.html.parsing.ast.HTMLElementNode;
 import com.aptana.js.core.IJSConstants;
 import com.aptana.js.core.parsing.ast.JSParseRootNode;
 import com.aptana.parsing.ParseResult;
+import com.aptana.parsing.ParsingEngine;
 import com.aptana.parsing.ast.ASTUtil;
 import com.aptana.parsing.ast.INameNode;
 import com.aptana.parsing.ast.IParseError;
@@ -380,6 +382,125 @@ public class HTMLParserTest
 		assertEquals("attribute value", StringUtil.EMPTY, attrs[0].getValue());
 	}
 
+	@Test
+	public void testStyleAndEventAttributeNodes() throws Exception
+	{
+		String source = "<div style=\"color: red; margin: 0\" onclick=\"foo();\">text</div>";
+		fParseState = new HTMLParseState(source);
+		IParseNode result = parse();
+		HTMLElementNode div = (HTMLElementNode) result.getChild(0);
+
+		IParseNode[] styleNodes = div.getCSSStyleNodes();
+		assertEquals("style declaration count", 2, styleNodes.length);
+		assertEquals(ICSSConstants.CONTENT_TYPE_CSS, styleNodes[0].getLanguage());
+		assertEquals(source.indexOf("color"), styleNodes[0].getStartingOffset());
+
+		IParseNode[] jsNodes = div.getJSAttributeNodes();
+		assertEquals("event handler statement count", 1, jsNodes.length);
+		assertEquals(IJSConstants.CONTENT_TYPE_JS, jsNodes[0].getLanguage());
+		assertEquals(source.indexOf("foo"), jsNodes[0].getStartingOffset());
+
+		// the nodes are only parsed once
+		assertTrue(styleNodes[0] == div.getCSSStyleNodes()[0]);
+		assertEquals(IJSConstants.CONTENT_TYPE_JS, div.getNodeAtOffset(source.indexOf("foo")).getLanguage());
+	}
+
+	@Test
+	public void testReparseLeavesEarlierTreeUntouched() throws Exception
+	{
+		String script = "var a = 1;\nfunction foo() { return a; }";
+		String source = "<html><script>" + script + "</script></html>";
+		fParseState = new HTMLParseState(source);
+		IParseNode firstScript = parse().getChild(0).getChild(0);
+		IParseNode first = firstScript.getChild(0);
+
+		String edited = "<html><p>text</p><script>" + script + "</script></html>";
+		fParseState = new HTMLParseState(edited);
+		IParseNode second = parse().getChild(0).getChild(1).getChild(0);
+
+		assertTrue(first != second);
+		assertTrue(firstScript == first.getParent());
+		assertEquals(source.indexOf(script), first.getStartingOffset());
+		assertEquals(source.indexOf("function"), first.getChild(1).getStartingOffset());
+		assertEquals(edited.indexOf(script), second.getStartingOffset());
+		assertEquals(edited.indexOf("function"), second.getChild(1).getStartingOffset());
+	}
+
+	@Test
+	public void testReparseReusesUnchangedBlock() throws Exception
+	{
+		// large enough to go into the parse cache
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; builder.length() < ParsingEngine.MINIMUM_NUMBER_OF_CHARS_TO_ENTER_CACHE; i++)
+		{
+			builder.append("var a").append(i).append(" = ").append(i).append(";\n");
+		}
+		String script = builder.toString();
+		String source = "<html><script>" + script + "</script></html>";
+		fParseState = new HTMLParseState(source);
+		IParseNode first = parse().getChild(0).getChild(0).getChild(0);
+
+		String edited = "<html><script>" + script + "</script><p>text</p></html>";
+		fParseState = new HTMLParseState(edited);
+		IParseNode second = parse().getChild(0).getChild(0).getChild(0);
+
+		assertTrue(first instanceof JSParseRootNode);
+		assertTrue(first == second);
+		assertEquals(source.indexOf(script), second.getStartingOffset());
+	}
+
+	@Test
+	public void testManyEmbeddedBlocks() throws Exception
+	{
+		StringBuilder builder = new StringBuilder("<html>");
+		for (int i = 0; i < 10; i++)
+		{
+			builder.append("<script>var a").append(i).append(" = ").append((i == 7) ? ";" : "1;").append("</script>");
+			builder.append("<style>p.c").append(i).append(" { color: red; }</style>");
+		}
+		builder.append("</html>");
+		String source = builder.toString();
+		fParseState = new HTMLParseState(source);
+		ParseResult parseResult = fParser.parse(fParseState);
+
+		IParseNode html = parseResult.getRootNode().getChild(0);
+		assertEquals(20, html.getChildCount());
+		for (int i = 0; i < 10; i++)
+		{
+			IParseNode script = html.getChild(i * 2).getChild(0);
+			assertTrue(script instanceof JSParseRootNode);
+			assertEquals(source.indexOf("var a" + i + " "), script.getStartingOffset());
+
+			IParseNode style = html.getChild(i * 2 + 1).getChild(0);
+			assertTrue(style instanceof CSSParseRootNode);
+			assertEquals(source.indexOf("p.c" + i + " "), style.getStartingOffset());
+		}
+
+		// the error in the eighth script is reported at its offset in the page
+		List<IParseError> errors = parseResult.getErrors();
+		assertEquals(1, errors.size());
+		assertEquals(IJSConstants.CONTENT_TYPE_JS, errors.get(0).getLangauge());
+		IParseNode broken = html.getChild(14);
+		assertTrue(errors.get(0).getOffset() > broken.getStartingOffset());
+		assertTrue(errors.get(0).getOffset() < broken.getEndingOffset());
+	}
+
+	@Test
+	public void testEmbeddedErrorsKeepDocumentOrder() throws Exception
+	{
+		String source = "<html><p/><script>var a = ;</script><div/><script>var b = ;</script><span/></html>";
+		fParseState = new HTMLParseState(source);
+		List<IParseError> errors = fParser.parse(fParseState).getErrors();
+
+		assertTrue(errors.size() >= 5);
+		assertEquals(IHTMLConstants.CONTENT_TYPE_HTML, errors.get(0).getLangauge());
+		assertEquals(IHTMLConstants.CONTENT_TYPE_HTML, errors.get(errors.size() - 1).getLangauge());
+		for (int i = 1; i < errors.size(); i++)
+		{
+			assertTrue(errors.get(i - 1).getOffset() <= errors.get(i).getOffset());
+		}
+	}
+
 	@Test
 	public void testNestedOptionalEndTag() throws Exception
 	{
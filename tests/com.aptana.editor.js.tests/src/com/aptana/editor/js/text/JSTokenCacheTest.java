@@ -0,0 +1,160 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.editor.js.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.rules.FastPartitioner;
+import org.eclipse.jface.text.rules.IToken;
+import org.junit.Test;
+
+import beaver.Symbol;
+
+import com.aptana.editor.js.JSSourceConfiguration;
+import com.aptana.js.core.parsing.JSFlexScanner;
+import com.aptana.js.core.parsing.JSTokenType;
+import com.aptana.parsing.lexer.Lexeme;
+
+public class JSTokenCacheTest
+{
+	private static final String SOURCE = "var foo = bar(\"a string\");\nfoo = foo * 2; // done\nfoo++;"; //$NON-NLS-1$
+
+	private IDocument createDocument(String source)
+	{
+		IDocument document = new Document(source);
+		FastPartitioner partitioner = new FastPartitioner(new JSSourcePartitionScannerJFlex(),
+				JSSourceConfiguration.CONTENT_TYPES);
+
+		partitioner.connect(document);
+		document.setDocumentPartitioner(partitioner);
+
+		return document;
+	}
+
+	private void assertSameTokens(IDocument document, int offset, int length)
+	{
+		JSCodeScanner cached = new JSCodeScanner();
+		JSCodeScanner uncached = new JSCodeScanner();
+		IDocument plain = new Document(document.get());
+
+		cached.setRange(document, offset, length);
+		uncached.setRange(plain, offset, length);
+
+		while (true)
+		{
+			IToken expected = uncached.nextToken();
+			IToken actual = cached.nextToken();
+
+			assertEquals(expected.getData(), actual.getData());
+			assertEquals(uncached.getTokenOffset(), cached.getTokenOffset());
+			assertEquals(uncached.getTokenLength(), cached.getTokenLength());
+
+			if (expected.isEOF())
+			{
+				break;
+			}
+		}
+	}
+
+	@Test
+	public void testCodeScannerMatchesLexing()
+	{
+		IDocument document = createDocument(SOURCE);
+
+		// the code partitions and a line within the second one
+		assertSameTokens(document, 0, 14);
+		assertSameTokens(document, 24, 18);
+		assertSameTokens(document, 27, 14);
+		assertSameTokens(document, 50, 6);
+	}
+
+	@Test
+	public void testTokensAreShared()
+	{
+		IDocument document = createDocument(SOURCE);
+
+		List<Symbol> first = JSTokenCache.getTokens(document, 0, 14);
+		List<Symbol> second = JSTokenCache.getTokens(document, 4, 3);
+
+		assertNotNull(first);
+		assertNotNull(second);
+		assertEquals(1, second.size());
+		assertEquals(0, second.get(0).getStart());
+		assertEquals(2, second.get(0).getEnd());
+		assertSame(first.get(1).value, second.get(0).value);
+	}
+
+	@Test
+	public void testEditedPartitionIsLexedAgain()
+	{
+		IDocument document = createDocument(SOURCE);
+
+		List<Symbol> before = JSTokenCache.getTokens(document, 0, 14);
+		document.set("var foo = baz(\"a string\");"); //$NON-NLS-1$
+		List<Symbol> after = JSTokenCache.getTokens(document, 0, 14);
+
+		assertEquals("baz", after.get(3).value); //$NON-NLS-1$
+		assertNotSame(before.get(1).value, after.get(1).value);
+	}
+
+	@Test
+	public void testUnsharedRanges()
+	{
+		IDocument document = createDocument(SOURCE);
+
+		// a string partition
+		assertNull(JSTokenCache.getTokens(document, 14, 10));
+		// in the middle of "foo"
+		assertNull(JSTokenCache.getTokens(document, 5, 5));
+		// across partitions
+		assertNull(JSTokenCache.getTokens(document, 0, 20));
+		// a document that isn't partitioned for JS
+		assertNull(JSTokenCache.getTokens(new Document(SOURCE), 0, 14));
+	}
+
+	@Test
+	public void testLargePartitionIsNotCached()
+	{
+		StringBuilder source = new StringBuilder();
+
+		while (source.length() <= JSTokenCache.MAX_PARTITION_LENGTH)
+		{
+			source.append("var a = b + 1;\n"); //$NON-NLS-1$
+		}
+
+		IDocument document = createDocument(source.toString());
+
+		assertNull(JSTokenCache.getTokens(document, 0, 14));
+		// the code scanner lexes the range itself instead
+		assertSameTokens(document, 0, 14);
+		assertSameTokens(document, 15, 14);
+	}
+
+	@Test
+	public void testLexemeProvider()
+	{
+		IDocument document = createDocument(SOURCE);
+		JSFlexLexemeProvider provider = new JSFlexLexemeProvider(document, 30, new JSFlexScanner());
+
+		Lexeme<JSTokenType> first = provider.getFirstLexeme();
+		Lexeme<JSTokenType> last = provider.getLastLexeme();
+
+		assertEquals(JSTokenType.RPAREN, first.getType());
+		assertEquals(24, first.getStartingOffset());
+		assertEquals(JSTokenType.SEMICOLON, last.getType());
+		assertEquals(40, last.getStartingOffset());
+	}
+}
@@ -18,7 +18,7 @@ import junit.framework.TestSuite;
  * @author Ingo Muschenetz
  */
 @RunWith(Suite.class)
-@SuiteClasses({JSAutoIndentStrategyTest.class, JSCodeScannerTest.class, JSDocScannerTest.class, JSDoubleQuotedStringScannerTest.class, JSRegexScannerTest.class, JSSingleQuotedStringScannerTest.class, JSSourcePartitionScannerJFlexTest.class, JSTextHoverTest.class, })
+@SuiteClasses({JSAutoIndentStrategyTest.class, JSCodeScannerTest.class, JSDocScannerTest.class, JSDoubleQuotedStringScannerTest.class, JSRegexScannerTest.class, JSSingleQuotedStringScannerTest.class, JSSourcePartitionScannerJFlexTest.class, JSTextHoverTest.class, JSTokenCacheTest.class, })
 public class TextTests
 {
 
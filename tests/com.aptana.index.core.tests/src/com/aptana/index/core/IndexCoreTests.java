@@ -5,7 +5,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ FileStoreBuildContextTest.class, IndexContainerJobTest.class, IndexTest.class, })
+@SuiteClasses({ FileStoreBuildContextTest.class, IndexContainerJobTest.class, IndexTest.class, QueryResultTest.class, })
 public class IndexCoreTests
 {
 
@@ -6,7 +6,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ConcurrentModificationException;
@@ -16,6 +19,8 @@ import java.util.Set;
 import org.junit.After;
 import org.junit.Test;
 
+import com.aptana.core.util.IOUtil;
+
 @SuppressWarnings({ "nls", "deprecation" })
 public class IndexTest
 {
@@ -275,4 +280,51 @@ public class IndexTest
 		assertEntryAdded();
 	}
 
+	@Test
+	public void testLoad() throws Exception
+	{
+		testSave();
+
+		// grab a copy of the saved index, then wipe the index
+		ByteArrayOutputStream saved = new ByteArrayOutputStream();
+		FileInputStream in = new FileInputStream(index.getIndexFile());
+		try
+		{
+			IOUtil.pipe(in, saved);
+		}
+		finally
+		{
+			in.close();
+		}
+		index.reset();
+		assertTrue(index.getCategories().isEmpty());
+
+		// loading the copy should bring the entry back
+		long stamp = index.getModificationStamp();
+		index.load(new ByteArrayInputStream(saved.toByteArray()));
+
+		assertTrue(index.getModificationStamp() != stamp);
+		assertEntryAdded();
+	}
+
+	@Test
+	public void testLoadInvalidIndex() throws Exception
+	{
+		testSave();
+
+		try
+		{
+			index.load(new ByteArrayInputStream("not an index".getBytes()));
+			fail("Loading an invalid index should fail");
+		}
+		catch (IOException e)
+		{
+			// expected
+		}
+
+		// the index should be left empty but usable
+		assertTrue(index.getCategories().isEmpty());
+		testAddEntry();
+	}
+
 }
@@ -0,0 +1,50 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the Eclipse Public License (EPL).
+ * Please see the license-epl.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.index.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class QueryResultTest
+{
+	private static final String DELIMITER = "\0";
+
+	@Test
+	public void testGetColumn()
+	{
+		QueryResult result = new QueryResult("Window\0alert\0{\"name\":\"alert\"}");
+
+		assertEquals("Window", result.getColumn(0, DELIMITER));
+		assertEquals("alert", result.getColumn(1, DELIMITER));
+		assertEquals("{\"name\":\"alert\"}", result.getColumn(2, DELIMITER));
+		assertNull(result.getColumn(3, DELIMITER));
+		assertNull(result.getColumn(-1, DELIMITER));
+	}
+
+	@Test
+	public void testGetEmptyColumns()
+	{
+		QueryResult result = new QueryResult("Window\0\0");
+
+		assertEquals("", result.getColumn(1, DELIMITER));
+		assertEquals("", result.getColumn(2, DELIMITER));
+		assertNull(result.getColumn(3, DELIMITER));
+	}
+
+	@Test
+	public void testWordWithoutDelimiter()
+	{
+		QueryResult result = new QueryResult("Window");
+
+		assertEquals("Window", result.getColumn(0, DELIMITER));
+		assertNull(result.getColumn(1, DELIMITER));
+	}
+}
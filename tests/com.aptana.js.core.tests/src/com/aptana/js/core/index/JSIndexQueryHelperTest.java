@@ -11,6 +11,7 @@ import junit.framework.TestCase;
 import org.eclipse.core.runtime.jobs.Job;
 
 import com.aptana.core.tests.TestProject;
+import com.aptana.core.util.CollectionsUtil;
 import com.aptana.index.core.Index;
 import com.aptana.index.core.IndexManager;
 import com.aptana.index.core.IndexPlugin;
@@ -77,4 +78,30 @@ public class JSIndexQueryHelperTest
 		assertTrue("ancestors contains Object", ancestors.contains("Object"));
 	}
 
+	@Test
+	public void testTypeAncestorNamesFollowIndexChanges() throws Exception
+	{
+		JSIndexWriter writer = new JSIndexWriter();
+
+		TypeElement type = new TypeElement();
+		type.setName("MadeUpType");
+		type.addParentType("MadeUpParent");
+		writer.writeType(index, type);
+
+		List<String> ancestors = helper.getTypeAncestorNames(type.getName());
+		assertEquals("ancestors", CollectionsUtil.newList("MadeUpParent"), ancestors);
+
+		// modifying the returned list must not affect later lookups
+		ancestors.clear();
+		assertEquals("ancestors", CollectionsUtil.newList("MadeUpParent"), helper.getTypeAncestorNames(type.getName()));
+
+		TypeElement parent = new TypeElement();
+		parent.setName("MadeUpParent");
+		parent.addParentType("MadeUpGrandParent");
+		writer.writeType(index, parent);
+
+		assertEquals("ancestors", CollectionsUtil.newList("MadeUpParent", "MadeUpGrandParent"),
+				helper.getTypeAncestorNames(type.getName()));
+	}
+
 }
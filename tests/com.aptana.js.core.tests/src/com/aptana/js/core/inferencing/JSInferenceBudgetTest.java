@@ -0,0 +1,72 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.js.core.inferencing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.aptana.js.core.inferencing.JSInferenceBudget.Limit;
+
+public class JSInferenceBudgetTest
+{
+	@Test
+	public void testNodeVisitLimit()
+	{
+		JSInferenceBudget budget = new JSInferenceBudget(2, 10, 60000);
+
+		assertTrue(budget.visitNode());
+		assertTrue(budget.visitNode());
+		assertNull(budget.getExhaustedLimit());
+		assertFalse(budget.visitNode());
+		assertEquals(Limit.NODE_VISITS, budget.getExhaustedLimit());
+
+		// once used up, nothing else is allowed
+		assertFalse(budget.queryIndex());
+		assertTrue(budget.isExhausted());
+	}
+
+	@Test
+	public void testIndexQueryLimit()
+	{
+		JSInferenceBudget budget = new JSInferenceBudget(10, 1, 60000);
+
+		assertTrue(budget.queryIndex());
+		assertFalse(budget.queryIndex());
+		assertEquals(Limit.INDEX_QUERIES, budget.getExhaustedLimit());
+		assertFalse(budget.visitNode());
+	}
+
+	@Test
+	public void testTimeLimit() throws Exception
+	{
+		JSInferenceBudget budget = new JSInferenceBudget(10, 10, 0);
+
+		Thread.sleep(5);
+
+		assertFalse(budget.visitNode());
+		assertEquals(Limit.TIME, budget.getExhaustedLimit());
+	}
+
+	@Test
+	public void testFinishRecordsExhaustedRequests()
+	{
+		long requests = JSInferenceBudget.getRequestCount();
+		long exhausted = JSInferenceBudget.getExhaustedCount(Limit.NODE_VISITS);
+		JSInferenceBudget budget = new JSInferenceBudget(0, 10, 60000);
+
+		budget.visitNode();
+		budget.finish();
+
+		assertEquals(requests + 1, JSInferenceBudget.getRequestCount());
+		assertEquals(exhausted + 1, JSInferenceBudget.getExhaustedCount(Limit.NODE_VISITS));
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.js.core.inferencing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.aptana.js.core.parsing.JSParser;
+import com.aptana.js.core.parsing.ast.JSParseRootNode;
+import com.aptana.parsing.ParseState;
+import com.aptana.parsing.lexer.Range;
+
+public class JSScopeTest
+{
+	private JSScope createScope(JSScope parent, int start, int end)
+	{
+		JSScope scope = new JSScope();
+
+		if (parent != null)
+		{
+			parent.addScope(scope);
+		}
+
+		scope.setRange(new Range(start, end));
+
+		return scope;
+	}
+
+	@Test
+	public void testGetScopeAtOffset()
+	{
+		JSScope global = createScope(null, 0, 1000);
+		JSScope[] functions = new JSScope[100];
+
+		for (int i = 0; i < functions.length; i++)
+		{
+			functions[i] = createScope(global, i * 10, i * 10 + 8);
+		}
+
+		JSScope nested = createScope(functions[42], 422, 426);
+
+		assertSame(global, global.getScopeAtOffset(9));
+		assertSame(functions[0], global.getScopeAtOffset(0));
+		assertSame(functions[99], global.getScopeAtOffset(998));
+		assertSame(functions[42], global.getScopeAtOffset(421));
+		assertSame(nested, global.getScopeAtOffset(424));
+		assertSame(global, global.getScopeAtOffset(1000));
+		assertNull(global.getScopeAtOffset(1001));
+	}
+
+	@Test
+	public void testGetScopeAtOffsetPrefersFirstOfAdjacentScopes()
+	{
+		JSScope global = createScope(null, 0, 100);
+		JSScope first = createScope(global, 10, 20);
+		JSScope second = createScope(global, 20, 30);
+
+		assertSame(first, global.getScopeAtOffset(20));
+		assertSame(second, global.getScopeAtOffset(21));
+	}
+
+	@Test
+	public void testGetScopeAtOffsetWithUnorderedScopes()
+	{
+		JSScope global = createScope(null, 0, 100);
+		JSScope later = createScope(global, 50, 60);
+		JSScope earlier = createScope(global, 10, 20);
+
+		assertSame(later, global.getScopeAtOffset(55));
+		assertSame(earlier, global.getScopeAtOffset(15));
+		assertSame(global, global.getScopeAtOffset(30));
+	}
+
+	@Test
+	public void testGetScopeAtOffsetAfterRangeChange()
+	{
+		JSScope global = createScope(null, 0, 100);
+		JSScope child = createScope(global, 10, 20);
+
+		assertSame(global, global.getScopeAtOffset(40));
+
+		child.setRange(new Range(30, 50));
+
+		assertSame(child, global.getScopeAtOffset(40));
+	}
+
+	@Test
+	public void testGetSymbolNamesFollowsAdditions()
+	{
+		JSScope global = createScope(null, 0, 100);
+		JSScope child = createScope(global, 10, 20);
+
+		global.addSymbol("a", null);
+		child.addSymbol("b", null);
+
+		List<String> names = child.getSymbolNames();
+		assertEquals(2, names.size());
+
+		// symbols added to an ancestor, directly or through its object, should show up
+		global.getObject().setProperty("c", new JSPropertyCollection());
+		names = child.getSymbolNames();
+		assertEquals(3, names.size());
+		assertTrue(names.contains("a"));
+		assertTrue(names.contains("b"));
+		assertTrue(names.contains("c"));
+	}
+
+	@Test
+	public void testGlobalsAreNotSharedThroughTheAST() throws Exception
+	{
+		JSParseRootNode ast = (JSParseRootNode) new JSParser().parse(new ParseState("var a = 10;")).getRootNode();
+
+		JSScope first = ast.getGlobals();
+		JSScope second = ast.getGlobals();
+
+		assertNotSame(first, second);
+
+		// types inferred on one tree must not leak into the other
+		first.getSymbol("a").addType("Number");
+
+		assertTrue(first.getSymbol("a").hasTypes());
+		assertFalse(second.getSymbol("a").hasTypes());
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.js.core.inferencing;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.aptana.index.core.Index;
+import com.aptana.index.core.IndexPlugin;
+import com.aptana.js.core.index.JSIndexQueryHelper;
+import com.aptana.js.core.parsing.JSParser;
+import com.aptana.js.core.parsing.ast.JSParseRootNode;
+import com.aptana.parsing.ParseState;
+
+public class JSSymbolTableCacheTest
+{
+	private static final URI LOCATION = URI.create("file:/tmp/test.js");
+	private static final URI INDEX_LOCATION = URI.create("test:/symbol-table-cache");
+
+	@After
+	public void tearDown() throws Exception
+	{
+		JSSymbolTableCache.getInstance().clear();
+		IndexPlugin.getDefault().getIndexManager().removeIndex(INDEX_LOCATION);
+	}
+
+	private JSParseRootNode parse(String source)
+	{
+		try
+		{
+			return (JSParseRootNode) new JSParser().parse(new ParseState(source)).getRootNode();
+		}
+		catch (Exception e)
+		{
+			fail(e.getMessage());
+		}
+
+		throw new AssertionError("Should never get here.");
+	}
+
+	private JSSymbolTable acquireFromOtherThread(final JSParseRootNode ast) throws InterruptedException
+	{
+		final JSSymbolTable[] result = new JSSymbolTable[1];
+		Thread thread = new Thread()
+		{
+			public void run()
+			{
+				result[0] = JSSymbolTableCache.getInstance().acquire(ast, LOCATION, null);
+				result[0].release();
+			}
+		};
+
+		thread.start();
+		thread.join();
+
+		return result[0];
+	}
+
+	@Test
+	public void testSameContentSharesTable() throws Exception
+	{
+		JSSymbolTableCache cache = JSSymbolTableCache.getInstance();
+
+		JSSymbolTable first = cache.acquire(parse("var a = 10;"), LOCATION, null);
+		first.release();
+		JSSymbolTable second = cache.acquire(parse("var a = 10;"), LOCATION, null);
+		second.release();
+
+		assertSame(first, second);
+	}
+
+	@Test
+	public void testChangedContentGetsNewTable() throws Exception
+	{
+		JSSymbolTableCache cache = JSSymbolTableCache.getInstance();
+
+		JSSymbolTable first = cache.acquire(parse("var a = 10;"), LOCATION, null);
+		first.release();
+		JSSymbolTable second = cache.acquire(parse("var a = 11;"), LOCATION, null);
+		second.release();
+
+		assertNotSame(first, second);
+	}
+
+	@Test
+	public void testLeasedTableIsNotShared() throws Exception
+	{
+		JSParseRootNode ast = parse("var a = 10;");
+		JSSymbolTable leased = JSSymbolTableCache.getInstance().acquire(ast, LOCATION, null);
+
+		try
+		{
+			assertNotSame(leased, acquireFromOtherThread(ast));
+		}
+		finally
+		{
+			leased.release();
+		}
+
+		assertSame(leased, acquireFromOtherThread(ast));
+	}
+
+	@Test
+	public void testPutReplacesTable() throws Exception
+	{
+		JSSymbolTableCache cache = JSSymbolTableCache.getInstance();
+		JSParseRootNode ast = parse("var a = 10;");
+		JSScope globals = ast.getGlobals();
+
+		cache.put(ast, LOCATION, globals, null);
+
+		JSSymbolTable table = cache.acquire(ast, LOCATION, null);
+		table.release();
+
+		assertSame(globals, table.getGlobals());
+	}
+
+	@Test
+	public void testIndexChangeGetsNewTable() throws Exception
+	{
+		JSSymbolTableCache cache = JSSymbolTableCache.getInstance();
+		Index index = IndexPlugin.getDefault().getIndexManager().getIndex(INDEX_LOCATION);
+		JSIndexQueryHelper queryHelper = new JSIndexQueryHelper(index);
+
+		JSSymbolTable first = cache.acquire(parse("var a = b;"), LOCATION, queryHelper);
+		first.release();
+		JSSymbolTable second = cache.acquire(parse("var a = b;"), LOCATION, queryHelper);
+		second.release();
+
+		assertSame(first, second);
+
+		// another file defines b
+		index.addEntry("test", "b", URI.create("other.js"));
+
+		JSSymbolTable third = cache.acquire(parse("var a = b;"), LOCATION, queryHelper);
+		third.release();
+
+		assertNotSame(first, third);
+	}
+}
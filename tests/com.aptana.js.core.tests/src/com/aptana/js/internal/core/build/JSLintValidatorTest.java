@@ -8,7 +8,9 @@
 package com.aptana.js.internal.core.build;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -3389,4 +3391,56 @@ public class JSLintValidatorTest extends AbstractValidatorTestCase
 		List<IProblem> items = getParseErrors(text);
 		assertDoesntContain(items, "Read only.");
 	}
+
+	@Test
+	public void testConcurrentLintRunsDontShareResults() throws Exception
+	{
+		final String labelText = "function foo() {\n" + "    var i;\n" + "bar:\n" + "    for (i = 0; i < 10; i += 1) {\n"
+				+ "        bar += 10;\n" + "    }\n" + "}";
+		final String definedText = "function bar() {\n" + "    var foo = 1;\n" + "    var foo = 2;\n" + "}";
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++)
+		{
+			final boolean labels = (i % 2 == 0);
+			threads[i] = new Thread()
+			{
+				public void run()
+				{
+					try
+					{
+						for (int j = 0; j < 10; j++)
+						{
+							if (labels)
+							{
+								List<IProblem> items = getParseErrors(labelText);
+								assertProblemExists(items, "'bar' is a statement label.", 5, IMarker.SEVERITY_WARNING,
+										75);
+								assertDoesntContain(items, "'foo' is already defined.");
+							}
+							else
+							{
+								List<IProblem> items = getParseErrors(definedText);
+								assertProblemExists(items, "'foo' is already defined.", 3, IMarker.SEVERITY_WARNING,
+										42);
+								assertDoesntContain(items, "'bar' is a statement label.");
+							}
+						}
+					}
+					catch (Throwable e)
+					{
+						failures.add(e);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+		{
+			thread.join();
+		}
+
+		assertTrue(failures.toString(), failures.isEmpty());
+	}
 }
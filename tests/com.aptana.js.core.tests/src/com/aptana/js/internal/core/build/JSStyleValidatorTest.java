@@ -641,4 +641,19 @@ public class JSStyleValidatorTest extends JSLintValidatorTest
 				1, IMarker.SEVERITY_WARNING, 1549);
 	}
 
+	@Test
+	public void testUnchangedFunctionsReuseTheirResults() throws CoreException
+	{
+		String definedText = "function bar() {\n" + "    var foo = 1;\n" + "    var foo = 2;\n" + "}";
+		List<IProblem> items = getParseErrors(definedText);
+		assertProblemExists(items, "'foo' is already defined.", 3, IMarker.SEVERITY_WARNING, 42);
+
+		// same function further down, the cached problem has to move with it
+		items = getParseErrors("\n\n" + definedText);
+		assertProblemExists(items, "'foo' is already defined.", 5, IMarker.SEVERITY_WARNING, 44);
+
+		// a function that sees different globals is checked again
+		items = getParseErrors("var foo;\n" + definedText);
+		assertProblemExists(items, "'foo' is already defined.", 4, IMarker.SEVERITY_WARNING, 51);
+	}
 }
@@ -259,6 +259,36 @@ public class JSIndexTest
 		assertEquals(methodName, retrievedMethod.getName());
 	}
 
+	@Test
+	public void testMemberLookupsSeeLaterWrites()
+	{
+		JSIndexReader reader = new JSIndexReader();
+		String typeName = "MyClass";
+
+		TypeElement type = new TypeElement();
+		type.setName(typeName);
+		FunctionElement first = new FunctionElement();
+		first.setName("first");
+		type.addProperty(first);
+		this.writeType(type);
+
+		assertEquals(1, reader.getFunctions(getIndex(), typeName).size());
+		assertEquals(1, reader.getFunctions(getIndex(), typeName, "first").size());
+		assertEquals(0, reader.getFunctions(getIndex(), typeName, "second").size());
+
+		// adding to the index must invalidate what was read so far
+		TypeElement sameType = new TypeElement();
+		sameType.setName(typeName);
+		FunctionElement second = new FunctionElement();
+		second.setName("second");
+		sameType.addProperty(second);
+		this.writeType(sameType);
+
+		assertEquals(2, reader.getFunctions(getIndex(), typeName).size());
+		assertEquals(1, reader.getFunctions(getIndex(), typeName, "second").size());
+		assertEquals(2, reader.getFunctions(getIndex(), CollectionsUtil.newList(typeName, typeName)).size());
+	}
+
 	/**
 	 * testProperty
 	 */
@@ -501,6 +531,41 @@ public class JSIndexTest
 		assertNull("Expected userAgents property to be null", map.get("userAgents"));
 	}
 
+	@Test
+	public void testQueryResultColumnsMatchSplitKey()
+	{
+		PropertyElement property = new PropertyElement();
+		property.setName("property");
+		property.setHasAllUserAgents();
+
+		TypeElement type = new TypeElement();
+		type.setName("Testing");
+		type.addProperty(property);
+
+		JSIndexWriter writer = new JSIndexWriter();
+		writer.writeType(getIndex(), type);
+
+		// @formatter:off
+		List<QueryResult> properties = getIndex().query(
+			new String[] { IJSIndexConstants.PROPERTY },
+			type.getName(),
+			SearchPattern.PREFIX_MATCH
+		);
+		// @formatter:on
+
+		assertNotNull(properties);
+		assertEquals(1, properties.size());
+
+		QueryResult result = properties.get(0);
+		String[] columns = IndexReader.DELIMITER_PATTERN.split(result.getWord());
+
+		for (int i = 0; i < columns.length; i++)
+		{
+			assertEquals(columns[i], result.getColumn(i, IJSIndexConstants.DELIMITER));
+		}
+		assertNull(result.getColumn(columns.length, IJSIndexConstants.DELIMITER));
+	}
+
 	/**
 	 * testType
 	 */
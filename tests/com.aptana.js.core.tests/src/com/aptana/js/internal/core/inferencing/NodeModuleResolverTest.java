@@ -8,6 +8,7 @@
 package com.aptana.js.internal.core.inferencing;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -160,6 +161,26 @@ public class NodeModuleResolverTest
 		assertEquals(file2, resolver.resolve("file2", null, dir, null));
 	}
 
+	@Test
+	public void testNodeModulesListingIsCachedUntilCleared() throws Exception
+	{
+		IPath nodeModules = dir.removeLastSegments(1).append("node_modules");
+		nodeModules.toFile().mkdirs();
+
+		IPath file = nodeModules.append("file.js");
+		file.toFile().createNewFile();
+		assertEquals(file, resolver.resolve("file", null, dir, null));
+
+		// the directory was listed when resolving "file", so a module added since then isn't seen...
+		IPath late = nodeModules.append("late.js");
+		late.toFile().createNewFile();
+		assertNull(resolver.resolve("late", null, dir, null));
+
+		// ...until the cache is told files changed
+		ModuleResolutionCache.getInstance().clear();
+		assertEquals(late, resolver.resolve("late", null, dir, null));
+	}
+
 	@Test
 	public void testGetPossibleModuleIdsChecksNodeSourcePath() throws Exception
 	{
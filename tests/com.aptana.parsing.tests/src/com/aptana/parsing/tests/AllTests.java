@@ -21,6 +21,7 @@ import com.aptana.parsing.ParseStateCacheKeyWithCommentsTest;
 	com.aptana.parsing.ast.AllTests.class,
 	com.aptana.parsing.lexer.LexerTests.class,
 	com.aptana.parsing.pool.AllTests.class,
+	com.aptana.parsing.xpath.ParseNodeXPathTest.class,
 	com.aptana.sax.AllTests.class
 })
 // @formatter:on
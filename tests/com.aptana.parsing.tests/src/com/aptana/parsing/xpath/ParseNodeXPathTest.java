@@ -0,0 +1,164 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.parsing.xpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.jaxen.BaseXPath;
+import org.jaxen.JaxenException;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aptana.parsing.ast.IParseNode;
+import com.aptana.parsing.ast.IParseNodeAttribute;
+import com.aptana.parsing.ast.ParseNode;
+import com.aptana.parsing.ast.ParseNodeAttribute;
+
+@SuppressWarnings("nls")
+public class ParseNodeXPathTest
+{
+	static class ElementNode extends ParseNode
+	{
+		private String _name;
+		private IParseNodeAttribute[] _attributes;
+
+		public ElementNode(String name, String... attributes)
+		{
+			this._name = name;
+			this._attributes = new IParseNodeAttribute[attributes.length / 2];
+
+			for (int i = 0; i < this._attributes.length; i++)
+			{
+				this._attributes[i] = new ParseNodeAttribute(this, attributes[i * 2], attributes[i * 2 + 1]);
+			}
+		}
+
+		public IParseNodeAttribute[] getAttributes()
+		{
+			return this._attributes;
+		}
+
+		public String getElementName()
+		{
+			return this._name;
+		}
+
+		public String getLanguage()
+		{
+			return "text/simple";
+		}
+
+		// siblings would be equal otherwise, which makes Jaxen drop all but one of them
+		public boolean equals(Object obj)
+		{
+			return this == obj;
+		}
+
+		public int hashCode()
+		{
+			return System.identityHashCode(this);
+		}
+	}
+
+	private IParseNode root;
+	private IParseNode invoke;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		root = new ElementNode("root");
+		invoke = add(root, new ElementNode("invoke"));
+
+		IParseNode group = add(invoke, new ElementNode("group"));
+		add(group, new ElementNode("function", "name", "abc"));
+		add(invoke, new ElementNode("function", "name", "def"));
+		add(invoke, new ElementNode("function"));
+
+		IParseNode second = add(root, new ElementNode("invoke"));
+		add(second, new ElementNode("function", "name", "abc"));
+		add(root, new ElementNode("function", "name", "abc"));
+	}
+
+	private IParseNode add(IParseNode parent, IParseNode child)
+	{
+		parent.addChild(child);
+		return child;
+	}
+
+	private void assertSameAsJaxen(String expression, IParseNode context, int expectedCount) throws JaxenException
+	{
+		ParseNodeXPath xpath = new ParseNodeXPath(expression);
+		BaseXPath reference = new BaseXPath(expression, ParseNodeNavigator.getInstance());
+
+		assertNotNull(expression + " should be compiled",
+				CompiledParseNodePath.compile(xpath.getRootExpr(), ParseNodeNavigator.getInstance()));
+
+		List<?> expected = reference.selectNodes(context);
+		List<?> actual = xpath.selectNodes(context);
+
+		assertEquals(expression, expectedCount, expected.size());
+		assertEquals(expression, expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			assertSame(expression, expected.get(i), actual.get(i));
+		}
+	}
+
+	@Test
+	public void testChildSteps() throws Exception
+	{
+		assertSameAsJaxen("invoke/group/function", root, 1);
+		assertSameAsJaxen("invoke/function", root, 3);
+		assertSameAsJaxen("invoke/*", root, 4);
+		assertSameAsJaxen("function", invoke, 2);
+	}
+
+	@Test
+	public void testAbsolutePath() throws Exception
+	{
+		assertSameAsJaxen("/invoke/function", invoke.getChild(0), 3);
+	}
+
+	@Test
+	public void testPositionPredicates() throws Exception
+	{
+		assertSameAsJaxen("invoke[1]/function", root, 2);
+		assertSameAsJaxen("invoke[position() = 2]/function", root, 1);
+		assertSameAsJaxen("invoke/function[1]", root, 2);
+		assertSameAsJaxen("invoke/function[3]", root, 0);
+	}
+
+	@Test
+	public void testAttributePredicates() throws Exception
+	{
+		assertSameAsJaxen("invoke/function[@name='abc']", root, 1);
+		assertSameAsJaxen("invoke/*/function['abc' = @name]", root, 1);
+		assertSameAsJaxen("function[@name='xyz']", root, 0);
+	}
+
+	@Test
+	public void testUnionIsInDocumentOrder() throws Exception
+	{
+		assertSameAsJaxen("function|invoke[position() = 1]/group/function|invoke/function", root, 5);
+		assertSameAsJaxen("invoke/function|invoke[1]/function", root, 3);
+	}
+
+	@Test
+	public void testUnsupportedExpressionsUseJaxen() throws Exception
+	{
+		ParseNodeXPath xpath = new ParseNodeXPath("//function[@name='abc']");
+
+		assertNull(CompiledParseNodePath.compile(xpath.getRootExpr(), ParseNodeNavigator.getInstance()));
+		assertEquals(3, xpath.selectNodes(root).size());
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * Aptana Studio
+ * Copyright (c) 2005-2012 by Appcelerator, Inc. All Rights Reserved.
+ * Licensed under the terms of the GNU Public License (GPL) v3 (with exceptions).
+ * Please see the license.html included with this distribution for details.
+ * Any modifications to this file must keep this entire header intact.
+ */
+package com.aptana.scripting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jruby.Ruby;
+import org.jruby.embed.ScriptingContainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aptana.core.util.FileUtil;
+import com.aptana.scripting.model.BundleManager;
+
+public class ScriptingEnginePoolTest
+{
+	private static final int BUNDLE_COUNT = 12;
+	private static final int THREAD_COUNT = 8;
+
+	private File root;
+	private List<File> scripts;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		root = new File(FileUtil.getTempDirectory().toOSString(), "runtime_pool_test_" + System.currentTimeMillis());
+		scripts = new ArrayList<File>();
+
+		for (int i = 0; i < BUNDLE_COUNT; i++)
+		{
+			File bundleDirectory = new File(root, "bundle" + i);
+			File bundleFile = new File(bundleDirectory, BundleManager.BUNDLE_FILE);
+
+			assertTrue(bundleDirectory.mkdirs());
+			assertTrue(bundleFile.createNewFile());
+			scripts.add(bundleFile);
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtil.deleteRecursively(root);
+		root = null;
+		scripts = null;
+	}
+
+	@Test
+	public void testThreadsShareWarmRuntimes() throws Exception
+	{
+		final ScriptingEngine engine = ScriptingEngine.getInstance();
+		final Map<Ruby, ScriptingContainer> runtimes = Collections
+				.synchronizedMap(new IdentityHashMap<Ruby, ScriptingContainer>());
+		final Map<File, Ruby> runtimeByScript = Collections.synchronizedMap(new IdentityHashMap<File, Ruby>());
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int i = 0; i < THREAD_COUNT; i++)
+		{
+			Thread thread = new Thread("runtime pool test " + i)
+			{
+				public void run()
+				{
+					try
+					{
+						for (File script : scripts)
+						{
+							ScriptingContainer container = engine.getInitializedScriptingContainer(script);
+							Ruby runtime = container.getProvider().getRuntime();
+
+							runtimes.put(runtime, container);
+
+							// every thread must see the same runtime for a given bundle
+							synchronized (runtimeByScript)
+							{
+								Ruby previous = runtimeByScript.get(script);
+
+								if (previous == null)
+								{
+									runtimeByScript.put(script, runtime);
+								}
+								else
+								{
+									assertSame(previous, runtime);
+								}
+							}
+						}
+					}
+					catch (Throwable t)
+					{
+						failures.add(t);
+					}
+				}
+			};
+
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads)
+		{
+			thread.join();
+		}
+
+		assertEquals(failures.toString(), 0, failures.size());
+		assertTrue(runtimes.size() + " runtimes for a pool of " + engine.getRuntimePoolSizeInUse(),
+				runtimes.size() <= engine.getRuntimePoolSizeInUse());
+
+		for (ScriptingContainer container : runtimes.values())
+		{
+			Object loaded = container.runScriptlet("$LOADED_FEATURES.any? { |f| f =~ /ruble(\\.rb)?$/ }");
+
+			assertEquals(Boolean.TRUE, loaded);
+		}
+	}
+}
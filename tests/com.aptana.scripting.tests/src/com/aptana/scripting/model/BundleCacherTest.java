@@ -7,6 +7,7 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -89,6 +90,82 @@ public class BundleCacherTest
 		assertEquals("(?-mix:^.*(\\{[^}\"'']*|\\([^)\"'']*)$)", regexp.toString());
 	}
 
+	@Test
+	public void testYAMLCacheIsMigratedToBinary() throws Exception
+	{
+		// @formatter:off
+		String fileContents = "--- !!com.aptana.scripting.model.BundleElement \n" +
+			"author: Christopher Williams\n" +
+			"displayName: \"JavaScript\"\n" +
+			"path: bundle.rb\n" +
+			"visible: true\n";
+		// @formatter:on
+
+		createBundleDirectory();
+		writeFile("cache.yml", fileContents);
+
+		List<File> files = Collections.emptyList();
+		BundleElement fromYAML = cacher.load(bundleDirectory, files, new NullProgressMonitor(), true);
+		assertNotNull("Failed to deserialize the test bundle from YAML", fromYAML);
+
+		File binary = findCacheFile(".bin");
+		assertNotNull("Expected YAML cache to be migrated to a binary cache", binary);
+
+		bundleManager.reset();
+		deserialized = cacher.load(bundleDirectory, files, new NullProgressMonitor(), true);
+		assertNotNull("Failed to deserialize the migrated binary cache", deserialized);
+		assertEquals("Christopher Williams", deserialized.getAuthor());
+		assertEquals(fromYAML.toSource(false), deserialized.toSource(false));
+	}
+
+	@Test
+	public void testCacheIsWrittenInBinaryFormat() throws Exception
+	{
+		// @formatter:off
+		String fileContents = "require 'ruble'\n\n" 
+			+ "bundle {|b| }\n" 
+			+ "command 'Hash Pointer - =>' do |cmd|\n"
+			+ "  cmd.key_binding = 'Control+L'\n" 
+			+ "  cmd.output = :insert_as_text\n" 
+			+ "  cmd.invoke do |context|\n" 
+			+ "    ' => '\n" 
+			+ "  end\n"
+			+ "end\n";
+		// @formatter:on
+		assertDeserializedCacheEqualsFromDisk(fileContents);
+
+		assertNotNull("Expected a binary cache file to be written", findCacheFile(".bin"));
+		assertNull("Did not expect a YAML cache file to be written", findCacheFile(".yml"));
+	}
+
+	@Test
+	public void testCacheFromDifferentFormatVersionIsIgnored() throws Exception
+	{
+		// @formatter:off
+		String fileContents = "require 'ruble'\n\n" 
+			+ "bundle {|b| }\n"
+			+ "smart_typing_pairs['text.html'] = ['<', '>']\n";
+		// @formatter:on
+		assertDeserializedCacheEqualsFromDisk(fileContents);
+
+		// Bump the version stored right after the magic number
+		File binary = findCacheFile(".bin");
+		RandomAccessFile raf = new RandomAccessFile(binary, "rw");
+		try
+		{
+			raf.seek(4);
+			raf.writeShort(BinaryBundleCache.VERSION + 1);
+		}
+		finally
+		{
+			raf.close();
+		}
+
+		bundleManager.reset();
+		List<File> files = Collections.emptyList();
+		assertNull(cacher.load(bundleDirectory, files, new NullProgressMonitor(), true));
+	}
+
 	@Test
 	public void testSerializeAndDeserializeSnippet() throws Exception
 	{
@@ -342,6 +419,18 @@ public class BundleCacherTest
 		return file;
 	}
 
+	protected File findCacheFile(String extension)
+	{
+		for (File file : bundleDirectory.listFiles())
+		{
+			if (file.getName().startsWith("cache.") && file.getName().endsWith(extension))
+			{
+				return file;
+			}
+		}
+		return null;
+	}
+
 	protected void createBundleDirectory()
 	{
 		bundleDirectory = new File(FileUtil.getTempDirectory().toOSString(), "bundle_cache_test_" + System.currentTimeMillis());
@@ -11,6 +11,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 import com.aptana.scripting.BundleConverterTest;
+import com.aptana.scripting.ScriptingEnginePoolTest;
 
 @RunWith(Suite.class)
 //@formatter:off
@@ -19,6 +20,7 @@ import com.aptana.scripting.BundleConverterTest;
 	com.aptana.scope.AllTests.class,
 	com.aptana.scope.parsing.AllScopeParsingTests.class,
 	BundleConverterTest.class,
+	ScriptingEnginePoolTest.class,
 	UnicodeCharsJRubyTest.class
 })
 //@formatter:on